@@ -24,10 +24,13 @@ package org.gitlab4j.api;
  */
 
 import java.net.URL;
-import java.net.URLEncoder;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 import javax.ws.rs.NotAuthorizedException;
 import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
@@ -40,6 +43,8 @@ import org.gitlab4j.api.models.Project;
  */
 public abstract class AbstractApi implements Constants {
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     private GitLabApi gitLabApi;
 
     public AbstractApi(GitLabApi gitLabApi) {
@@ -62,18 +67,72 @@ public abstract class AbstractApi implements Constants {
         return (gitLabApi.getApiClient());
     }
 
+    /**
+     * Get the object cache of the GitLabApi instance, will return null if objects are not cached
+     * or the calls are made as another user.
+     *
+     * @return the object cache, or null if objects are not cached
+     */
+    protected GitLabObjectCache getObjectCache() {
+        GitLabObjectCache objectCache = gitLabApi.getObjectCache();
+        return (getApiClient().getSudoAsId() == null ? objectCache : null);
+    }
+
+    /**
+     * Get the object cache of the GitLabApi instance to drop the objects changed by a write call from, will return
+     * null if objects are not cached. Unlike getObjectCache() this includes calls made as another user.
+     *
+     * @return the object cache, or null if objects are not cached
+     */
+    protected GitLabObjectCache getObjectCacheForWrite() {
+        return (gitLabApi.getObjectCache());
+    }
+
+    /**
+     * URL encodes the provided String the way GitLab expects a path or name as part of the path: the same as
+     * URLEncoder.encode(s, "UTF-8") except that '.', '-' and '_' are encoded as well. This is done in a single
+     * pass and the String is returned as is when nothing needs to be encoded.
+     *
+     * @param s the String to encode
+     * @return the encoded String
+     * @throws GitLabApiException if any exception occurs during execution
+     */
     protected String urlEncode(String s) throws GitLabApiException {
         try {
-            String encoded = URLEncoder.encode(s, "UTF-8");
-            encoded = encoded.replace(".", "%2E");
-            encoded = encoded.replace("-", "%2D");
-            encoded = encoded.replace("_", "%5F");
-            return (encoded);
+            int length = s.length();
+            int i = 0;
+            while (i < length && isUnreserved(s.charAt(i))) {
+                i++;
+            }
+
+            if (i == length) {
+                return (s);
+            }
+
+            byte[] bytes = s.getBytes("UTF-8");
+            StringBuilder encoded = new StringBuilder(bytes.length * 3);
+            encoded.append(s, 0, i);
+            for (int j = i; j < bytes.length; j++) {
+                int b = bytes[j] & 0xFF;
+                if (b < 0x80 && isUnreserved((char) b)) {
+                    encoded.append((char) b);
+                } else if (b == ' ') {
+                    encoded.append('+');
+                } else {
+                    encoded.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0x0F]);
+                }
+            }
+
+            return (encoded.toString());
         } catch (Exception e) {
             throw new GitLabApiException(e);
         }
     }
 
+    private static boolean isUnreserved(char c) {
+        return ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '*');
+    }
+
 
     /**
      * Returns the project ID or path from the provided Integer, String, or Project instance.
@@ -129,6 +188,145 @@ public abstract class AbstractApi implements Constants {
         }
     }
 
+    /**
+     * Reads the entity from a response.
+     */
+    private interface EntityReader<T> {
+        T read(Response response);
+    }
+
+    /**
+     * Perform an HTTP GET call with the specified query parameters and path objects, returning the entity read
+     * from the response. When a request coalescer is set, concurrent identical calls send one request and share
+     * the result. When an ETag response cache is set, the request is conditional and a 304 Not Modified answer
+     * returns the cached entity.
+     *
+     * @param <T>            the entity type
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param entityType     the class of the entity
+     * @param queryParams    multivalue map of request parameters
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return the entity read from the response
+     * @throws GitLabApiException if any exception occurs during execution
+     */
+    protected <T> T getEntity(Response.Status expectedStatus, final Class<T> entityType,
+            MultivaluedMap<String, String> queryParams, Object... pathArgs) throws GitLabApiException {
+        return (getEntity(expectedStatus, entityType.getName(), new EntityReader<T>() {
+            @Override
+            public T read(Response response) {
+                return (response.readEntity(entityType));
+            }
+        }, queryParams, pathArgs));
+    }
+
+    /**
+     * Perform an HTTP GET call with the specified query parameters and path objects, returning the entity read
+     * from the response. When a request coalescer is set, concurrent identical calls send one request and share
+     * the result. When an ETag response cache is set, the request is conditional and a 304 Not Modified answer
+     * returns the cached entity.
+     *
+     * @param <T>            the entity type
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param entityType     the generic type of the entity
+     * @param queryParams    multivalue map of request parameters
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return the entity read from the response
+     * @throws GitLabApiException if any exception occurs during execution
+     */
+    protected <T> T getEntity(Response.Status expectedStatus, final GenericType<T> entityType,
+            MultivaluedMap<String, String> queryParams, Object... pathArgs) throws GitLabApiException {
+        return (getEntity(expectedStatus, entityType.getType().toString(), new EntityReader<T>() {
+            @Override
+            public T read(Response response) {
+                return (response.readEntity(entityType));
+            }
+        }, queryParams, pathArgs));
+    }
+
+    /**
+     * Returns the object from the provided object cache region, or performs an HTTP GET call with the specified
+     * path objects and caches the result.
+     *
+     * @param <T>        the entity type
+     * @param region     the object cache region, or null to always perform the call
+     * @param key        the ID of the object in the region
+     * @param entityType the class of the entity
+     * @param pathArgs   variable list of arguments used to build the URI
+     * @return the cached or loaded object
+     * @throws GitLabApiException if any exception occurs during execution
+     */
+    protected <T> T getCachedObject(GitLabObjectCache.Region<T> region, Object key, Class<T> entityType, Object... pathArgs) throws GitLabApiException {
+
+        if (region == null) {
+            return (getEntity(Response.Status.OK, entityType, null, pathArgs));
+        }
+
+        T object = region.get(key);
+        if (object == null) {
+            long stamp = region.getStamp();
+            object = getEntity(Response.Status.OK, entityType, null, pathArgs);
+            region.put(key, object, stamp);
+        }
+
+        return (object);
+    }
+
+    private <T> T getEntity(final Response.Status expectedStatus, String entityType, final EntityReader<T> reader,
+            final MultivaluedMap<String, String> queryParams, final Object... pathArgs) throws GitLabApiException {
+
+        GitLabApiClient apiClient = getApiClient();
+        RequestCoalescer coalescer = apiClient.getRequestCoalescer();
+        final ETagResponseCache cache = apiClient.getResponseCache();
+        if (coalescer == null && cache == null) {
+            return (reader.read(get(expectedStatus, queryParams, pathArgs)));
+        }
+
+        final String key = apiClient.getRequestKey(entityType, queryParams, pathArgs);
+        RequestCoalescer.Call<T> call = new RequestCoalescer.Call<T>() {
+            @Override
+            public T call() throws GitLabApiException {
+                if (cache == null) {
+                    return (reader.read(get(expectedStatus, queryParams, pathArgs)));
+                }
+
+                return (getCachedEntity(cache, key, expectedStatus, reader, queryParams, pathArgs));
+            }
+        };
+
+        return (coalescer != null ? coalescer.execute(key, call) : call.call());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getCachedEntity(ETagResponseCache cache, String key, Response.Status expectedStatus, EntityReader<T> reader,
+            MultivaluedMap<String, String> queryParams, Object... pathArgs) throws GitLabApiException {
+
+        ETagResponseCache.Entry entry = cache.get(key);
+        Response response;
+        try {
+            response = getApiClient().getIfNoneMatch(queryParams, (entry != null ? entry.getETag() : null), pathArgs);
+            if (entry != null && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                response.close();
+                cache.hit();
+                return ((T) entry.getValue());
+            }
+
+            validate(response, expectedStatus);
+        } catch (Exception e) {
+            throw handle(e);
+        }
+
+        cache.miss();
+        T entity = reader.read(response);
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        if (etag != null) {
+            cache.put(key, etag, entity);
+        } else if (entry != null) {
+            cache.remove(key);
+        }
+
+        return (entity);
+    }
+
     /**
      * Perform an HTTP GET call with the specified query parameters and path objects, returning
      * a ClientResponse instance with the data returned from the endpoint.
@@ -328,6 +526,173 @@ public abstract class AbstractApi implements Constants {
         }
     }
 
+    /**
+     * Perform an asynchronous HTTP GET call with the specified query parameters and path objects. The returned
+     * future is completed with the validated Response, or exceptionally with a GitLabApiException.
+     *
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param queryParams    multivalue map of request parameters
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> getAsync(Response.Status expectedStatus, MultivaluedMap<String, String> queryParams, Object... pathArgs) {
+        try {
+            return (validateAsync(getApiClient().getAsync(queryParams, pathArgs), expectedStatus));
+        } catch (Exception e) {
+            return (failedFuture(handle(e)));
+        }
+    }
+
+    /**
+     * Perform an asynchronous HTTP POST call with the specified form data and path objects. The returned
+     * future is completed with the validated Response, or exceptionally with a GitLabApiException.
+     *
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param formData       the Form containing the name/value pairs for the POST data
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> postAsync(Response.Status expectedStatus, Form formData, Object... pathArgs) {
+        try {
+            return (validateAsync(getApiClient().postAsync(formData, pathArgs), expectedStatus));
+        } catch (Exception e) {
+            return (failedFuture(handle(e)));
+        }
+    }
+
+    /**
+     * Perform an asynchronous HTTP PUT call with the specified form data and path objects. The returned
+     * future is completed with the validated Response, or exceptionally with a GitLabApiException.
+     *
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param formData       the Form containing the name/value pairs for the PUT data
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> putAsync(Response.Status expectedStatus, Form formData, Object... pathArgs) {
+        try {
+            return (validateAsync(getApiClient().putAsync(formData, pathArgs), expectedStatus));
+        } catch (Exception e) {
+            return (failedFuture(handle(e)));
+        }
+    }
+
+    /**
+     * Perform an asynchronous HTTP DELETE call with the specified query parameters and path objects. The returned
+     * future is completed with the validated Response, or exceptionally with a GitLabApiException.
+     *
+     * @param expectedStatus the HTTP status that should be returned from the server
+     * @param queryParams    multivalue map of request parameters
+     * @param pathArgs       variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> deleteAsync(Response.Status expectedStatus, MultivaluedMap<String, String> queryParams, Object... pathArgs) {
+        try {
+            return (validateAsync(getApiClient().deleteAsync(queryParams, pathArgs), expectedStatus));
+        } catch (Exception e) {
+            return (failedFuture(handle(e)));
+        }
+    }
+
+    /**
+     * Reads the entity of the Response the provided future is completed with. A failure to read the entity
+     * completes the returned future exceptionally with a GitLabApiException.
+     *
+     * @param future     the future Response
+     * @param entityType the type of the entity
+     * @param <T>        the type of the entity
+     * @return a CompletableFuture that will be completed with the entity
+     */
+    protected <T> CompletableFuture<T> readEntityAsync(CompletableFuture<Response> future, final Class<T> entityType) {
+
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        future.whenComplete(new BiConsumer<Response, Throwable>() {
+            @Override
+            public void accept(Response response, Throwable thrown) {
+                if (thrown != null) {
+                    result.completeExceptionally(thrown);
+                    return;
+                }
+
+                try {
+                    result.complete(response.readEntity(entityType));
+                } catch (Exception e) {
+                    result.completeExceptionally(handle(e));
+                }
+            }
+        });
+
+        return (result);
+    }
+
+    /**
+     * Reads the entity of the Response the provided future is completed with. A failure to read the entity
+     * completes the returned future exceptionally with a GitLabApiException.
+     *
+     * @param future     the future Response
+     * @param entityType the generic type of the entity
+     * @param <T>        the type of the entity
+     * @return a CompletableFuture that will be completed with the entity
+     */
+    protected <T> CompletableFuture<T> readEntityAsync(CompletableFuture<Response> future, final GenericType<T> entityType) {
+
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        future.whenComplete(new BiConsumer<Response, Throwable>() {
+            @Override
+            public void accept(Response response, Throwable thrown) {
+                if (thrown != null) {
+                    result.completeExceptionally(thrown);
+                    return;
+                }
+
+                try {
+                    result.complete(response.readEntity(entityType));
+                } catch (Exception e) {
+                    result.completeExceptionally(handle(e));
+                }
+            }
+        });
+
+        return (result);
+    }
+
+    /**
+     * Applies validate() to the Response the provided future is completed with, and maps any failure
+     * to a GitLabApiException the same way the synchronous calls do.
+     */
+    private CompletableFuture<Response> validateAsync(CompletableFuture<Response> future, final Response.Status expectedStatus) {
+
+        final CompletableFuture<Response> result = new CompletableFuture<Response>();
+        future.whenComplete(new BiConsumer<Response, Throwable>() {
+            @Override
+            public void accept(Response response, Throwable thrown) {
+
+                if (thrown instanceof Error) {
+                    result.completeExceptionally(thrown);
+                    return;
+                }
+
+                try {
+                    if (thrown != null) {
+                        result.completeExceptionally(handle((Exception) thrown));
+                    } else {
+                        result.complete(validate(response, expectedStatus));
+                    }
+                } catch (Exception e) {
+                    result.completeExceptionally(handle(e));
+                }
+            }
+        });
+
+        return (result);
+    }
+
+    protected static <T> CompletableFuture<T> failedFuture(Throwable thrown) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(thrown);
+        return (future);
+    }
+
     /**
      * Convenience method for adding query and form parameters to a get() or post() call.
      *
@@ -28,6 +28,7 @@ import java.net.URLEncoder;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.core.Form;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
@@ -213,8 +214,20 @@ public class CommitsApi extends AbstractApi {
      * @throws GitLabApiException GitLabApiException if any exception occurs during execution
      */
     public Commit getCommit(int projectId, String sha) throws GitLabApiException {
-        Response response = get(Response.Status.OK, getDefaultPerPageParam(), "projects", projectId, "repository", "commits", sha);
-        return (response.readEntity(Commit.class));
+        return (getEntity(Response.Status.OK, Commit.class, getDefaultPerPageParam(), "projects", projectId, "repository", "commits", sha));
+    }
+
+    /**
+     * Asynchronously get a specific commit identified by the commit hash or name of a branch or tag.
+     * <p>
+     * GET /projects/:id/repository/commits/:sha
+     *
+     * @param projectId the project ID that the commit belongs to
+     * @param sha       a commit hash or name of a branch or tag
+     * @return a CompletableFuture that will be completed with the Commit, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<Commit> getCommitAsync(int projectId, String sha) {
+        return (readEntityAsync(getAsync(Response.Status.OK, getDefaultPerPageParam(), "projects", projectId, "repository", "commits", sha), Commit.class));
     }
 
     /**
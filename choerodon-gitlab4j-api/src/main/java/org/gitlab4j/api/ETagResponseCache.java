@@ -0,0 +1,179 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of decoded GET responses and their ETag, shared by all threads using a {@link GitLabTransport}.
+ * <p>
+ * Entries are keyed by the auth context (token and sudo user), the API path, the query parameters and the type
+ * the response is read as. When an entry exists, the request is sent with If-None-Match and a 304 Not Modified
+ * answer returns the cached object without downloading or decoding the body again. The least recently used
+ * entries are evicted once the maximum number of entries is reached.
+ * <p>
+ * NOTE: cached objects are handed to every caller, they must be treated as read-only.
+ */
+public class ETagResponseCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * A cached ETag and the object decoded from the response carrying it.
+     */
+    static class Entry {
+
+        private final String etag;
+        private final Object value;
+
+        Entry(String etag, Object value) {
+            this.etag = etag;
+            this.value = value;
+        }
+
+        String getETag() {
+            return (etag);
+        }
+
+        Object getValue() {
+            return (value);
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a cache holding up to 1000 entries.
+     */
+    public ETagResponseCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache holding up to maxEntries entries.
+     *
+     * @param maxEntries the maximum number of cached responses
+     */
+    public ETagResponseCache(int maxEntries) {
+
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ETagResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return (true);
+                }
+
+                return (false);
+            }
+        };
+    }
+
+    synchronized Entry get(String key) {
+        return (entries.get(key));
+    }
+
+    synchronized void put(String key, String etag, Object value) {
+        entries.put(key, new Entry(etag, value));
+    }
+
+    synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Removes all cached responses, the metrics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the maximum number of cached responses
+     */
+    public int getMaxEntries() {
+        return (maxEntries);
+    }
+
+    /**
+     * @return the number of cached responses
+     */
+    public synchronized int getSize() {
+        return (entries.size());
+    }
+
+    /**
+     * @return the number of requests answered with 304 Not Modified and served from the cache
+     */
+    public long getHits() {
+        return (hits.get());
+    }
+
+    /**
+     * @return the number of requests that downloaded and decoded the response body
+     */
+    public long getMisses() {
+        return (misses.get());
+    }
+
+    /**
+     * @return the number of entries evicted to stay within the maximum number of entries
+     */
+    public long getEvictions() {
+        return (evictions.get());
+    }
+
+    /**
+     * @return the fraction of requests served from the cache, 0 if no requests were made yet
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return (total > 0 ? (double) hitCount / total : 0);
+    }
+
+    @Override
+    public String toString() {
+        return ("ETagResponseCache [size=" + getSize() + ", maxEntries=" + maxEntries + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]");
+    }
+}
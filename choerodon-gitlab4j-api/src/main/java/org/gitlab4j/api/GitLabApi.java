@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import org.apache.http.pool.PoolStats;
 import org.gitlab4j.api.Constants.TokenType;
 import org.gitlab4j.api.models.AccessToken;
 import org.gitlab4j.api.models.Session;
@@ -47,7 +48,8 @@ public class GitLabApi {
     public static final int DEFAULT_PER_PAGE = 100;
     GitLabApiClient apiClient;
     private ApiVersion apiVersion;
-    private int defaultPerPage = DEFAULT_PER_PAGE;
+    private volatile int defaultPerPage = DEFAULT_PER_PAGE;
+    private volatile GitLabObjectCache objectCache;
     private CommitsApi commitsApi;
     private DeployKeysApi deployKeysApi;
     private GroupApi groupApi;
@@ -251,8 +253,26 @@ public class GitLabApi {
      * @param clientConfigProperties Map instance with additional properties for the Jersey client connection
      */
     public GitLabApi(ApiVersion apiVersion, String hostUrl, TokenType tokenType, String authToken, String secretToken, Map<String, Object> clientConfigProperties) {
+        this(apiVersion, new GitLabApiClient(apiVersion, hostUrl, tokenType, authToken, secretToken, clientConfigProperties));
+    }
+
+    /**
+     * Constructs a lightweight GitLabApi instance that sends its requests through a shared transport.
+     * The Jersey client, connection pool and providers are owned by the transport, this instance only
+     * carries the auth token, so many of them can be created cheaply, for example one per user.
+     *
+     * @param transport   the GitLabTransport shared with other instances
+     * @param tokenType   the type of auth the token is for, PRIVATE or ACCESS
+     * @param authToken   the token to use for access to the API
+     * @param secretToken use this token to validate received payloads, may be null
+     */
+    public GitLabApi(GitLabTransport transport, TokenType tokenType, String authToken, String secretToken) {
+        this(transport.getApiVersion(), new GitLabApiClient(transport, tokenType, authToken, secretToken));
+    }
+
+    private GitLabApi(ApiVersion apiVersion, GitLabApiClient apiClient) {
         this.apiVersion = apiVersion;
-        apiClient = new GitLabApiClient(apiVersion, hostUrl, tokenType, authToken, secretToken, clientConfigProperties);
+        this.apiClient = apiClient;
         commitsApi = new CommitsApi(this);
         deployKeysApi = new DeployKeysApi(this);
         eventsApi = new EventsApi(this);
@@ -399,9 +419,41 @@ public class GitLabApi {
         return accessToken;
     }
 
+    /**
+     * Returns a view of this instance that performs every call as the user specified by sudoAsId. The view shares
+     * the transport and auth token with this instance but has its own sudo ID, so unlike {@link #setSudoAsId(Integer)}
+     * it does not change this instance, and views for different users can be used from different threads at once.
+     * The user is not looked up, an invalid ID is reported by GitLab on the first call.
+     *
+     * @param sudoAsId the ID of the user to sudo as, null for no sudo
+     * @return a GitLabApi instance that performs every call as the specified user
+     */
+    public GitLabApi as(Integer sudoAsId) {
+        return (view(apiClient.withSudoAsId(sudoAsId)));
+    }
+
+    /**
+     * Returns a view of this instance that authenticates with the specified token. The view shares the transport
+     * with this instance and does not sudo.
+     *
+     * @param tokenType the type of auth the token is for, PRIVATE or ACCESS
+     * @param authToken the token to use for access to the API
+     * @return a GitLabApi instance that authenticates with the specified token
+     */
+    public GitLabApi withAuthToken(TokenType tokenType, String authToken) {
+        return (view(apiClient.withAuthToken(tokenType, authToken)));
+    }
+
+    private GitLabApi view(GitLabApiClient client) {
+        GitLabApi view = new GitLabApi(apiVersion, client);
+        view.defaultPerPage = defaultPerPage;
+        return (view);
+    }
+
     /**
      * Sets up all future calls to the GitLab API to be done as another user specified by sudoAsUsername.
      * To revert back to normal non-sudo operation you must call unsudo(), or pass null as the username.
+     * This changes the state of this instance, to sudo from several threads at once use {@link #as(Integer)}.
      *
      * @param sudoAsUsername the username to sudo as, null will turn off sudo
      * @throws GitLabApiException if any exception occurs
@@ -512,11 +564,140 @@ public class GitLabApi {
      * Sets up the Jersey system ignore SSL certificate errors or not.
      *
      * @param ignoreCertificateErrors if true will set up the Jersey system ignore SSL certificate errors
+     * @throws IllegalStateException if the setting changes and the transport is shared with other instances
      */
     public void setIgnoreCertificateErrors(boolean ignoreCertificateErrors) {
         apiClient.setIgnoreCertificateErrors(ignoreCertificateErrors);
     }
 
+    /**
+     * Get the transport this instance sends its requests through, it may be shared with other instances.
+     *
+     * @return the transport this instance sends its requests through
+     */
+    public GitLabTransport getTransport() {
+        return (apiClient.getTransport());
+    }
+
+    /**
+     * Get the pooled connector configuration, will return null if the default connector is used.
+     *
+     * @return the pooled connector configuration, or null if the default connector is used
+     */
+    public GitLabConnectorConfig getConnectorConfig() {
+        return (apiClient.getConnectorConfig());
+    }
+
+    /**
+     * Sets up all future calls to use a pooled keep-alive connector with the provided settings, passing null
+     * switches back to the default HttpURLConnection based connector.
+     *
+     * @param connectorConfig the pooled connector settings, or null to use the default connector
+     * @throws IllegalStateException if the transport is shared with other instances
+     */
+    public void setConnectorConfig(GitLabConnectorConfig connectorConfig) {
+        apiClient.setConnectorConfig(connectorConfig);
+    }
+
+    /**
+     * Get the current totals of the connection pool, will return null if no pooled connector is in use.
+     *
+     * @return the leased, pending, available and max connections of the pool, or null if not pooled
+     */
+    public PoolStats getConnectionPoolStats() {
+        return (apiClient.getConnectionPoolStats());
+    }
+
+    /**
+     * Get the rate limit governor shared through the transport, will return null if requests are not governed.
+     *
+     * @return the rate limit governor, or null if requests are not governed
+     */
+    public RateLimitGovernor getRateLimitGovernor() {
+        return (apiClient.getRateLimitGovernor());
+    }
+
+    /**
+     * Turns on client side rate limit handling: requests are paced by the RateLimit-* and Retry-After response
+     * headers and GET requests failing with 429 or a 5xx status are retried with a jittered backoff.
+     * The governor is shared by all GitLabApi instances using the same transport, passing null turns this off.
+     *
+     * @param rateLimitGovernor the rate limit governor, or null to not govern requests
+     */
+    public void setRateLimitGovernor(RateLimitGovernor rateLimitGovernor) {
+        apiClient.setRateLimitGovernor(rateLimitGovernor);
+    }
+
+    /**
+     * Get the request coalescer shared through the transport, will return null if requests are not coalesced.
+     *
+     * @return the request coalescer, or null if requests are not coalesced
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return (apiClient.getRequestCoalescer());
+    }
+
+    /**
+     * Turns on coalescing of identical GET requests: calls such as getProject() made by several threads at the
+     * same time with the same auth context send one request and share the decoded result, which must then be
+     * treated as read-only. The coalescer is shared by all GitLabApi instances using the same transport,
+     * passing null turns this off.
+     *
+     * @param requestCoalescer the request coalescer, or null to not coalesce requests
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        apiClient.setRequestCoalescer(requestCoalescer);
+    }
+
+    /**
+     * Get the ETag response cache shared through the transport, will return null if responses are not cached.
+     *
+     * @return the ETag response cache, or null if responses are not cached
+     */
+    public ETagResponseCache getResponseCache() {
+        return (apiClient.getResponseCache());
+    }
+
+    /**
+     * Turns on the ETag response cache: reads such as getProject() send the ETag of the cached response in
+     * If-None-Match and reuse the cached object when GitLab answers 304 Not Modified. Entries are kept per auth
+     * context and cached objects must be treated as read-only. The cache is shared by all GitLabApi instances
+     * using the same transport, passing null turns this off.
+     *
+     * @param responseCache the ETag response cache, or null to not cache responses
+     */
+    public void setResponseCache(ETagResponseCache responseCache) {
+        apiClient.setResponseCache(responseCache);
+    }
+
+    /**
+     * Get the object cache of this instance, will return null if projects, users and groups are not cached.
+     *
+     * @return the object cache, or null if objects are not cached
+     */
+    public GitLabObjectCache getObjectCache() {
+        return (objectCache);
+    }
+
+    /**
+     * Turns on the TTL object cache for ProjectApi.getProject(Integer), UserApi.getUser(int) and GroupApi.getGroup().
+     * The cache belongs to this instance only, views created with as() or withAuthToken() do not use it, and calls
+     * made while sudo is on bypass it. Passing null turns this off.
+     *
+     * @param objectCache the object cache, or null to not cache objects
+     */
+    public void setObjectCache(GitLabObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
+    /**
+     * Closes the underlying HTTP client and releases all pooled connections. A shared transport is left open,
+     * it is closed by its owner.
+     */
+    public void close() {
+        apiClient.close();
+    }
+
     /**
      * Get the version info for the GitLab server using the GitLab Version API.
      *
@@ -24,36 +24,31 @@ package org.gitlab4j.api;
  */
 
 import java.io.IOException;
-import java.net.Socket;
 import java.net.URL;
-import java.security.GeneralSecurityException;
-import java.security.SecureRandom;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLEngine;
-import javax.net.ssl.SSLSession;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509ExtendedTrustManager;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Form;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
+import org.apache.http.pool.PoolStats;
 import org.gitlab4j.api.Constants.TokenType;
 import org.gitlab4j.api.GitLabApi.ApiVersion;
-import org.gitlab4j.api.utils.JacksonJson;
-import org.glassfish.jersey.client.ClientConfig;
-import org.glassfish.jersey.client.ClientProperties;
 
 /**
  * This class utilizes the Jersey client package to communicate with a GitLab API endpoint.
@@ -65,16 +60,15 @@ public class GitLabApiClient {
     protected static final String AUTHORIZATION_HEADER = "Authorization";
     protected static final String X_GITLAB_TOKEN_HEADER = "X-Gitlab-Token";
 
-    private ClientConfig clientConfig;
-    private Client apiClient;
-    private String hostUrl;
-    private TokenType tokenType = TokenType.PRIVATE;
-    private String authToken;
-    private String secretToken;
-    private boolean ignoreCertificateErrors;
-    private SSLContext openSslContext;
-    private HostnameVerifier openHostnameVerifier;
-    private Integer sudoAsId;
+    private final GitLabTransport transport;
+    private final boolean sharedTransport;
+    private final TokenType tokenType;
+    private final String authToken;
+    private final String authHeader;
+    private final String authValue;
+    private final String authKey;
+    private final String secretToken;
+    private volatile Integer sudoAsId;
 
     /**
      * Construct an instance to communicate with a GitLab API server using the specified GitLab API version,
@@ -215,11 +209,31 @@ public class GitLabApiClient {
      * @param clientConfigProperties the properties given to Jersey's clientconfig
      */
     public GitLabApiClient(ApiVersion apiVersion, String hostUrl, TokenType tokenType, String authToken, String secretToken, Map<String, Object> clientConfigProperties) {
+        this(new GitLabTransport(apiVersion, hostUrl, clientConfigProperties, null), false, tokenType, authToken, secretToken);
+    }
+
+    /**
+     * Construct an instance that communicates with a GitLab API server through the provided shared transport.
+     * Only the auth and secret token are held by this instance, so creating one is cheap.
+     *
+     * @param transport   the GitLabTransport shared with other instances
+     * @param tokenType   the type of auth the token is for, PRIVATE or ACCESS
+     * @param authToken   the token to authenticate with
+     * @param secretToken use this token to validate received payloads
+     */
+    public GitLabApiClient(GitLabTransport transport, TokenType tokenType, String authToken, String secretToken) {
+        this(transport, true, tokenType, authToken, secretToken);
+    }
 
-        // Remove the trailing "/" from the hostUrl if present
-        this.hostUrl = (hostUrl.endsWith("/") ? hostUrl.replaceAll("/$", "") : hostUrl) + apiVersion.getApiNamespace();
+    private GitLabApiClient(GitLabTransport transport, boolean sharedTransport, TokenType tokenType, String authToken, String secretToken) {
+
+        this.transport = transport;
+        this.sharedTransport = sharedTransport;
         this.tokenType = tokenType;
         this.authToken = authToken;
+        authHeader = (tokenType == TokenType.ACCESS ? AUTHORIZATION_HEADER : PRIVATE_TOKEN_HEADER);
+        authValue = (tokenType == TokenType.ACCESS ? "Bearer " + authToken : authToken);
+        authKey = hashAuth(authHeader, authValue);
 
         if (secretToken != null) {
             secretToken = secretToken.trim();
@@ -227,15 +241,40 @@ public class GitLabApiClient {
         }
 
         this.secretToken = secretToken;
+    }
 
-        clientConfig = new ClientConfig();
-        if (clientConfigProperties != null) {
-            for (Map.Entry<String, Object> propertyEntry : clientConfigProperties.entrySet()) {
-                clientConfig.property(propertyEntry.getKey(), propertyEntry.getValue());
-            }
-        }
+    /**
+     * Create a copy of this instance that sends every request as the specified user. The copy shares the
+     * transport with this instance, and changing the sudo ID of either one does not affect the other.
+     *
+     * @param sudoAsId the ID of the user to sudo as, null for no sudo
+     * @return a new GitLabApiClient instance that sends its requests as the specified user
+     */
+    GitLabApiClient withSudoAsId(Integer sudoAsId) {
+        GitLabApiClient client = new GitLabApiClient(transport, true, tokenType, authToken, secretToken);
+        client.sudoAsId = sudoAsId;
+        return (client);
+    }
+
+    /**
+     * Create a copy of this instance that authenticates with the specified token, sharing the transport.
+     * The copy does not sudo.
+     *
+     * @param tokenType the type of auth the token is for, PRIVATE or ACCESS
+     * @param authToken the token to authenticate with
+     * @return a new GitLabApiClient instance that authenticates with the specified token
+     */
+    GitLabApiClient withAuthToken(TokenType tokenType, String authToken) {
+        return (new GitLabApiClient(transport, true, tokenType, authToken, secretToken));
+    }
 
-        clientConfig.register(JacksonJson.class);
+    /**
+     * Get the transport this instance sends its requests through.
+     *
+     * @return the transport this instance sends its requests through
+     */
+    GitLabTransport getTransport() {
+        return (transport);
     }
 
     /**
@@ -266,7 +305,7 @@ public class GitLabApiClient {
     protected URL getApiUrl(Object... pathArgs) throws IOException {
 
         StringBuilder url = new StringBuilder();
-        url.append(hostUrl);
+        url.append(transport.getHostUrl());
         for (Object pathArg : pathArgs) {
             if (pathArg != null) {
                 url.append("/");
@@ -277,6 +316,73 @@ public class GitLabApiClient {
         return (new URL(url.toString()));
     }
 
+    /**
+     * Join the specified path arguments into a path relative to the API base URL.
+     *
+     * @param pathArgs variable list of arguments used to build the path
+     * @return the path relative to the API base URL
+     */
+    protected String getApiPath(Object... pathArgs) {
+
+        StringBuilder path = new StringBuilder(64);
+        for (Object pathArg : pathArgs) {
+            if (pathArg != null) {
+                if (path.length() > 0) {
+                    path.append('/');
+                }
+                path.append(pathArg.toString());
+            }
+        }
+
+        return (path.toString());
+    }
+
+    /**
+     * Returns a SHA-256 digest of the auth header and value. Request keys are kept by the coalescer and the response
+     * cache, so they must not hold the token itself.
+     *
+     * @param authHeader the name of the auth header
+     * @param authValue  the value of the auth header
+     * @return the Base64 encoded digest
+     */
+    private static String hashAuth(String authHeader, String authValue) {
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((authHeader + ' ' + authValue).getBytes(StandardCharsets.UTF_8));
+            return (Base64.getEncoder().encodeToString(hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns a key identifying a GET request by the auth context, the path, the query parameters and the type
+     * the response is read as.
+     *
+     * @param entityType  the name of the type the response is read as
+     * @param queryParams multivalue map of request parameters
+     * @param pathArgs    variable list of arguments used to build the path
+     * @return the key identifying the request
+     */
+    protected String getRequestKey(String entityType, MultivaluedMap<String, String> queryParams, Object... pathArgs) {
+
+        StringBuilder key = new StringBuilder(128);
+        key.append(authKey).append('|').append(sudoAsId).append('|');
+        key.append(getApiPath(pathArgs));
+        if (queryParams != null && !queryParams.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, List<String>> param : new TreeMap<String, List<String>>(queryParams).entrySet()) {
+                for (String value : param.getValue()) {
+                    key.append(separator).append(param.getKey()).append('=').append(value);
+                    separator = '&';
+                }
+            }
+        }
+
+        return (key.append('|').append(entityType).toString());
+    }
+
     /**
      * Validates the secret token (X-GitLab-Token) header against the expected secret token, returns true if valid,
      * otherwise returns false.
@@ -306,8 +412,27 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response get(MultivaluedMap<String, String> queryParams, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return (get(queryParams, url));
+        return (send(invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON), HttpMethod.GET, null));
+    }
+
+    /**
+     * Perform a conditional HTTP GET call with the specified query parameters and path objects, sending the
+     * provided ETag in the If-None-Match header.
+     *
+     * @param queryParams multivalue map of request parameters
+     * @param etag        the ETag of the cached response, or null to send an unconditional request
+     * @param pathArgs    variable list of arguments used to build the URI
+     * @return a ClientResponse instance with the data returned from the endpoint, or a 304 Not Modified response
+     * @throws IOException if an error occurs while constructing the URL
+     */
+    protected Response getIfNoneMatch(MultivaluedMap<String, String> queryParams, String etag, Object... pathArgs) throws IOException {
+
+        Invocation.Builder builder = invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON);
+        if (etag != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+
+        return (send(builder, HttpMethod.GET, null));
     }
 
     /**
@@ -319,7 +444,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response get(MultivaluedMap<String, String> queryParams, URL url) {
-        return (invocation(url, queryParams).get());
+        return (send(invocation(url, queryParams), HttpMethod.GET, null));
     }
 
     /**
@@ -333,8 +458,7 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response getWithAccepts(MultivaluedMap<String, String> queryParams, String accepts, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return (getWithAccepts(queryParams, url, accepts));
+        return (send(invocation(pathArgs, queryParams, accepts), HttpMethod.GET, null));
     }
 
     /**
@@ -347,7 +471,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response getWithAccepts(MultivaluedMap<String, String> queryParams, URL url, String accepts) {
-        return (invocation(url, queryParams, accepts).get());
+        return (send(invocation(url, queryParams, accepts), HttpMethod.GET, null));
     }
 
     /**
@@ -360,8 +484,7 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response post(Form formData, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return post(formData, url);
+        return (transport.release(send(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.POST, formEntity(formData))));
     }
 
     /**
@@ -374,9 +497,8 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response post(Object payload, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
         Entity<?> entity = Entity.entity(payload, MediaType.APPLICATION_JSON);
-        return (invocation(url, null).post(entity));
+        return (transport.release(send(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.POST, entity)));
     }
 
     /**
@@ -389,8 +511,7 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response post(MultivaluedMap<String, String> queryParams, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return post(queryParams, url);
+        return (transport.release(send(invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON), HttpMethod.POST, null)));
     }
 
     /**
@@ -402,10 +523,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response post(Form formData, URL url) {
-        if (formData instanceof GitLabApiForm)
-            return (invocation(url, null).post(Entity.entity(formData.asMap(), MediaType.APPLICATION_FORM_URLENCODED_TYPE)));
-        else
-            return (invocation(url, null).post(Entity.entity(formData, MediaType.APPLICATION_FORM_URLENCODED_TYPE)));
+        return (transport.release(send(invocation(url, null), HttpMethod.POST, formEntity(formData))));
     }
 
     /**
@@ -417,7 +535,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response post(MultivaluedMap<String, String> queryParams, URL url) {
-        return (invocation(url, queryParams).post(null));
+        return (transport.release(send(invocation(url, queryParams), HttpMethod.POST, null)));
     }
 
     /**
@@ -430,8 +548,8 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response put(MultivaluedMap<String, String> queryParams, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return (put(queryParams, url));
+        Entity<?> entity = Entity.entity(queryParams, MediaType.APPLICATION_FORM_URLENCODED_TYPE);
+        return (transport.release(send(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.PUT, entity)));
     }
 
     /**
@@ -443,7 +561,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response put(MultivaluedMap<String, String> queryParams, URL url) {
-        return (invocation(url, null).put(Entity.entity(queryParams, MediaType.APPLICATION_FORM_URLENCODED_TYPE)));
+        return (transport.release(send(invocation(url, null), HttpMethod.PUT, Entity.entity(queryParams, MediaType.APPLICATION_FORM_URLENCODED_TYPE))));
     }
 
     /**
@@ -456,8 +574,7 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response put(Form formData, Object... pathArgs) throws IOException {
-        URL url = getApiUrl(pathArgs);
-        return put(formData, url);
+        return (transport.release(send(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.PUT, formEntity(formData))));
     }
 
     /**
@@ -469,10 +586,7 @@ public class GitLabApiClient {
      * @return a ClientResponse instance with the data returned from the endpoint
      */
     protected Response put(Form formData, URL url) {
-        if (formData instanceof GitLabApiForm)
-            return (invocation(url, null).put(Entity.entity(formData.asMap(), MediaType.APPLICATION_FORM_URLENCODED_TYPE)));
-        else
-            return (invocation(url, null).put(Entity.entity(formData, MediaType.APPLICATION_FORM_URLENCODED_TYPE)));
+        return (transport.release(send(invocation(url, null), HttpMethod.PUT, formEntity(formData))));
     }
 
     /**
@@ -485,7 +599,7 @@ public class GitLabApiClient {
      * @throws IOException if an error occurs while constructing the URL
      */
     protected Response delete(MultivaluedMap<String, String> queryParams, Object... pathArgs) throws IOException {
-        return (delete(queryParams, getApiUrl(pathArgs)));
+        return (transport.release(send(invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON), HttpMethod.DELETE, null)));
     }
 
     /**
@@ -497,7 +611,150 @@ public class GitLabApiClient {
      * @return a Response instance with the data returned from the endpoint
      */
     protected Response delete(MultivaluedMap<String, String> queryParams, URL url) {
-        return (invocation(url, queryParams).delete());
+        return (transport.release(send(invocation(url, queryParams), HttpMethod.DELETE, null)));
+    }
+
+    /**
+     * Perform an asynchronous HTTP GET call with the specified query parameters and path objects. The returned
+     * future is completed on the Jersey client async executor, see ClientProperties.ASYNC_THREADPOOL_SIZE.
+     * The call returns right away, also while the rate limit governor holds the request back.
+     *
+     * @param queryParams multivalue map of request parameters
+     * @param pathArgs    variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> getAsync(MultivaluedMap<String, String> queryParams, Object... pathArgs) {
+        return (async(invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON), HttpMethod.GET, null));
+    }
+
+    /**
+     * Perform an asynchronous HTTP POST call with the specified form data and path objects.
+     *
+     * @param formData the Form containing the name/value pairs
+     * @param pathArgs variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> postAsync(Form formData, Object... pathArgs) {
+        return (async(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.POST, formEntity(formData)));
+    }
+
+    /**
+     * Perform an asynchronous HTTP PUT call with the specified form data and path objects.
+     *
+     * @param formData the Form containing the name/value pairs
+     * @param pathArgs variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> putAsync(Form formData, Object... pathArgs) {
+        return (async(invocation(pathArgs, null, MediaType.APPLICATION_JSON), HttpMethod.PUT, formEntity(formData)));
+    }
+
+    /**
+     * Perform an asynchronous HTTP DELETE call with the specified query parameters and path objects.
+     *
+     * @param queryParams multivalue map of request parameters
+     * @param pathArgs    variable list of arguments used to build the URI
+     * @return a CompletableFuture that will be completed with the Response from the endpoint
+     */
+    protected CompletableFuture<Response> deleteAsync(MultivaluedMap<String, String> queryParams, Object... pathArgs) {
+        return (async(invocation(pathArgs, queryParams, MediaType.APPLICATION_JSON), HttpMethod.DELETE, null));
+    }
+
+    /**
+     * Sends the request, governed by the rate limit governor of the transport if one is set. A GET request that
+     * fails with 429 or a retryable 5xx status is sent again after a jittered backoff, the last response is
+     * returned once the retries are used up.
+     */
+    private Response send(Invocation.Builder builder, String method, Entity<?> entity) {
+
+        RateLimitGovernor governor = transport.getRateLimitGovernor();
+        if (governor == null) {
+            return (entity == null ? builder.method(method) : builder.method(method, entity));
+        }
+
+        boolean idempotent = HttpMethod.GET.equals(method);
+        for (int attempt = 0; ; attempt++) {
+
+            pause(governor.reserve());
+            Response response = (entity == null ? builder.method(method) : builder.method(method, entity));
+            governor.update(response);
+            if (!idempotent || !governor.shouldRetry(response.getStatus(), attempt)) {
+                return (response);
+            }
+
+            response.close();
+            pause(governor.backoff(attempt));
+        }
+    }
+
+    private static void pause(long millis) {
+
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for the GitLab rate limit", e);
+        }
+    }
+
+    /**
+     * Sends the request asynchronously. When the transport has a rate limit governor, the request reserves its slot
+     * right away and is held back on the transport scheduler until the slot is due, so the caller is never blocked.
+     * Async requests are not retried.
+     */
+    private CompletableFuture<Response> async(final Invocation.Builder builder, final String method, final Entity<?> entity) {
+
+        final CompletableFuture<Response> future = new CompletableFuture<Response>();
+        final InvocationCallback<Response> callback = new InvocationCallback<Response>() {
+            @Override
+            public void completed(Response response) {
+                try {
+                    RateLimitGovernor governor = transport.getRateLimitGovernor();
+                    if (governor != null) {
+                        governor.update(response);
+                    }
+
+                    future.complete(HttpMethod.GET.equals(method) ? response : transport.release(response));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        };
+
+        Runnable dispatch = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (entity == null) {
+                        builder.async().method(method, callback);
+                    } else {
+                        builder.async().method(method, entity, callback);
+                    }
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        };
+
+        RateLimitGovernor governor = transport.getRateLimitGovernor();
+        transport.schedule(dispatch, (governor != null ? governor.reserve() : 0));
+        return (future);
+    }
+
+    private static Entity<?> formEntity(Form formData) {
+        if (formData instanceof GitLabApiForm)
+            return (Entity.entity(formData.asMap(), MediaType.APPLICATION_FORM_URLENCODED_TYPE));
+        else
+            return (Entity.entity(formData, MediaType.APPLICATION_FORM_URLENCODED_TYPE));
     }
 
     protected Invocation.Builder invocation(URL url, MultivaluedMap<String, String> queryParams) {
@@ -505,28 +762,32 @@ public class GitLabApiClient {
     }
 
     protected Invocation.Builder invocation(URL url, MultivaluedMap<String, String> queryParams, String accept) {
+        return (invocation(transport.getClient().target(url.toExternalForm()), queryParams, accept));
+    }
 
-        if (apiClient == null) {
-            if (ignoreCertificateErrors) {
-                apiClient = ClientBuilder.newBuilder()
-                        .withConfig(clientConfig)
-                        .sslContext(openSslContext)
-                        .hostnameVerifier(openHostnameVerifier)
-                        .build();
-            } else {
-                apiClient = ClientBuilder.newBuilder().withConfig(clientConfig).build();
-            }
-        }
+    /**
+     * Build the request for the specified path arguments, resolved against the cached base WebTarget of the
+     * transport so the host part of the URL is not parsed again for every request.
+     *
+     * @param pathArgs    list of arguments used to build the URI
+     * @param queryParams multivalue map of request parameters
+     * @param accept      if non-empty will set the Accepts header to this value
+     * @return the Invocation.Builder for the request
+     */
+    protected Invocation.Builder invocation(Object[] pathArgs, MultivaluedMap<String, String> queryParams, String accept) {
+        String path = getApiPath(pathArgs);
+        WebTarget target = transport.getBaseTarget();
+        return (invocation(path.length() > 0 ? target.path(path) : target, queryParams, accept));
+    }
+
+    private Invocation.Builder invocation(WebTarget target, MultivaluedMap<String, String> queryParams, String accept) {
 
-        WebTarget target = apiClient.target(url.toExternalForm()).property(ClientProperties.FOLLOW_REDIRECTS, true);
         if (queryParams != null) {
             for (Map.Entry<String, List<String>> param : queryParams.entrySet()) {
                 target = target.queryParam(param.getKey(), param.getValue().toArray());
             }
         }
 
-        String authHeader = (tokenType == TokenType.ACCESS ? AUTHORIZATION_HEADER : PRIVATE_TOKEN_HEADER);
-        String authValue = (tokenType == TokenType.ACCESS ? "Bearer " + authToken : authToken);
         Invocation.Builder builder = target.request();
         if (accept == null || accept.trim().length() == 0) {
             builder = builder.header(authHeader, authValue);
@@ -535,6 +796,7 @@ public class GitLabApiClient {
         }
 
         // If sudo as ID is set add the Sudo header
+        Integer sudoAsId = this.sudoAsId;
         if (sudoAsId != null && sudoAsId.intValue() > 0)
             builder = builder.header(SUDO_HEADER, sudoAsId);
 
@@ -542,102 +804,131 @@ public class GitLabApiClient {
     }
 
     /**
-     * Returns true if the API is setup to ignore SSL certificate errors, otherwise returns false.
+     * Get the pooled connector configuration, will return null if the default connector is used.
      *
-     * @return true if the API is setup to ignore SSL certificate errors, otherwise returns false
+     * @return the pooled connector configuration, or null if the default connector is used
      */
-    public boolean getIgnoreCertificateErrors() {
-        return (ignoreCertificateErrors);
+    public GitLabConnectorConfig getConnectorConfig() {
+        return (transport.getConnectorConfig());
     }
 
     /**
-     * Sets up the Jersey system ignore SSL certificate errors or not.
+     * Sets up the transport to use a pooled keep-alive connector with the provided settings, passing null
+     * switches back to the default HttpURLConnection based connector. Any existing connections are closed.
      *
-     * @param ignoreCertificateErrors if true will set up the Jersey system ignore SSL certificate errors
+     * @param connectorConfig the pooled connector settings, or null to use the default connector
+     * @throws IllegalStateException if the transport is shared with other instances
      */
-    public void setIgnoreCertificateErrors(boolean ignoreCertificateErrors) {
-
-        if (this.ignoreCertificateErrors == ignoreCertificateErrors) {
-            return;
-        }
-
-        if (!ignoreCertificateErrors) {
+    public void setConnectorConfig(GitLabConnectorConfig connectorConfig) {
+        checkOwnsTransport();
+        transport.setConnectorConfig(connectorConfig);
+    }
 
-            this.ignoreCertificateErrors = false;
-            openSslContext = null;
-            openHostnameVerifier = null;
-            apiClient = null;
+    /**
+     * Get the current totals of the connection pool, will return null if no pooled connector is in use.
+     *
+     * @return the leased, pending, available and max connections of the pool, or null if not pooled
+     */
+    public PoolStats getConnectionPoolStats() {
+        return (transport.getConnectionPoolStats());
+    }
 
-        } else {
+    /**
+     * Get the rate limit governor of the transport, will return null if requests are not governed.
+     *
+     * @return the rate limit governor, or null if requests are not governed
+     */
+    public RateLimitGovernor getRateLimitGovernor() {
+        return (transport.getRateLimitGovernor());
+    }
 
-            if (setupIgnoreCertificateErrors()) {
-                this.ignoreCertificateErrors = true;
-                apiClient = null;
-            } else {
-                this.ignoreCertificateErrors = false;
-                apiClient = null;
-                throw new RuntimeException("Unable to ignore certificate errors.");
-            }
-        }
+    /**
+     * Sets the rate limit governor of the transport, passing null turns rate limit handling off.
+     *
+     * @param rateLimitGovernor the rate limit governor, or null to not govern requests
+     */
+    public void setRateLimitGovernor(RateLimitGovernor rateLimitGovernor) {
+        transport.setRateLimitGovernor(rateLimitGovernor);
     }
 
     /**
-     * Sets up Jersey client to ignore certificate errors.
+     * Get the request coalescer of the transport, will return null if requests are not coalesced.
      *
-     * @return true if successful at setting up to ignore certificate errors, otherwise returns false.
+     * @return the request coalescer, or null if requests are not coalesced
      */
-    private boolean setupIgnoreCertificateErrors() {
+    public RequestCoalescer getRequestCoalescer() {
+        return (transport.getRequestCoalescer());
+    }
 
-        // Create a TrustManager that trusts all certificates
-        TrustManager[] trustAllCerts = new TrustManager[]{new X509ExtendedTrustManager() {
-            @Override
-            public X509Certificate[] getAcceptedIssuers() {
-                return null;
-            }
+    /**
+     * Sets the request coalescer of the transport, passing null turns request coalescing off.
+     *
+     * @param requestCoalescer the request coalescer, or null to not coalesce requests
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        transport.setRequestCoalescer(requestCoalescer);
+    }
 
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-            }
+    /**
+     * Get the ETag response cache of the transport, will return null if responses are not cached.
+     *
+     * @return the ETag response cache, or null if responses are not cached
+     */
+    public ETagResponseCache getResponseCache() {
+        return (transport.getResponseCache());
+    }
 
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-            }
+    /**
+     * Sets the ETag response cache of the transport, passing null turns response caching off.
+     *
+     * @param responseCache the ETag response cache, or null to not cache responses
+     */
+    public void setResponseCache(ETagResponseCache responseCache) {
+        transport.setResponseCache(responseCache);
+    }
 
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
-            }
+    /**
+     * Closes the Jersey client and releases all pooled connections. A shared transport is left open,
+     * it is closed by its owner.
+     */
+    public void close() {
+        if (!sharedTransport) {
+            transport.close();
+        }
+    }
 
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
-            }
+    /**
+     * Returns true if the API is setup to ignore SSL certificate errors, otherwise returns false.
+     *
+     * @return true if the API is setup to ignore SSL certificate errors, otherwise returns false
+     */
+    public boolean getIgnoreCertificateErrors() {
+        return (transport.getIgnoreCertificateErrors());
+    }
 
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
-            }
+    /**
+     * Sets up the Jersey system ignore SSL certificate errors or not.
+     *
+     * @param ignoreCertificateErrors if true will set up the Jersey system ignore SSL certificate errors
+     * @throws IllegalStateException if the setting changes and the transport is shared with other instances
+     */
+    public void setIgnoreCertificateErrors(boolean ignoreCertificateErrors) {
 
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
-            }
-        }};
+        if (transport.getIgnoreCertificateErrors() == ignoreCertificateErrors) {
+            return;
+        }
 
-        // Ignore differences between given hostname and certificate hostname
-        HostnameVerifier hostnameVerifier = new HostnameVerifier() {
-            public boolean verify(String hostname, SSLSession session) {
-                return true;
-            }
-        };
+        checkOwnsTransport();
+        transport.setIgnoreCertificateErrors(ignoreCertificateErrors);
+    }
 
-        try {
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(null, trustAllCerts, new SecureRandom());
-            openSslContext = sslContext;
-            openHostnameVerifier = hostnameVerifier;
-        } catch (GeneralSecurityException ex) {
-            openSslContext = null;
-            openHostnameVerifier = null;
-            return (false);
+    /**
+     * Changing the connector or SSL setup closes the Jersey client of the transport, which would fail the requests
+     * other instances have in flight on it. A shared transport is only set up through the GitLabTransport itself.
+     */
+    private void checkOwnsTransport() {
+        if (sharedTransport) {
+            throw new IllegalStateException("The transport is shared with other instances, set it up through the GitLabTransport");
         }
-
-        return (true);
     }
 }
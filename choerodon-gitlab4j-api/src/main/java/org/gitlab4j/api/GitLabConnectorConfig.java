@@ -0,0 +1,167 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * This class holds the settings for the pooled keep-alive connector used by {@link GitLabApiClient}.
+ * All times are in milliseconds, a timeout of 0 means no timeout.
+ */
+public class GitLabConnectorConfig {
+
+    /**
+     * The HTTP client library the connector is built on.
+     */
+    public enum ConnectorType {
+
+        /**
+         * Apache HttpClient with a pool of HTTP/1.1 keep-alive connections.
+         */
+        APACHE,
+
+        /**
+         * java.net.http.HttpClient of JDK 11+, negotiates HTTP/2 and multiplexes concurrent requests over
+         * a few connections. The pool size and idle settings do not apply. Falls back to APACHE on older JDKs.
+         */
+        JDK_HTTP_CLIENT
+    }
+
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 50;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int DEFAULT_IDLE_TIMEOUT = 60000;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+
+    private ConnectorType connectorType = ConnectorType.APACHE;
+    private int maxTotalConnections = DEFAULT_MAX_TOTAL_CONNECTIONS;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private int connectTimeout;
+    private int readTimeout;
+    private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private int validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+
+    public ConnectorType getConnectorType() {
+        return (connectorType);
+    }
+
+    /**
+     * Fluent method for setting the HTTP client library the connector is built on.
+     *
+     * @param connectorType the HTTP client library the connector is built on
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withConnectorType(ConnectorType connectorType) {
+        this.connectorType = connectorType;
+        return (this);
+    }
+
+    public int getMaxTotalConnections() {
+        return (maxTotalConnections);
+    }
+
+    /**
+     * Fluent method for setting the maximum number of pooled connections across all hosts.
+     *
+     * @param maxTotalConnections the maximum number of pooled connections
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withMaxTotalConnections(int maxTotalConnections) {
+        this.maxTotalConnections = maxTotalConnections;
+        return (this);
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return (maxConnectionsPerRoute);
+    }
+
+    /**
+     * Fluent method for setting the maximum number of pooled connections to a single host.
+     *
+     * @param maxConnectionsPerRoute the maximum number of pooled connections per host
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return (this);
+    }
+
+    public int getConnectTimeout() {
+        return (connectTimeout);
+    }
+
+    /**
+     * Fluent method for setting the connect timeout.
+     *
+     * @param connectTimeout the connect timeout in milliseconds, 0 for no timeout
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return (this);
+    }
+
+    public int getReadTimeout() {
+        return (readTimeout);
+    }
+
+    /**
+     * Fluent method for setting the read (socket) timeout.
+     *
+     * @param readTimeout the read timeout in milliseconds, 0 for no timeout
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        return (this);
+    }
+
+    public int getIdleTimeout() {
+        return (idleTimeout);
+    }
+
+    /**
+     * Fluent method for setting how long a pooled connection may stay idle before it is evicted.
+     *
+     * @param idleTimeout the idle time in milliseconds, 0 disables idle eviction
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withIdleTimeout(int idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return (this);
+    }
+
+    public int getValidateAfterInactivity() {
+        return (validateAfterInactivity);
+    }
+
+    /**
+     * Fluent method for setting after how long of inactivity a pooled connection is checked
+     * for staleness before it is reused.
+     *
+     * @param validateAfterInactivity the inactivity period in milliseconds
+     * @return this GitLabConnectorConfig instance
+     */
+    public GitLabConnectorConfig withValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+        return (this);
+    }
+}
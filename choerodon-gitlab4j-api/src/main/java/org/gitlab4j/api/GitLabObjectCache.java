@@ -0,0 +1,389 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.gitlab4j.api.models.Group;
+import org.gitlab4j.api.models.Project;
+import org.gitlab4j.api.models.User;
+import org.gitlab4j.api.webhook.BuildEvent;
+import org.gitlab4j.api.webhook.EventMergeRequest;
+import org.gitlab4j.api.webhook.IssueEvent;
+import org.gitlab4j.api.webhook.MergeRequestEvent;
+import org.gitlab4j.api.webhook.NoteEvent;
+import org.gitlab4j.api.webhook.PipelineEvent;
+import org.gitlab4j.api.webhook.PushEvent;
+import org.gitlab4j.api.webhook.TagPushEvent;
+import org.gitlab4j.api.webhook.WebHookListener;
+import org.gitlab4j.api.webhook.WikiPageEvent;
+
+/**
+ * A time-to-live object cache for the projects, users and groups returned by ProjectApi.getProject(Integer),
+ * UserApi.getUser(int) and GroupApi.getGroup(). Each type has its own TTL, and a size bound with the least
+ * recently used entries evicted first.
+ * <p>
+ * Added to a {@link org.gitlab4j.api.webhook.WebHookManager} as a listener, push, tag push and merge request
+ * events drop the cached projects they refer to:
+ * <pre>
+ * GitLabObjectCache cache = new GitLabObjectCache();
+ * gitLabApi.setObjectCache(cache);
+ * webHookManager.addListener(cache);
+ * </pre>
+ * The cache is set per GitLabApi instance, so cached objects are never shared across auth contexts.
+ * Cached objects are handed to every caller, they must be treated as read-only.
+ */
+public class GitLabObjectCache implements WebHookListener {
+
+    public static final long DEFAULT_TTL = 60000;
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final Region<Project> projects;
+    private final Region<User> users;
+    private final Region<Group> groups;
+
+    /**
+     * Create a cache keeping each type for 60 seconds, up to 1000 entries per type.
+     */
+    public GitLabObjectCache() {
+        this(DEFAULT_TTL, DEFAULT_TTL, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache with a TTL and size bound per type.
+     *
+     * @param projectTtl the time a project is kept in milliseconds
+     * @param userTtl    the time a user is kept in milliseconds
+     * @param groupTtl   the time a group is kept in milliseconds
+     * @param maxEntries the maximum number of cached objects per type
+     */
+    public GitLabObjectCache(long projectTtl, long userTtl, long groupTtl, int maxEntries) {
+        projects = new Region<Project>("projects", projectTtl, maxEntries);
+        users = new Region<User>("users", userTtl, maxEntries);
+        groups = new Region<Group>("groups", groupTtl, maxEntries);
+    }
+
+    /**
+     * @return the cached projects, keyed by project ID
+     */
+    public Region<Project> getProjects() {
+        return (projects);
+    }
+
+    /**
+     * @return the cached users, keyed by user ID
+     */
+    public Region<User> getUsers() {
+        return (users);
+    }
+
+    /**
+     * @return the cached groups, keyed by the group ID or path as passed to getGroup()
+     */
+    public Region<Group> getGroups() {
+        return (groups);
+    }
+
+    /**
+     * Drops all cached objects, the metrics are kept.
+     */
+    public void invalidateAll() {
+        projects.invalidateAll();
+        users.invalidateAll();
+        groups.invalidateAll();
+    }
+
+    @Override
+    public void onBuildEvent(BuildEvent buildEvent) {
+    }
+
+    @Override
+    public void onIssueEvent(IssueEvent event) {
+    }
+
+    @Override
+    public void onMergeRequestEvent(MergeRequestEvent event) {
+        EventMergeRequest mergeRequest = event.getObjectAttributes();
+        if (mergeRequest != null) {
+            projects.invalidate(mergeRequest.getSourceProjectId());
+            projects.invalidate(mergeRequest.getTargetProjectId());
+        }
+    }
+
+    @Override
+    public void onNoteEvent(NoteEvent noteEvent) {
+    }
+
+    @Override
+    public void onPipelineEvent(PipelineEvent pipelineEvent) {
+    }
+
+    @Override
+    public void onPushEvent(PushEvent pushEvent) {
+        projects.invalidate(pushEvent.getProjectId());
+    }
+
+    @Override
+    public void onTagPushEvent(TagPushEvent tagPushEvent) {
+        projects.invalidate(tagPushEvent.getProjectId());
+    }
+
+    @Override
+    public void onWikiPageEvent(WikiPageEvent wikiEvent) {
+    }
+
+    @Override
+    public String toString() {
+        return ("GitLabObjectCache [" + projects + ", " + users + ", " + groups + "]");
+    }
+
+    /**
+     * The cached objects of one type, with their hit, expiry and invalidation metrics.
+     *
+     * @param <V> the type of the cached objects
+     */
+    public static class Region<V> {
+
+        private static class Entry<V> {
+
+            private final V value;
+            private final long loadedAt;
+
+            private Entry(V value, long loadedAt) {
+                this.value = value;
+                this.loadedAt = loadedAt;
+            }
+        }
+
+        private final String name;
+        private final long ttl;
+        private final LinkedHashMap<Object, Entry<V>> entries;
+
+        private long stamp;
+        private long hits;
+        private long misses;
+        private long expirations;
+        private long evictions;
+        private long invalidations;
+
+        Region(String name, long ttl, final int maxEntries) {
+
+            this.name = name;
+            this.ttl = ttl;
+            this.entries = new LinkedHashMap<Object, Entry<V>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry<V>> eldest) {
+                    if (size() > maxEntries) {
+                        evictions++;
+                        return (true);
+                    }
+
+                    return (false);
+                }
+            };
+        }
+
+        /**
+         * Returns the cached object, or null if it is not cached or has expired.
+         *
+         * @param key the ID of the object
+         * @return the cached object, or null if it is not cached or has expired
+         */
+        synchronized V get(Object key) {
+
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return (null);
+            }
+
+            if (System.currentTimeMillis() - entry.loadedAt > ttl) {
+                entries.remove(key);
+                expirations++;
+                misses++;
+                return (null);
+            }
+
+            hits++;
+            return (entry.value);
+        }
+
+        /**
+         * Returns a stamp to take before loading an object, passed to put() so that an object loaded
+         * while an invalidation came in is not cached.
+         *
+         * @return the current invalidation stamp
+         */
+        synchronized long getStamp() {
+            return (stamp);
+        }
+
+        /**
+         * Caches the object unless the region was invalidated since the provided stamp was taken.
+         *
+         * @param key   the ID of the object
+         * @param value the object to cache
+         * @param stamp the stamp taken before loading the object
+         */
+        synchronized void put(Object key, V value, long stamp) {
+            if (value != null && stamp == this.stamp) {
+                entries.put(key, new Entry<V>(value, System.currentTimeMillis()));
+            }
+        }
+
+        /**
+         * Drops the cached object with the provided ID.
+         *
+         * @param key the ID of the object, ignored if null
+         */
+        public synchronized void invalidate(Object key) {
+
+            if (key == null) {
+                return;
+            }
+
+            stamp++;
+            if (entries.remove(key) != null) {
+                invalidations++;
+            }
+        }
+
+        /**
+         * Drops all cached objects of this type.
+         */
+        public synchronized void invalidateAll() {
+            stamp++;
+            invalidations += entries.size();
+            entries.clear();
+        }
+
+        /**
+         * @return the time an object is kept in milliseconds
+         */
+        public long getTtl() {
+            return (ttl);
+        }
+
+        /**
+         * @return the number of cached objects, including expired ones not looked up since
+         */
+        public synchronized int getSize() {
+            return (entries.size());
+        }
+
+        /**
+         * @return the number of lookups served from the cache
+         */
+        public synchronized long getHits() {
+            return (hits);
+        }
+
+        /**
+         * @return the number of lookups that had to load the object
+         */
+        public synchronized long getMisses() {
+            return (misses);
+        }
+
+        /**
+         * @return the fraction of lookups served from the cache, 0 if no lookups were made yet
+         */
+        public synchronized double getHitRate() {
+            long total = hits + misses;
+            return (total > 0 ? (double) hits / total : 0);
+        }
+
+        /**
+         * @return the number of objects dropped because their TTL had passed
+         */
+        public synchronized long getExpirations() {
+            return (expirations);
+        }
+
+        /**
+         * @return the number of objects evicted to stay within the size bound
+         */
+        public synchronized long getEvictions() {
+            return (evictions);
+        }
+
+        /**
+         * @return the number of objects dropped by webhook events or invalidate calls
+         */
+        public synchronized long getInvalidations() {
+            return (invalidations);
+        }
+
+        /**
+         * Get the age of the cached object, which is how stale it may be at most. This is meant for monitoring and
+         * does not count as a use of the object, so it walks the entries instead of calling get() on the
+         * access-ordered map, which would move the object to the most recently used end.
+         *
+         * @param key the ID of the object
+         * @return the age of the cached object in milliseconds, or -1 if it is not cached
+         */
+        public synchronized long getAge(Object key) {
+
+            if (key == null || !entries.containsKey(key)) {
+                return (-1);
+            }
+
+            for (Map.Entry<Object, Entry<V>> entry : entries.entrySet()) {
+                if (key.equals(entry.getKey())) {
+                    return (System.currentTimeMillis() - entry.getValue().loadedAt);
+                }
+            }
+
+            return (-1);
+        }
+
+        /**
+         * Get the age of the oldest object that can still be served, which is how stale the cache may be at most.
+         *
+         * @return the age of the oldest unexpired object in milliseconds, 0 if nothing is cached
+         */
+        public synchronized long getMaxAge() {
+
+            long now = System.currentTimeMillis();
+            long maxAge = 0;
+            for (Entry<V> entry : entries.values()) {
+                long age = now - entry.loadedAt;
+                if (age <= ttl) {
+                    maxAge = Math.max(maxAge, age);
+                }
+            }
+
+            return (maxAge);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return (name + " [size=" + entries.size() + ", hits=" + hits + ", misses=" + misses + ", expirations="
+                    + expirations + ", evictions=" + evictions + ", invalidations=" + invalidations + "]");
+        }
+    }
+}
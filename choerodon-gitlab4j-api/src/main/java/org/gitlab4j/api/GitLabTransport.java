@@ -0,0 +1,497 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.apache.http.pool.PoolStats;
+import org.gitlab4j.api.Constants.TokenType;
+import org.gitlab4j.api.GitLabApi.ApiVersion;
+import org.gitlab4j.api.GitLabConnectorConfig.ConnectorType;
+import org.gitlab4j.api.utils.JacksonJson;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+
+/**
+ * This class holds everything that is needed to talk to one GitLab server and is not tied to a user:
+ * the server URL, the Jersey client with its providers and (optionally pooled) connector, and the SSL setup.
+ * It is thread-safe, and many lightweight {@link GitLabApi} instances, each carrying only its own auth token,
+ * can share one transport.
+ *
+ * <pre>
+ * GitLabTransport transport = new GitLabTransport("https://gitlab.example.com", new GitLabConnectorConfig());
+ * GitLabApi userApi = transport.createApi(TokenType.PRIVATE, userToken);
+ * </pre>
+ */
+public class GitLabTransport {
+
+    private final ApiVersion apiVersion;
+    private final String hostUrl;
+    private final ClientConfig clientConfig;
+    private volatile Client apiClient;
+    private volatile WebTarget baseTarget;
+    private PooledConnector pooledConnector;
+    private volatile GitLabConnectorConfig connectorConfig;
+    private volatile RateLimitGovernor rateLimitGovernor;
+    private volatile RequestCoalescer requestCoalescer;
+    private volatile ETagResponseCache responseCache;
+    private ScheduledExecutorService scheduler;
+    private boolean ignoreCertificateErrors;
+    private SSLContext openSslContext;
+    private HostnameVerifier openHostnameVerifier;
+
+    /**
+     * Construct a transport for the GitLab server at hostUrl using GitLab API version 4 and the default connector.
+     *
+     * @param hostUrl the URL of the GitLab server
+     */
+    public GitLabTransport(String hostUrl) {
+        this(ApiVersion.V4, hostUrl, null, null);
+    }
+
+    /**
+     * Construct a transport for the GitLab server at hostUrl using GitLab API version 4 and a pooled connector.
+     *
+     * @param hostUrl         the URL of the GitLab server
+     * @param connectorConfig the pooled connector settings, or null to use the default connector
+     */
+    public GitLabTransport(String hostUrl, GitLabConnectorConfig connectorConfig) {
+        this(ApiVersion.V4, hostUrl, null, connectorConfig);
+    }
+
+    /**
+     * Construct a transport for the GitLab server at hostUrl.
+     *
+     * @param apiVersion             the ApiVersion specifying which version of the API to use
+     * @param hostUrl                the URL of the GitLab server
+     * @param clientConfigProperties the properties given to Jersey's clientconfig, may be null
+     * @param connectorConfig        the pooled connector settings, or null to use the default connector
+     */
+    public GitLabTransport(ApiVersion apiVersion, String hostUrl, Map<String, Object> clientConfigProperties, GitLabConnectorConfig connectorConfig) {
+
+        this.apiVersion = apiVersion;
+
+        // Remove the trailing "/" from the hostUrl if present
+        this.hostUrl = (hostUrl.endsWith("/") ? hostUrl.replaceAll("/$", "") : hostUrl) + apiVersion.getApiNamespace();
+        this.connectorConfig = connectorConfig;
+
+        clientConfig = new ClientConfig();
+        if (clientConfigProperties != null) {
+            for (Map.Entry<String, Object> propertyEntry : clientConfigProperties.entrySet()) {
+                clientConfig.property(propertyEntry.getKey(), propertyEntry.getValue());
+            }
+        }
+
+        clientConfig.property(ClientProperties.FOLLOW_REDIRECTS, true);
+        clientConfig.register(JacksonJson.class);
+    }
+
+    /**
+     * Create a lightweight GitLabApi instance that uses this transport with the specified auth token.
+     *
+     * @param tokenType the type of auth the token is for, PRIVATE or ACCESS
+     * @param authToken the token to use for access to the API
+     * @return a GitLabApi instance sharing this transport
+     */
+    public GitLabApi createApi(TokenType tokenType, String authToken) {
+        return (new GitLabApi(this, tokenType, authToken, null));
+    }
+
+    public ApiVersion getApiVersion() {
+        return (apiVersion);
+    }
+
+    /**
+     * Get the base URL of the API, including the API namespace.
+     *
+     * @return the base URL of the API
+     */
+    public String getHostUrl() {
+        return (hostUrl);
+    }
+
+    /**
+     * Get the Jersey client, building it on first use.
+     *
+     * @return the Jersey client
+     */
+    Client getClient() {
+
+        Client client = apiClient;
+        if (client == null) {
+            synchronized (this) {
+                client = apiClient;
+                if (client == null) {
+                    client = createClient();
+                    apiClient = client;
+                }
+            }
+        }
+
+        return (client);
+    }
+
+    /**
+     * Get the WebTarget for the base URL of the API. WebTarget instances are immutable,
+     * so the cached one can be shared by all requests.
+     *
+     * @return the WebTarget for the base URL of the API
+     */
+    WebTarget getBaseTarget() {
+
+        WebTarget target = baseTarget;
+        if (target == null) {
+            synchronized (this) {
+                target = baseTarget;
+                if (target == null) {
+                    target = getClient().target(hostUrl);
+                    baseTarget = target;
+                }
+            }
+        }
+
+        return (target);
+    }
+
+    private Client createClient() {
+
+        ClientConfig config = clientConfig;
+        if (connectorConfig != null) {
+            config = new ClientConfig().loadFrom(clientConfig);
+            if (connectorConfig.getConnectorType() == ConnectorType.JDK_HTTP_CLIENT && JdkHttpClientConnectorProvider.isAvailable()) {
+                config.connectorProvider(new JdkHttpClientConnectorProvider());
+                config.property(ClientProperties.CONNECT_TIMEOUT, connectorConfig.getConnectTimeout());
+                config.property(ClientProperties.READ_TIMEOUT, connectorConfig.getReadTimeout());
+            } else {
+                if (connectorConfig.getConnectorType() == ConnectorType.JDK_HTTP_CLIENT) {
+                    GitLabApi.getLogger().warning("java.net.http.HttpClient requires JDK 11 or later, using the Apache connector");
+                }
+                pooledConnector = new PooledConnector(connectorConfig, (ignoreCertificateErrors ? openSslContext : null), openHostnameVerifier);
+                pooledConnector.configure(config, connectorConfig);
+            }
+        }
+
+        if (ignoreCertificateErrors) {
+            return (ClientBuilder.newBuilder()
+                    .withConfig(config)
+                    .sslContext(openSslContext)
+                    .hostnameVerifier(openHostnameVerifier)
+                    .build());
+        } else {
+            return (ClientBuilder.newBuilder().withConfig(config).build());
+        }
+    }
+
+    /**
+     * Closes the current Jersey client and its connection pool, the next request will build a new one.
+     */
+    private synchronized void reset() {
+
+        baseTarget = null;
+        if (apiClient != null) {
+            apiClient.close();
+            apiClient = null;
+        }
+
+        if (pooledConnector != null) {
+            pooledConnector.close();
+            pooledConnector = null;
+        }
+    }
+
+    /**
+     * Many callers of post(), put() and delete() never read the response, with a pooled connector that would
+     * keep the connection leased. Buffer the (small) entity so the connection goes back to the pool right away.
+     *
+     * @param response the Response instance sent from the GitLab server
+     * @return the provided Response instance
+     */
+    Response release(Response response) {
+        if (connectorConfig != null && response.hasEntity()) {
+            response.bufferEntity();
+        }
+        return (response);
+    }
+
+    /**
+     * Runs the provided task after the provided delay, used to hold back async requests for the rate limit governor
+     * without blocking the caller. A task without delay is run right away on the calling thread.
+     *
+     * @param task   the task to run
+     * @param millis the delay in milliseconds
+     */
+    void schedule(Runnable task, long millis) {
+
+        if (millis <= 0) {
+            task.run();
+            return;
+        }
+
+        getScheduler().schedule(task, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "gitlab4j-rate-limit");
+                    thread.setDaemon(true);
+                    return (thread);
+                }
+            });
+        }
+
+        return (scheduler);
+    }
+
+    /**
+     * Get the pooled connector configuration, will return null if the default connector is used.
+     *
+     * @return the pooled connector configuration, or null if the default connector is used
+     */
+    public synchronized GitLabConnectorConfig getConnectorConfig() {
+        return (connectorConfig);
+    }
+
+    /**
+     * Sets up the transport to use a pooled keep-alive connector with the provided settings, passing null
+     * switches back to the default HttpURLConnection based connector. Any existing connections are closed,
+     * so this should be called before the transport is shared or while no requests are in flight.
+     *
+     * @param connectorConfig the pooled connector settings, or null to use the default connector
+     */
+    public synchronized void setConnectorConfig(GitLabConnectorConfig connectorConfig) {
+        reset();
+        this.connectorConfig = connectorConfig;
+    }
+
+    /**
+     * Get the current totals of the connection pool, will return null if no pooled connector is in use.
+     *
+     * @return the leased, pending, available and max connections of the pool, or null if not pooled
+     */
+    public synchronized PoolStats getConnectionPoolStats() {
+        return (pooledConnector != null ? pooledConnector.getStats() : null);
+    }
+
+    /**
+     * Get the rate limit governor shared by all requests sent through this transport, will return null if none is set.
+     *
+     * @return the rate limit governor, or null if requests are not governed
+     */
+    public RateLimitGovernor getRateLimitGovernor() {
+        return (rateLimitGovernor);
+    }
+
+    /**
+     * Sets the rate limit governor shared by all requests sent through this transport. Once set, requests are
+     * paced by the RateLimit-* and Retry-After response headers and GET requests failing with 429 or a 5xx
+     * status are retried. Passing null turns this off again.
+     *
+     * @param rateLimitGovernor the rate limit governor, or null to not govern requests
+     */
+    public void setRateLimitGovernor(RateLimitGovernor rateLimitGovernor) {
+        this.rateLimitGovernor = rateLimitGovernor;
+    }
+
+    /**
+     * Get the request coalescer shared by all requests sent through this transport, will return null if none is set.
+     *
+     * @return the request coalescer, or null if requests are not coalesced
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return (requestCoalescer);
+    }
+
+    /**
+     * Sets the request coalescer shared by all requests sent through this transport. Once set, identical GET
+     * requests of the same auth context that are in flight at the same time are sent only once and share the
+     * decoded result. Passing null turns this off again.
+     *
+     * @param requestCoalescer the request coalescer, or null to not coalesce requests
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    /**
+     * Get the ETag response cache shared by all requests sent through this transport, will return null if none is set.
+     *
+     * @return the ETag response cache, or null if responses are not cached
+     */
+    public ETagResponseCache getResponseCache() {
+        return (responseCache);
+    }
+
+    /**
+     * Sets the ETag response cache shared by all requests sent through this transport. Once set, cached reads
+     * are sent with If-None-Match and reuse the cached object when GitLab answers 304 Not Modified.
+     * Passing null turns this off again.
+     *
+     * @param responseCache the ETag response cache, or null to not cache responses
+     */
+    public void setResponseCache(ETagResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Closes the Jersey client and releases all pooled connections. The transport can still be used afterwards,
+     * the next request will set up a new connection. Async requests still held back by the rate limit governor
+     * fail with the closed client once they are due.
+     */
+    public void close() {
+
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Returns true if the transport is setup to ignore SSL certificate errors, otherwise returns false.
+     *
+     * @return true if the transport is setup to ignore SSL certificate errors, otherwise returns false
+     */
+    public synchronized boolean getIgnoreCertificateErrors() {
+        return (ignoreCertificateErrors);
+    }
+
+    /**
+     * Sets up the Jersey system ignore SSL certificate errors or not. A change closes the current Jersey client,
+     * so this should be called before the transport is shared or while no requests are in flight.
+     *
+     * @param ignoreCertificateErrors if true will set up the Jersey system ignore SSL certificate errors
+     */
+    public synchronized void setIgnoreCertificateErrors(boolean ignoreCertificateErrors) {
+
+        if (this.ignoreCertificateErrors == ignoreCertificateErrors) {
+            return;
+        }
+
+        if (!ignoreCertificateErrors) {
+
+            this.ignoreCertificateErrors = false;
+            openSslContext = null;
+            openHostnameVerifier = null;
+            reset();
+
+        } else {
+
+            if (setupIgnoreCertificateErrors()) {
+                this.ignoreCertificateErrors = true;
+                reset();
+            } else {
+                this.ignoreCertificateErrors = false;
+                reset();
+                throw new RuntimeException("Unable to ignore certificate errors.");
+            }
+        }
+    }
+
+    /**
+     * Sets up Jersey client to ignore certificate errors.
+     *
+     * @return true if successful at setting up to ignore certificate errors, otherwise returns false.
+     */
+    private boolean setupIgnoreCertificateErrors() {
+
+        // Create a TrustManager that trusts all certificates
+        TrustManager[] trustAllCerts = new TrustManager[]{new X509ExtendedTrustManager() {
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return null;
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            }
+        }};
+
+        // Ignore differences between given hostname and certificate hostname
+        HostnameVerifier hostnameVerifier = new HostnameVerifier() {
+            public boolean verify(String hostname, SSLSession session) {
+                return true;
+            }
+        };
+
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustAllCerts, new SecureRandom());
+            openSslContext = sslContext;
+            openHostnameVerifier = hostnameVerifier;
+        } catch (GeneralSecurityException ex) {
+            openSslContext = null;
+            openHostnameVerifier = null;
+            return (false);
+        }
+
+        return (true);
+    }
+}
@@ -198,8 +198,8 @@ public class GroupApi extends AbstractApi {
      * @throws GitLabApiException if any exception occurs
      */
     public Group getGroup(String groupPath) throws GitLabApiException {
-        Response response = get(Response.Status.OK, null, "groups", urlEncode(groupPath));
-        return (response.readEntity(Group.class));
+        GitLabObjectCache objectCache = getObjectCache();
+        return (getCachedObject((objectCache != null ? objectCache.getGroups() : null), groupPath, Group.class, "groups", urlEncode(groupPath)));
     }
 
     /**
@@ -289,8 +289,12 @@ public class GroupApi extends AbstractApi {
                 .withParam("parent_id", parentId)
                 .withParam("shared_runners_minutes_limit", sharedRunnersMinutesLimit);
 
-        Response response = put(Response.Status.OK, formData.asMap(), "groups", groupId);
-        return (response.readEntity(Group.class));
+        try {
+            Response response = put(Response.Status.OK, formData.asMap(), "groups", groupId);
+            return (response.readEntity(Group.class));
+        } finally {
+            invalidateGroups();
+        }
     }
 
     /**
@@ -308,7 +312,11 @@ public class GroupApi extends AbstractApi {
         }
 
         Response.Status expectedStatus = (isApiVersion(ApiVersion.V3) ? Response.Status.OK : Response.Status.NO_CONTENT);
-        delete(expectedStatus, null, "groups", groupId);
+        try {
+            delete(expectedStatus, null, "groups", groupId);
+        } finally {
+            invalidateGroups();
+        }
     }
 
     /**
@@ -323,6 +331,17 @@ public class GroupApi extends AbstractApi {
         deleteGroup(group.getId());
     }
 
+    /**
+     * Drops all groups from the object cache after a write. Groups are cached by the ID or path they were asked for,
+     * so a group can be cached under both, and its old path is not known once the path was changed.
+     */
+    private void invalidateGroups() {
+        GitLabObjectCache objectCache = getObjectCacheForWrite();
+        if (objectCache != null) {
+            objectCache.getGroups().invalidateAll();
+        }
+    }
+
     /**
      * Get a list of group members viewable by the authenticated user.
      * <p>
@@ -333,9 +352,8 @@ public class GroupApi extends AbstractApi {
      * @throws GitLabApiException if any exception occurs
      */
     public List<Member> getMembers(int groupId) throws GitLabApiException {
-        Response response = get(Response.Status.OK, getDefaultPerPageParam(), "groups", groupId, "members");
-        return (response.readEntity(new GenericType<List<Member>>() {
-        }));
+        return (getEntity(Response.Status.OK, new GenericType<List<Member>>() {
+        }, getDefaultPerPageParam(), "groups", groupId, "members"));
     }
 
     /**
@@ -0,0 +1,311 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Configuration;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
+import org.glassfish.jersey.message.internal.Statuses;
+
+/**
+ * A Jersey ConnectorProvider backed by the java.net.http.HttpClient of JDK 11+, which negotiates HTTP/2 and
+ * multiplexes concurrent requests over a few connections. Because this library is compiled for Java 8, the
+ * HttpClient API is called reflectively, use {@link #isAvailable()} to check that the running JDK provides it.
+ * <p>
+ * Responses are regular Jersey responses, so validation and error handling are the same as with the other connectors.
+ * Hostname verification can not be turned off per client, when ignoring certificate errors only the trust check is relaxed.
+ */
+class JdkHttpClientConnectorProvider implements ConnectorProvider {
+
+    // Headers the HttpClient sets itself and refuses to have set by the caller
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList(
+            "connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning"));
+
+    private static final boolean AVAILABLE;
+
+    private static Method clientNewBuilder;
+    private static Method clientBuilderVersion;
+    private static Method clientBuilderFollowRedirects;
+    private static Method clientBuilderConnectTimeout;
+    private static Method clientBuilderSslContext;
+    private static Method clientBuilderBuild;
+    private static Object http2;
+    private static Object redirectNormal;
+    private static Method requestNewBuilder;
+    private static Method requestBuilderMethod;
+    private static Method requestBuilderHeader;
+    private static Method requestBuilderTimeout;
+    private static Method requestBuilderBuild;
+    private static Method publishersNoBody;
+    private static Method publishersOfByteArray;
+    private static Method handlersOfInputStream;
+    private static Method clientSend;
+    private static Method clientSendAsync;
+    private static Method responseStatusCode;
+    private static Method responseHeaders;
+    private static Method responseBody;
+    private static Method headersMap;
+
+    static {
+        boolean available;
+        try {
+            Class<?> clientClass = Class.forName("java.net.http.HttpClient");
+            Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder");
+            Class<?> versionClass = Class.forName("java.net.http.HttpClient$Version");
+            Class<?> redirectClass = Class.forName("java.net.http.HttpClient$Redirect");
+            Class<?> requestClass = Class.forName("java.net.http.HttpRequest");
+            Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder");
+            Class<?> publishersClass = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+            Class<?> publisherClass = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+            Class<?> handlersClass = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+            Class<?> handlerClass = Class.forName("java.net.http.HttpResponse$BodyHandler");
+            Class<?> responseClass = Class.forName("java.net.http.HttpResponse");
+            Class<?> headersClass = Class.forName("java.net.http.HttpHeaders");
+
+            clientNewBuilder = clientClass.getMethod("newBuilder");
+            clientBuilderVersion = clientBuilderClass.getMethod("version", versionClass);
+            clientBuilderFollowRedirects = clientBuilderClass.getMethod("followRedirects", redirectClass);
+            clientBuilderConnectTimeout = clientBuilderClass.getMethod("connectTimeout", Duration.class);
+            clientBuilderSslContext = clientBuilderClass.getMethod("sslContext", SSLContext.class);
+            clientBuilderBuild = clientBuilderClass.getMethod("build");
+            http2 = versionClass.getField("HTTP_2").get(null);
+            redirectNormal = redirectClass.getField("NORMAL").get(null);
+            requestNewBuilder = requestClass.getMethod("newBuilder", URI.class);
+            requestBuilderMethod = requestBuilderClass.getMethod("method", String.class, publisherClass);
+            requestBuilderHeader = requestBuilderClass.getMethod("header", String.class, String.class);
+            requestBuilderTimeout = requestBuilderClass.getMethod("timeout", Duration.class);
+            requestBuilderBuild = requestBuilderClass.getMethod("build");
+            publishersNoBody = publishersClass.getMethod("noBody");
+            publishersOfByteArray = publishersClass.getMethod("ofByteArray", byte[].class);
+            handlersOfInputStream = handlersClass.getMethod("ofInputStream");
+            clientSend = clientClass.getMethod("send", requestClass, handlerClass);
+            clientSendAsync = clientClass.getMethod("sendAsync", requestClass, handlerClass);
+            responseStatusCode = responseClass.getMethod("statusCode");
+            responseHeaders = responseClass.getMethod("headers");
+            responseBody = responseClass.getMethod("body");
+            headersMap = headersClass.getMethod("map");
+            available = true;
+        } catch (Exception e) {
+            available = false;
+        }
+
+        AVAILABLE = available;
+    }
+
+    /**
+     * Returns true if the running JDK provides java.net.http.HttpClient (JDK 11+), otherwise returns false.
+     *
+     * @return true if the running JDK provides java.net.http.HttpClient
+     */
+    static boolean isAvailable() {
+        return (AVAILABLE);
+    }
+
+    @Override
+    public Connector getConnector(Client client, Configuration runtimeConfig) {
+
+        if (!AVAILABLE) {
+            throw new IllegalStateException("java.net.http.HttpClient is not available, JDK 11 or later is required");
+        }
+
+        Map<String, Object> properties = runtimeConfig.getProperties();
+        int connectTimeout = ClientProperties.getValue(properties, ClientProperties.CONNECT_TIMEOUT, 0, Integer.class);
+        int readTimeout = ClientProperties.getValue(properties, ClientProperties.READ_TIMEOUT, 0, Integer.class);
+        return (new JdkHttpClientConnector(client.getSslContext(), connectTimeout, readTimeout));
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) throws IOException {
+        try {
+            return (method.invoke(target, args));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(cause.getMessage());
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ProcessingException(cause);
+        } catch (IllegalAccessException e) {
+            throw new ProcessingException(e);
+        }
+    }
+
+    private static class JdkHttpClientConnector implements Connector {
+
+        private final Object httpClient;
+        private final int readTimeout;
+
+        JdkHttpClientConnector(SSLContext sslContext, int connectTimeout, int readTimeout) {
+
+            this.readTimeout = readTimeout;
+            try {
+                Object builder = invoke(clientNewBuilder, null);
+                invoke(clientBuilderVersion, builder, http2);
+                invoke(clientBuilderFollowRedirects, builder, redirectNormal);
+                if (connectTimeout > 0) {
+                    invoke(clientBuilderConnectTimeout, builder, Duration.ofMillis(connectTimeout));
+                }
+                if (sslContext != null) {
+                    invoke(clientBuilderSslContext, builder, sslContext);
+                }
+                httpClient = invoke(clientBuilderBuild, builder);
+            } catch (IOException e) {
+                throw new ProcessingException(e);
+            }
+        }
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            try {
+                Object httpResponse = invoke(clientSend, httpClient, buildRequest(request), invoke(handlersOfInputStream, null));
+                return (toClientResponse(request, httpResponse));
+            } catch (IOException e) {
+                throw new ProcessingException(e);
+            }
+        }
+
+        @Override
+        public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+
+            CompletableFuture<?> future;
+            try {
+                future = (CompletableFuture<?>) invoke(clientSendAsync, httpClient, buildRequest(request), invoke(handlersOfInputStream, null));
+            } catch (Throwable t) {
+                callback.failure(t);
+                CompletableFuture<Object> failed = new CompletableFuture<Object>();
+                failed.completeExceptionally(t);
+                return (failed);
+            }
+
+            return (future.whenComplete(new BiConsumer<Object, Throwable>() {
+                @Override
+                public void accept(Object httpResponse, Throwable thrown) {
+                    if (thrown != null) {
+                        callback.failure(thrown);
+                        return;
+                    }
+
+                    try {
+                        callback.response(toClientResponse(request, httpResponse));
+                    } catch (Throwable t) {
+                        callback.failure(t);
+                    }
+                }
+            }));
+        }
+
+        private Object buildRequest(ClientRequest request) throws IOException {
+
+            Object body;
+            if (request.hasEntity()) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                request.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+                    @Override
+                    public OutputStream getOutputStream(int contentLength) throws IOException {
+                        return (out);
+                    }
+                });
+                request.writeEntity();
+                body = invoke(publishersOfByteArray, null, (Object) out.toByteArray());
+            } else {
+                body = invoke(publishersNoBody, null);
+            }
+
+            Object builder = invoke(requestNewBuilder, null, request.getUri());
+            invoke(requestBuilderMethod, builder, request.getMethod(), body);
+            for (Map.Entry<String, List<String>> header : request.getStringHeaders().entrySet()) {
+                if (RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    invoke(requestBuilderHeader, builder, header.getKey(), value);
+                }
+            }
+
+            if (readTimeout > 0) {
+                invoke(requestBuilderTimeout, builder, Duration.ofMillis(readTimeout));
+            }
+
+            return (invoke(requestBuilderBuild, builder));
+        }
+
+        @SuppressWarnings("unchecked")
+        private ClientResponse toClientResponse(ClientRequest request, Object httpResponse) throws IOException {
+
+            int status = (Integer) invoke(responseStatusCode, httpResponse);
+            ClientResponse response = new ClientResponse(Statuses.from(status), request);
+            Map<String, List<String>> headers = (Map<String, List<String>>) invoke(headersMap, invoke(responseHeaders, httpResponse));
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (!header.getKey().startsWith(":")) {
+                    response.headers(header.getKey(), header.getValue());
+                }
+            }
+
+            response.setEntityStream((InputStream) invoke(responseBody, httpResponse));
+            return (response);
+        }
+
+        @Override
+        public String getName() {
+            return ("java.net.http.HttpClient");
+        }
+
+        @Override
+        public void close() {
+            // The HttpClient has no close() before JDK 21, its connections are released when it is garbage collected
+        }
+    }
+}
@@ -24,6 +24,7 @@ package org.gitlab4j.api;
  */
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
@@ -55,6 +56,20 @@ public class PipelineApi extends AbstractApi implements Constants {
         }));
     }
 
+    /**
+     * Asynchronously get a list of pipelines in a project.
+     * <p>
+     * GET /projects/:id/pipelines
+     *
+     * @param projectId the project ID to get the list of pipelines for
+     * @return a CompletableFuture that will be completed with the list of pipelines, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<List<Pipeline>> getPipelinesAsync(int projectId) {
+        CompletableFuture<Response> response = getAsync(Response.Status.OK, getDefaultPerPageParam(), "projects", projectId, "pipelines");
+        return (readEntityAsync(response, new GenericType<List<Pipeline>>() {
+        }));
+    }
+
     /**
      * Get a list of pipelines in a project in the specified page range.
      * <p>
@@ -207,6 +222,19 @@ public class PipelineApi extends AbstractApi implements Constants {
         return (response.readEntity(Pipeline.class));
     }
 
+    /**
+     * Asynchronously get single pipelines in a project.
+     * <p>
+     * GET /projects/:id/pipelines/:pipeline_id
+     *
+     * @param projectId  the project ID to get the specified pipeline for
+     * @param pipelineId the pipeline ID to get
+     * @return a CompletableFuture that will be completed with the pipeline, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<Pipeline> getPipelineAsync(int projectId, int pipelineId) {
+        return (readEntityAsync(getAsync(Response.Status.OK, null, "projects", projectId, "pipelines", pipelineId), Pipeline.class));
+    }
+
     /**
      * Create a pipelines in a project.
      * <p>
@@ -0,0 +1,160 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+
+/**
+ * Owns the Apache HttpClient connection pool backing a Jersey client built with a {@link GitLabConnectorConfig},
+ * and periodically evicts expired and idle connections from it.
+ */
+class PooledConnector {
+
+    private static final long EVICTION_INTERVAL = 5000;
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "gitlab4j-connection-evictor");
+            thread.setDaemon(true);
+            return (thread);
+        }
+    });
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ScheduledFuture<?> eviction;
+
+    /**
+     * Create the connection pool. If sslContext is null the JVM default SSL setup is used.
+     *
+     * @param config           the connector settings
+     * @param sslContext       the SSLContext to use for https connections, may be null
+     * @param hostnameVerifier the HostnameVerifier to use with sslContext, may be null
+     */
+    PooledConnector(GitLabConnectorConfig config, SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+
+        SSLConnectionSocketFactory sslSocketFactory = (sslContext != null ?
+                new SSLConnectionSocketFactory(sslContext, hostnameVerifier) : SSLConnectionSocketFactory.getSocketFactory());
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+
+        connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(config.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+
+        Evictor evictor = new Evictor(connectionManager, config.getIdleTimeout());
+        eviction = EVICTOR.scheduleWithFixedDelay(evictor, EVICTION_INTERVAL, EVICTION_INTERVAL, TimeUnit.MILLISECONDS);
+        evictor.eviction = eviction;
+    }
+
+    /**
+     * Sets up the provided ClientConfig to use the Apache connector backed by this pool.
+     *
+     * @param clientConfig the ClientConfig to set up
+     * @param config       the connector settings holding the timeouts
+     * @return the provided ClientConfig
+     */
+    ClientConfig configure(ClientConfig clientConfig, GitLabConnectorConfig config) {
+        clientConfig.connectorProvider(new ApacheConnectorProvider());
+        clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
+        clientConfig.property(ClientProperties.CONNECT_TIMEOUT, config.getConnectTimeout());
+        clientConfig.property(ClientProperties.READ_TIMEOUT, config.getReadTimeout());
+        return (clientConfig);
+    }
+
+    /**
+     * Get the current totals of the pool: leased, pending, available and max connections.
+     *
+     * @return the current totals of the pool
+     */
+    PoolStats getStats() {
+        return (connectionManager.getTotalStats());
+    }
+
+    /**
+     * Stops idle eviction and closes all pooled connections.
+     */
+    void close() {
+        eviction.cancel(false);
+        connectionManager.shutdown();
+    }
+
+    /**
+     * Evicts connections from a pool it only weakly references, so that the shared evictor thread does not keep
+     * a pool that was never closed alive. Once the pool is garbage collected the task cancels itself.
+     */
+    private static class Evictor implements Runnable {
+
+        private final WeakReference<PoolingHttpClientConnectionManager> connectionManager;
+        private final int idleTimeout;
+        private volatile ScheduledFuture<?> eviction;
+
+        private Evictor(PoolingHttpClientConnectionManager connectionManager, int idleTimeout) {
+            this.connectionManager = new WeakReference<PoolingHttpClientConnectionManager>(connectionManager);
+            this.idleTimeout = idleTimeout;
+        }
+
+        @Override
+        public void run() {
+
+            PoolingHttpClientConnectionManager manager = connectionManager.get();
+            if (manager == null) {
+                ScheduledFuture<?> future = eviction;
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+
+            manager.closeExpiredConnections();
+            if (idleTimeout > 0) {
+                manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -51,6 +51,7 @@ import java.net.URLEncoder;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.core.Form;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MultivaluedMap;
@@ -499,8 +500,20 @@ public class ProjectApi extends AbstractApi implements Constants {
      * @throws GitLabApiException if any exception occurs
      */
     public Project getProject(Integer projectId) throws GitLabApiException {
-        Response response = get(Response.Status.OK, null, "projects", projectId);
-        return (response.readEntity(Project.class));
+        GitLabObjectCache objectCache = getObjectCache();
+        return (getCachedObject((objectCache != null ? objectCache.getProjects() : null), projectId, Project.class, "projects", projectId));
+    }
+
+    /**
+     * Asynchronously get a specific project, which is owned by the authentication user.
+     * <p>
+     * GET /projects/:id
+     *
+     * @param projectId the ID of the project to get
+     * @return a CompletableFuture that will be completed with the specified project, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<Project> getProjectAsync(Integer projectId) {
+        return (readEntityAsync(getAsync(Response.Status.OK, null, "projects", projectId), Project.class));
     }
 
     /**
@@ -530,8 +543,7 @@ public class ProjectApi extends AbstractApi implements Constants {
             throw (new GitLabApiException(uee));
         }
 
-        Response response = get(Response.Status.OK, null, "projects", projectPath);
-        return (response.readEntity(Project.class));
+        return (getEntity(Response.Status.OK, Project.class, null, "projects", projectPath));
     }
 
     /**
@@ -828,8 +840,12 @@ public class ProjectApi extends AbstractApi implements Constants {
             formData.withParam("visibility", visibility);
         }
 
-        Response response = putWithFormData(Response.Status.OK, formData, "projects", id);
-        return (response.readEntity(Project.class));
+        try {
+            Response response = putWithFormData(Response.Status.OK, formData, "projects", id);
+            return (response.readEntity(Project.class));
+        } finally {
+            invalidateProject(id);
+        }
     }
 
     /**
@@ -847,7 +863,11 @@ public class ProjectApi extends AbstractApi implements Constants {
         }
 
         Response.Status expectedStatus = (isApiVersion(ApiVersion.V3) ? Response.Status.OK : Response.Status.ACCEPTED);
-        delete(expectedStatus, null, "projects", projectId);
+        try {
+            delete(expectedStatus, null, "projects", projectId);
+        } finally {
+            invalidateProject(projectId);
+        }
     }
 
     /**
@@ -862,6 +882,16 @@ public class ProjectApi extends AbstractApi implements Constants {
         deleteProject(project.getId());
     }
 
+    /**
+     * Drops the project from the object cache after a write, also when the write failed as it may still have been applied.
+     */
+    private void invalidateProject(Integer projectId) {
+        GitLabObjectCache objectCache = getObjectCacheForWrite();
+        if (objectCache != null) {
+            objectCache.getProjects().invalidate(projectId);
+        }
+    }
+
     /**
      * Get a list of project team members.
      * <p>
@@ -872,9 +902,8 @@ public class ProjectApi extends AbstractApi implements Constants {
      * @throws GitLabApiException if any exception occurs
      */
     public List<Member> getMembers(Integer projectId) throws GitLabApiException {
-        Response response = get(Response.Status.OK, this.getDefaultPerPageParam(), "projects", projectId, "members");
-        return (response.readEntity(new GenericType<List<Member>>() {
-        }));
+        return (getEntity(Response.Status.OK, new GenericType<List<Member>>() {
+        }, this.getDefaultPerPageParam(), "projects", projectId, "members"));
     }
 
     /**
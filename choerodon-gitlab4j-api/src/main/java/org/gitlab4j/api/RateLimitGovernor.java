@@ -0,0 +1,281 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * A client side governor for the GitLab rate limits, shared by all threads using a {@link GitLabTransport}.
+ * <p>
+ * It tracks the budget from the RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset response headers.
+ * Once the remaining budget drops below the low watermark, requests are spaced out evenly over the rest of
+ * the rate limit window, and when the budget is used up or the server answers with a Retry-After header,
+ * requests wait until the window resets. Idempotent GET requests that fail with 429 or a retryable 5xx status
+ * are retried with exponential backoff and full jitter.
+ * <p>
+ * All state is exposed through getters for monitoring.
+ */
+public class RateLimitGovernor {
+
+    public static final String RATE_LIMIT_LIMIT_HEADER = "RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET_HEADER = "RateLimit-Reset";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_BACKOFF = 500;
+    public static final long DEFAULT_MAX_BACKOFF = 30000;
+    public static final double DEFAULT_LOW_WATERMARK = 0.1;
+
+    private final int maxRetries;
+    private final long baseBackoff;
+    private final long maxBackoff;
+    private final double lowWatermark;
+
+    private long limit = -1;
+    private long remaining = -1;
+    private long resetAt;
+    private long blockedUntil;
+    private long nextPermitAt;
+
+    private final AtomicLong throttledRequests = new AtomicLong();
+    private final AtomicLong throttledMillis = new AtomicLong();
+    private final AtomicLong rateLimitedResponses = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriesExhausted = new AtomicLong();
+
+    /**
+     * Create a governor with the default settings: 3 retries, 500ms base and 30s max backoff,
+     * and pacing once less than 10% of the budget is left.
+     */
+    public RateLimitGovernor() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_BACKOFF, DEFAULT_MAX_BACKOFF, DEFAULT_LOW_WATERMARK);
+    }
+
+    /**
+     * Create a governor.
+     *
+     * @param maxRetries   the maximum number of times a GET request is retried
+     * @param baseBackoff  the backoff before the first retry in milliseconds, doubled for every further retry
+     * @param maxBackoff   the maximum backoff in milliseconds
+     * @param lowWatermark the fraction of the budget below which requests are spaced out, 0 disables pacing
+     */
+    public RateLimitGovernor(int maxRetries, long baseBackoff, long maxBackoff, double lowWatermark) {
+        this.maxRetries = maxRetries;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * Reserves a slot for the next request and returns how long the caller has to wait before sending it.
+     *
+     * @return the time to wait in milliseconds, 0 if the request can be sent right away
+     */
+    synchronized long reserve() {
+
+        long now = System.currentTimeMillis();
+        long slot = Math.max(now, blockedUntil);
+        if (limit > 0 && remaining >= 0 && resetAt > now && remaining < limit * lowWatermark) {
+            slot = Math.max(slot, nextPermitAt);
+            nextPermitAt = slot + (resetAt - now) / Math.max(1, remaining);
+        }
+
+        long delay = slot - now;
+        if (delay > 0) {
+            throttledRequests.incrementAndGet();
+            throttledMillis.addAndGet(delay);
+        }
+
+        return (delay);
+    }
+
+    /**
+     * Updates the budget from the rate limit headers of the provided response.
+     *
+     * @param response the Response instance sent from the GitLab server
+     */
+    void update(Response response) {
+
+        long now = System.currentTimeMillis();
+        long newLimit = parseLong(response.getHeaderString(RATE_LIMIT_LIMIT_HEADER));
+        long newRemaining = parseLong(response.getHeaderString(RATE_LIMIT_REMAINING_HEADER));
+        long newReset = parseLong(response.getHeaderString(RATE_LIMIT_RESET_HEADER));
+        long retryAfter = parseLong(response.getHeaderString(RETRY_AFTER_HEADER));
+        boolean rateLimited = (response.getStatus() == 429);
+        if (rateLimited) {
+            rateLimitedResponses.incrementAndGet();
+        }
+
+        synchronized (this) {
+
+            if (newLimit >= 0) {
+                limit = newLimit;
+            }
+
+            if (newRemaining >= 0) {
+                remaining = newRemaining;
+            }
+
+            if (newReset >= 0) {
+                resetAt = newReset * 1000;
+            }
+
+            if (retryAfter >= 0) {
+                blockedUntil = Math.max(blockedUntil, now + retryAfter * 1000);
+            } else if ((rateLimited || remaining == 0) && resetAt > now) {
+                blockedUntil = Math.max(blockedUntil, resetAt);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a GET request that got the provided status should be retried.
+     *
+     * @param status  the HTTP status of the response
+     * @param attempt the number of retries done so far
+     * @return true if the request should be retried
+     */
+    boolean shouldRetry(int status, int attempt) {
+
+        if (status != 429 && status != 500 && status != 502 && status != 503 && status != 504) {
+            return (false);
+        }
+
+        if (attempt >= maxRetries) {
+            retriesExhausted.incrementAndGet();
+            return (false);
+        }
+
+        retries.incrementAndGet();
+        return (true);
+    }
+
+    /**
+     * Returns the backoff before the next retry: a random time up to the exponential backoff for this attempt.
+     * A Retry-After header is honoured by the following reserve().
+     *
+     * @param attempt the number of retries done so far
+     * @return the backoff in milliseconds
+     */
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff, baseBackoff << Math.min(attempt, 30));
+        return (ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0);
+    }
+
+    private static long parseLong(String value) {
+
+        if (value == null) {
+            return (-1);
+        }
+
+        try {
+            return (Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return (-1);
+        }
+    }
+
+    /**
+     * Get the request limit of the current window as last reported by the server, -1 if not known.
+     *
+     * @return the request limit of the current window, -1 if not known
+     */
+    public synchronized long getLimit() {
+        return (limit);
+    }
+
+    /**
+     * Get the number of requests left in the current window as last reported by the server, -1 if not known.
+     *
+     * @return the number of requests left in the current window, -1 if not known
+     */
+    public synchronized long getRemaining() {
+        return (remaining);
+    }
+
+    /**
+     * Get the time the current window resets in milliseconds since the epoch, 0 if not known.
+     *
+     * @return the time the current window resets
+     */
+    public synchronized long getResetAt() {
+        return (resetAt);
+    }
+
+    /**
+     * Get the time until which requests are held back in milliseconds since the epoch, in the past if they are not.
+     *
+     * @return the time until which requests are held back
+     */
+    public synchronized long getBlockedUntil() {
+        return (blockedUntil);
+    }
+
+    /**
+     * @return the number of requests that had to wait before being sent
+     */
+    public long getThrottledRequests() {
+        return (throttledRequests.get());
+    }
+
+    /**
+     * @return the total time requests waited before being sent, in milliseconds
+     */
+    public long getThrottledMillis() {
+        return (throttledMillis.get());
+    }
+
+    /**
+     * @return the number of 429 Too Many Requests responses received
+     */
+    public long getRateLimitedResponses() {
+        return (rateLimitedResponses.get());
+    }
+
+    /**
+     * @return the number of GET requests retried
+     */
+    public long getRetries() {
+        return (retries.get());
+    }
+
+    /**
+     * @return the number of GET requests that still failed after the maximum number of retries
+     */
+    public long getRetriesExhausted() {
+        return (retriesExhausted.get());
+    }
+
+    @Override
+    public String toString() {
+        return ("RateLimitGovernor [limit=" + getLimit() + ", remaining=" + getRemaining() + ", resetAt=" + getResetAt()
+                + ", blockedUntil=" + getBlockedUntil() + ", throttledRequests=" + getThrottledRequests()
+                + ", throttledMillis=" + getThrottledMillis() + ", rateLimitedResponses=" + getRateLimitedResponses()
+                + ", retries=" + getRetries() + ", retriesExhausted=" + getRetriesExhausted() + "]");
+    }
+}
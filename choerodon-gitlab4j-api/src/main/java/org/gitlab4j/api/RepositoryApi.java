@@ -31,6 +31,7 @@ import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.core.Form;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
@@ -62,8 +63,21 @@ public class RepositoryApi extends AbstractApi {
      * @throws GitLabApiException if any exception occurs
      */
     public List<Branch> getBranches(Integer projectId) throws GitLabApiException {
-        Response response = get(Response.Status.OK, getDefaultPerPageParam(), "projects", projectId, "repository", "branches");
-        return (response.readEntity(new GenericType<List<Branch>>() {
+        return (getEntity(Response.Status.OK, new GenericType<List<Branch>>() {
+        }, getDefaultPerPageParam(), "projects", projectId, "repository", "branches"));
+    }
+
+    /**
+     * Asynchronously get a list of repository branches from a project, sorted by name alphabetically.
+     * <p>
+     * GET /projects/:id/repository/branches
+     *
+     * @param projectId the project to get the list of branches for
+     * @return a CompletableFuture that will be completed with the list of repository branches, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<List<Branch>> getBranchesAsync(Integer projectId) {
+        CompletableFuture<Response> response = getAsync(Response.Status.OK, getDefaultPerPageParam(), "projects", projectId, "repository", "branches");
+        return (readEntityAsync(response, new GenericType<List<Branch>>() {
         }));
     }
 
@@ -109,8 +123,24 @@ public class RepositoryApi extends AbstractApi {
      * @throws GitLabApiException if any exception occurs
      */
     public Branch getBranch(Integer projectId, String branchName) throws GitLabApiException {
-        Response response = get(Response.Status.OK, null, "projects", projectId, "repository", "branches", urlEncode(branchName));
-        return (response.readEntity(Branch.class));
+        return (getEntity(Response.Status.OK, Branch.class, null, "projects", projectId, "repository", "branches", urlEncode(branchName)));
+    }
+
+    /**
+     * Asynchronously get a single project repository branch.
+     * <p>
+     * GET /projects/:id/repository/branches/:branch
+     *
+     * @param projectId  the project to get the branch for
+     * @param branchName the name of the branch to get
+     * @return a CompletableFuture that will be completed with the branch info, or exceptionally with a GitLabApiException
+     */
+    public CompletableFuture<Branch> getBranchAsync(Integer projectId, String branchName) {
+        try {
+            return (readEntityAsync(getAsync(Response.Status.OK, null, "projects", projectId, "repository", "branches", urlEncode(branchName)), Branch.class));
+        } catch (GitLabApiException e) {
+            return (AbstractApi.<Branch>failedFuture(e));
+        }
     }
 
     /**
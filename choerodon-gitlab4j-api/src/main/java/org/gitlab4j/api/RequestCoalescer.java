@@ -0,0 +1,135 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical GET requests that are in flight at the same time, shared by all threads using a
+ * {@link GitLabTransport}.
+ * <p>
+ * Requests are keyed by the API path, the query parameters, the auth context (token and sudo user) and the
+ * type the response is read as. The first caller sends the request, callers arriving while it is in flight
+ * wait for it and get the same decoded result, or the same exception. Nothing is kept once the request is done,
+ * so the next call goes to the server again.
+ * <p>
+ * NOTE: coalesced callers share one result instance, it must be treated as read-only.
+ */
+public class RequestCoalescer {
+
+    /**
+     * A GET request sending the request and reading the result.
+     */
+    interface Call<T> {
+        T call() throws GitLabApiException;
+    }
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Runs the call, or waits for the result of an identical call already in flight.
+     *
+     * @param key  the key identifying the request
+     * @param call the call sending the request and reading the result
+     * @return the result of the call
+     * @throws GitLabApiException if any exception occurs during execution
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, Call<T> call) throws GitLabApiException {
+
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, future);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            return ((T) await(leader));
+        }
+
+        requests.incrementAndGet();
+        T result;
+        try {
+            result = call.call();
+        } catch (final Throwable t) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(t);
+            throw t;
+        }
+
+        inFlight.remove(key, future);
+        future.complete(result);
+        return (result);
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws GitLabApiException {
+
+        try {
+            return (future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitLabApiException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GitLabApiException) {
+                throw (GitLabApiException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new GitLabApiException(e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests sent to the server
+     */
+    public long getRequests() {
+        return (requests.get());
+    }
+
+    /**
+     * @return the number of calls that waited for an identical request instead of sending their own
+     */
+    public long getCoalesced() {
+        return (coalesced.get());
+    }
+
+    /**
+     * @return the number of requests currently in flight
+     */
+    public int getInFlight() {
+        return (inFlight.size());
+    }
+
+    @Override
+    public String toString() {
+        return ("RequestCoalescer [requests=" + getRequests() + ", coalesced=" + getCoalesced() + ", inFlight=" + getInFlight() + "]");
+    }
+}
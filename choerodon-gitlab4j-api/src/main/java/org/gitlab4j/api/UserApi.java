@@ -153,7 +153,11 @@ public class UserApi extends AbstractApi {
             throw new RuntimeException("userId cannot be null");
         }
 
-        post(Response.Status.CREATED, (Form) null, "users", userId, "block");
+        try {
+            post(Response.Status.CREATED, (Form) null, "users", userId, "block");
+        } finally {
+            invalidateUser(userId);
+        }
     }
 
     /**
@@ -170,7 +174,11 @@ public class UserApi extends AbstractApi {
             throw new RuntimeException("userId cannot be null");
         }
 
-        post(Response.Status.CREATED, (Form) null, "users", userId, "unblock");
+        try {
+            post(Response.Status.CREATED, (Form) null, "users", userId, "unblock");
+        } finally {
+            invalidateUser(userId);
+        }
     }
 
     /**
@@ -234,8 +242,8 @@ public class UserApi extends AbstractApi {
      * @throws GitLabApiException if any exception occurs
      */
     public User getUser(int userId) throws GitLabApiException {
-        Response response = get(Response.Status.OK, null, "users", userId);
-        return (response.readEntity(User.class));
+        GitLabObjectCache objectCache = getObjectCache();
+        return (getCachedObject((objectCache != null ? objectCache.getUsers() : null), userId, User.class, "users", userId));
     }
 
     /**
@@ -382,8 +390,12 @@ public class UserApi extends AbstractApi {
      */
     public User modifyUser(User user, String password, Integer projectsLimit) throws GitLabApiException {
         Form form = userToForm(user, projectsLimit, password, false);
-        Response response = put(Response.Status.OK, form.asMap(), "users", user.getId());
-        return (response.readEntity(User.class));
+        try {
+            Response response = put(Response.Status.OK, form.asMap(), "users", user.getId());
+            return (response.readEntity(User.class));
+        } finally {
+            invalidateUser(user.getId());
+        }
     }
 
     /**
@@ -401,7 +413,11 @@ public class UserApi extends AbstractApi {
         }
 
         Response.Status expectedStatus = (isApiVersion(ApiVersion.V3) ? Response.Status.OK : Response.Status.NO_CONTENT);
-        delete(expectedStatus, null, "users", userId);
+        try {
+            delete(expectedStatus, null, "users", userId);
+        } finally {
+            invalidateUser(userId);
+        }
     }
 
 
@@ -440,6 +456,16 @@ public class UserApi extends AbstractApi {
         deleteUser(user.getId());
     }
 
+    /**
+     * Drops the user from the object cache after a write, also when the write failed as it may still have been applied.
+     */
+    private void invalidateUser(Integer userId) {
+        GitLabObjectCache objectCache = getObjectCacheForWrite();
+        if (objectCache != null) {
+            objectCache.getUsers().invalidate(userId);
+        }
+    }
+
     /**
      * Get currently authenticated user.
      * <p>
@@ -0,0 +1,212 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.gitlab4j.api.Constants.TokenType;
+import org.gitlab4j.api.models.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+public class ETagResponseCacheTest {
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    /**
+     * Answers GET projects/:id like GitLab does: the ETag depends on the token, the project and its version,
+     * and a request carrying the current ETag in If-None-Match gets 304 Not Modified.
+     */
+    private static class ProjectResponder implements StubGitLabServer.Responder {
+
+        private volatile String version = "v1";
+        private volatile boolean sendETag = true;
+
+        @Override
+        public void respond(HttpExchange exchange) throws IOException {
+
+            String path = exchange.getRequestURI().getPath();
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            String token = exchange.getRequestHeaders().getFirst(GitLabApiClient.PRIVATE_TOKEN_HEADER);
+            String etag = "\"" + token + "-" + id + "-" + version + "\"";
+            if (!sendETag) {
+                StubGitLabServer.reply(exchange, 200, body(id, token));
+            } else if (etag.equals(exchange.getRequestHeaders().getFirst(IF_NONE_MATCH))) {
+                StubGitLabServer.reply(exchange, 304, null, "ETag", etag);
+            } else {
+                StubGitLabServer.reply(exchange, 200, body(id, token), "ETag", etag);
+            }
+        }
+
+        private String body(String id, String token) {
+            return ("{\"id\":" + id + ",\"name\":\"" + token + "-" + version + "\"}");
+        }
+    }
+
+    private StubGitLabServer server;
+    private ProjectResponder responder;
+    private GitLabApi api;
+
+    @Before
+    public void setup() throws IOException {
+        server = new StubGitLabServer();
+        responder = new ProjectResponder();
+        server.setResponder(responder);
+        api = new GitLabApi(server.getUrl(), "token-a");
+    }
+
+    @After
+    public void teardown() {
+        api.close();
+        server.stop();
+    }
+
+    private String lastIfNoneMatch() {
+        return (server.getLastRequest().getHeader(IF_NONE_MATCH));
+    }
+
+    @Test
+    public void testNotModifiedReusesCachedObject() throws Exception {
+
+        ETagResponseCache cache = new ETagResponseCache();
+        api.setResponseCache(cache);
+
+        Project first = api.getProjectApi().getProject(1);
+        assertNull(lastIfNoneMatch());
+        assertEquals("token-a-v1", first.getName());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getSize());
+
+        Project second = api.getProjectApi().getProject(1);
+        assertEquals("\"token-a-1-v1\"", lastIfNoneMatch());
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+
+        // A changed project is downloaded again and replaces the entry
+        responder.version = "v2";
+        Project third = api.getProjectApi().getProject(1);
+        assertNotSame(first, third);
+        assertEquals("token-a-v2", third.getName());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        assertSame(third, api.getProjectApi().getProject(1));
+        assertEquals("\"token-a-1-v2\"", lastIfNoneMatch());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getSize());
+        assertEquals(4, server.getRequests().size());
+    }
+
+    @Test
+    public void testResponseWithoutETagDropsEntry() throws Exception {
+
+        ETagResponseCache cache = new ETagResponseCache();
+        api.setResponseCache(cache);
+
+        api.getProjectApi().getProject(1);
+        assertEquals(1, cache.getSize());
+
+        responder.sendETag = false;
+        Project project = api.getProjectApi().getProject(1);
+        assertEquals("\"token-a-1-v1\"", lastIfNoneMatch());
+        assertEquals("token-a-v1", project.getName());
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getMisses());
+
+        api.getProjectApi().getProject(1);
+        assertNull("The dropped entry is not sent in If-None-Match", lastIfNoneMatch());
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+
+        ETagResponseCache cache = new ETagResponseCache(2);
+        api.setResponseCache(cache);
+
+        api.getProjectApi().getProject(1);
+        api.getProjectApi().getProject(2);
+        assertEquals(2, cache.getSize());
+        assertEquals(0, cache.getEvictions());
+
+        // Using project 1 makes project 2 the least recently used entry
+        api.getProjectApi().getProject(1);
+        assertEquals(1, cache.getHits());
+
+        api.getProjectApi().getProject(3);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+
+        api.getProjectApi().getProject(1);
+        assertEquals("\"token-a-1-v1\"", lastIfNoneMatch());
+        assertEquals(2, cache.getHits());
+
+        api.getProjectApi().getProject(2);
+        assertNull("Project 2 was evicted", lastIfNoneMatch());
+        assertEquals(2, cache.getEvictions());
+        assertEquals(2, cache.getSize());
+        assertEquals(2, cache.getMaxEntries());
+    }
+
+    @Test
+    public void testEntriesAreKeptPerAuthContext() throws Exception {
+
+        ETagResponseCache cache = new ETagResponseCache();
+        api.setResponseCache(cache);
+        GitLabApi other = api.withAuthToken(TokenType.PRIVATE, "token-b");
+
+        Project projectA = api.getProjectApi().getProject(1);
+        Project projectB = other.getProjectApi().getProject(1);
+        assertNull("The entry of token-a is not used for token-b", lastIfNoneMatch());
+        assertEquals("token-a-v1", projectA.getName());
+        assertEquals("token-b-v1", projectB.getName());
+        assertEquals(2, cache.getSize());
+        assertEquals(2, cache.getMisses());
+
+        assertSame(projectA, api.getProjectApi().getProject(1));
+        assertEquals("\"token-a-1-v1\"", lastIfNoneMatch());
+        assertSame(projectB, other.getProjectApi().getProject(1));
+        assertEquals("\"token-b-1-v1\"", lastIfNoneMatch());
+        assertEquals(2, cache.getHits());
+
+        // Sudo is part of the auth context as well
+        api.as(5).getProjectApi().getProject(1);
+        assertNull(lastIfNoneMatch());
+        assertEquals("5", server.getLastRequest().getHeader(GitLabApiClient.SUDO_HEADER));
+        assertEquals(3, cache.getSize());
+    }
+}
@@ -0,0 +1,331 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.gitlab4j.api.models.Group;
+import org.gitlab4j.api.models.Project;
+import org.gitlab4j.api.models.User;
+import org.gitlab4j.api.webhook.MergeRequestEvent;
+import org.gitlab4j.api.webhook.PushEvent;
+import org.gitlab4j.api.webhook.TagPushEvent;
+import org.gitlab4j.api.webhook.WebHookManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+public class GitLabObjectCacheTest {
+
+    /**
+     * Answers the project, user and group calls: GET and PUT return the object with the ID from the path,
+     * POST returns 201, and DELETE returns 202 for projects and 204 for the rest, as GitLab does.
+     */
+    private class ObjectResponder implements StubGitLabServer.Responder {
+
+        private volatile boolean failWrites;
+        private volatile boolean invalidateWhileLoading;
+
+        @Override
+        public void respond(HttpExchange exchange) throws IOException {
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.split("/");
+            String id = segments[4];
+
+            if (!"GET".equals(method) && failWrites) {
+                StubGitLabServer.reply(exchange, 500, "{\"message\":\"500 Internal Server Error\"}");
+            } else if ("GET".equals(method) || "PUT".equals(method)) {
+                if (invalidateWhileLoading) {
+                    // A webhook coming in while the object is loaded
+                    cache.getProjects().invalidate(Integer.valueOf(id));
+                }
+                StubGitLabServer.reply(exchange, 200, "{\"id\":" + id + ",\"name\":\"object-" + id + "\",\"path\":\"path-" + id + "\"}");
+            } else if ("POST".equals(method)) {
+                StubGitLabServer.reply(exchange, 201, "true");
+            } else if (path.startsWith("/api/v4/projects/")) {
+                StubGitLabServer.reply(exchange, 202, "{\"message\":\"202 Accepted\"}");
+            } else {
+                StubGitLabServer.reply(exchange, 204, null);
+            }
+        }
+    }
+
+    private StubGitLabServer server;
+    private ObjectResponder responder;
+    private GitLabObjectCache cache;
+    private GitLabApi api;
+
+    @Before
+    public void setup() throws IOException {
+        server = new StubGitLabServer();
+        responder = new ObjectResponder();
+        server.setResponder(responder);
+        cache = new GitLabObjectCache();
+        api = new GitLabApi(server.getUrl(), "token");
+        api.setObjectCache(cache);
+    }
+
+    @After
+    public void teardown() {
+        api.close();
+        server.stop();
+    }
+
+    private int countRequests(String method, String uri) {
+        int count = 0;
+        for (StubGitLabServer.Request request : server.getRequests()) {
+            if (method.equals(request.getMethod()) && uri.equals(request.getUri())) {
+                count++;
+            }
+        }
+        return (count);
+    }
+
+    private static Project project(int id) {
+        Project project = new Project();
+        project.setId(id);
+        project.setName("object-" + id);
+        return (project);
+    }
+
+    @Test
+    public void testObjectsExpireAfterTtl() throws Exception {
+
+        GitLabObjectCache.Region<Project> projects = new GitLabObjectCache(100, 60000, 60000, 10).getProjects();
+        Project project = project(1);
+        projects.put(1, project, projects.getStamp());
+
+        assertSame(project, projects.get(1));
+        assertEquals(1, projects.getHits());
+        assertTrue(projects.getMaxAge() <= 100);
+
+        Thread.sleep(150);
+        assertEquals("Expired objects are not served for the max age", 0, projects.getMaxAge());
+        assertNull(projects.get(1));
+        assertEquals(1, projects.getExpirations());
+        assertEquals(1, projects.getMisses());
+        assertEquals(0, projects.getSize());
+    }
+
+    @Test
+    public void testExpiredObjectIsLoadedAgain() throws Exception {
+
+        cache = new GitLabObjectCache(200, 60000, 60000, 10);
+        api.setObjectCache(cache);
+
+        Project first = api.getProjectApi().getProject(1);
+        assertSame(first, api.getProjectApi().getProject(1));
+        assertEquals(1, countRequests("GET", "/api/v4/projects/1"));
+
+        Thread.sleep(300);
+        api.getProjectApi().getProject(1);
+        assertEquals(2, countRequests("GET", "/api/v4/projects/1"));
+        assertEquals(1, cache.getProjects().getExpirations());
+    }
+
+    @Test
+    public void testObjectLoadedDuringInvalidationIsNotCached() throws Exception {
+
+        GitLabObjectCache.Region<Project> projects = cache.getProjects();
+        long stamp = projects.getStamp();
+        projects.invalidate(1);
+        projects.put(1, project(1), stamp);
+        assertEquals(0, projects.getSize());
+
+        // The invalidation bumps the stamp even when nothing was cached, so this applies to other IDs as well
+        stamp = projects.getStamp();
+        projects.invalidate(2);
+        projects.put(1, project(1), stamp);
+        assertEquals(0, projects.getSize());
+        assertEquals(0, projects.getInvalidations());
+
+        projects.put(1, project(1), projects.getStamp());
+        assertEquals(1, projects.getSize());
+    }
+
+    @Test
+    public void testWebhookDuringGetCachedObjectIsNotOverwritten() throws Exception {
+
+        responder.invalidateWhileLoading = true;
+        api.getProjectApi().getProject(1);
+        assertEquals("The stale object is not cached", 0, cache.getProjects().getSize());
+
+        api.getProjectApi().getProject(1);
+        assertEquals(2, countRequests("GET", "/api/v4/projects/1"));
+
+        responder.invalidateWhileLoading = false;
+        Project project = api.getProjectApi().getProject(1);
+        assertSame(project, api.getProjectApi().getProject(1));
+        assertEquals(3, countRequests("GET", "/api/v4/projects/1"));
+    }
+
+    @Test
+    public void testWebhookEventsInvalidateProjects() throws Exception {
+
+        GitLabObjectCache.Region<Project> projects = cache.getProjects();
+        for (int id = 1; id <= 5; id++) {
+            projects.put(id, project(id), projects.getStamp());
+        }
+
+        WebHookManager webHookManager = new WebHookManager();
+        webHookManager.addListener(cache);
+
+        PushEvent pushEvent = new PushEvent();
+        pushEvent.setProjectId(1);
+        webHookManager.handleEvent(pushEvent);
+        assertEquals(-1, projects.getAge(1));
+        assertEquals(4, projects.getSize());
+
+        TagPushEvent tagPushEvent = new TagPushEvent();
+        tagPushEvent.setProjectId(2);
+        webHookManager.handleEvent(tagPushEvent);
+        assertEquals(-1, projects.getAge(2));
+
+        MergeRequestEvent.ObjectAttributes mergeRequest = new MergeRequestEvent.ObjectAttributes();
+        mergeRequest.setSourceProjectId(3);
+        mergeRequest.setTargetProjectId(4);
+        MergeRequestEvent mergeRequestEvent = new MergeRequestEvent();
+        mergeRequestEvent.setObjectAttributes(mergeRequest);
+        webHookManager.handleEvent(mergeRequestEvent);
+        assertEquals(-1, projects.getAge(3));
+        assertEquals(-1, projects.getAge(4));
+
+        // Events without a project are ignored
+        webHookManager.handleEvent(new PushEvent());
+        webHookManager.handleEvent(new MergeRequestEvent());
+
+        assertEquals(1, projects.getSize());
+        assertTrue(projects.getAge(5) >= 0);
+        assertEquals(4, projects.getInvalidations());
+    }
+
+    @Test
+    public void testProjectWritesInvalidate() throws Exception {
+
+        GitLabObjectCache.Region<Project> projects = cache.getProjects();
+        api.getProjectApi().getProject(1);
+        api.getProjectApi().getProject(1);
+        assertEquals(1, countRequests("GET", "/api/v4/projects/1"));
+        assertEquals(1, projects.getHits());
+
+        api.getProjectApi().updateProject(project(1));
+        assertEquals(0, projects.getSize());
+        api.getProjectApi().getProject(1);
+        assertEquals(2, countRequests("GET", "/api/v4/projects/1"));
+
+        api.getProjectApi().deleteProject(1);
+        assertEquals(0, projects.getSize());
+        api.getProjectApi().getProject(1);
+        assertEquals(3, countRequests("GET", "/api/v4/projects/1"));
+
+        // A failed write may still have changed the project
+        responder.failWrites = true;
+        try {
+            api.getProjectApi().updateProject(project(1));
+            fail("Expected a GitLabApiException");
+        } catch (GitLabApiException expected) {
+        }
+
+        assertEquals(0, projects.getSize());
+        assertEquals(3, projects.getInvalidations());
+    }
+
+    @Test
+    public void testUserWritesInvalidate() throws Exception {
+
+        GitLabObjectCache.Region<User> users = cache.getUsers();
+        User user = api.getUserApi().getUser(1);
+        assertSame(user, api.getUserApi().getUser(1));
+
+        api.getUserApi().modifyUser(user, null, null);
+        assertEquals(0, users.getSize());
+        api.getUserApi().getUser(1);
+        assertEquals(1, users.getSize());
+
+        api.getUserApi().blockUser(1);
+        assertEquals(0, users.getSize());
+        api.getUserApi().getUser(1);
+
+        api.getUserApi().unblockUser(1);
+        assertEquals(0, users.getSize());
+        api.getUserApi().getUser(1);
+
+        api.getUserApi().deleteUser(1);
+        assertEquals(0, users.getSize());
+
+        assertEquals(4, countRequests("GET", "/api/v4/users/1"));
+        assertEquals(4, users.getInvalidations());
+    }
+
+    @Test
+    public void testGroupWritesInvalidateAllGroups() throws Exception {
+
+        GitLabObjectCache.Region<Group> groups = cache.getGroups();
+        api.getGroupApi().getGroup(1);
+        api.getGroupApi().getGroup(2);
+        api.getGroupApi().getGroup(2);
+        assertEquals(2, groups.getSize());
+        assertEquals(1, countRequests("GET", "/api/v4/groups/2"));
+
+        // Groups are cached by ID or path, so a write drops all of them
+        api.getGroupApi().updateGroup(1, "group", null, null, null, null, null, null, null, null, null);
+        assertEquals(0, groups.getSize());
+        api.getGroupApi().getGroup(2);
+        assertEquals(2, countRequests("GET", "/api/v4/groups/2"));
+
+        api.getGroupApi().deleteGroup(1);
+        assertEquals(0, groups.getSize());
+        assertEquals(3, groups.getInvalidations());
+    }
+
+    @Test
+    public void testGetAgeDoesNotChangeEvictionOrder() throws Exception {
+
+        GitLabObjectCache.Region<Project> projects = new GitLabObjectCache(60000, 60000, 60000, 2).getProjects();
+        projects.put(1, project(1), projects.getStamp());
+        projects.put(2, project(2), projects.getStamp());
+
+        // Looking at the age of project 1 must not make project 2 the least recently used one
+        assertTrue(projects.getAge(1) >= 0);
+        assertEquals(-1, projects.getAge(3));
+
+        projects.put(3, project(3), projects.getStamp());
+        assertEquals(-1, projects.getAge(1));
+        assertTrue(projects.getAge(2) >= 0);
+        assertTrue(projects.getAge(3) >= 0);
+        assertEquals(1, projects.getEvictions());
+        assertEquals(0, projects.getHits());
+        assertEquals(0, projects.getMisses());
+    }
+}
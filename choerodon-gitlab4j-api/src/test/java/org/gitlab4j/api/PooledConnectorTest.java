@@ -0,0 +1,250 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.pool.PoolStats;
+import org.gitlab4j.api.Constants.TokenType;
+import org.gitlab4j.api.models.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+public class PooledConnectorTest {
+
+    private StubGitLabServer server;
+    private final List<GitLabApi> apis = new ArrayList<GitLabApi>();
+
+    @Before
+    public void setup() throws IOException {
+        server = new StubGitLabServer();
+        server.setResponder(new StubGitLabServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                StubGitLabServer.reply(exchange, 200, "{\"id\":1,\"name\":\"project\"}");
+            }
+        });
+    }
+
+    @After
+    public void teardown() {
+        for (GitLabApi api : apis) {
+            api.close();
+        }
+        server.stop();
+    }
+
+    private GitLabApi createApi(GitLabConnectorConfig connectorConfig) {
+        GitLabApi api = new GitLabApi(server.getUrl(), "token");
+        api.setConnectorConfig(connectorConfig);
+        apis.add(api);
+        return (api);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws Exception {
+
+        final GitLabApi api = createApi(new GitLabConnectorConfig());
+        assertNull("The pool is set up with the first request", api.getConnectionPoolStats());
+
+        final AtomicInteger leasedDuringRequest = new AtomicInteger(-1);
+        server.setResponder(new StubGitLabServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                leasedDuringRequest.set(api.getConnectionPoolStats().getLeased());
+                StubGitLabServer.reply(exchange, 200, "{\"id\":1,\"name\":\"project\"}");
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            Project project = api.getProjectApi().getProject(1);
+            assertEquals(Integer.valueOf(1), project.getId());
+        }
+
+        assertEquals(1, leasedDuringRequest.get());
+        PoolStats stats = api.getConnectionPoolStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+        assertEquals(GitLabConnectorConfig.DEFAULT_MAX_TOTAL_CONNECTIONS, stats.getMax());
+        assertEquals("All requests are sent on one connection", 1, server.getRemotePorts().size());
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+
+        GitLabApi api = createApi(new GitLabConnectorConfig().withReadTimeout(300));
+        server.setResponder(new StubGitLabServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubGitLabServer.reply(exchange, 200, "{\"id\":1}");
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        try {
+            api.getProjectApi().getProject(1);
+            fail("Expected a read timeout");
+        } catch (GitLabApiException e) {
+            assertTrue("Expected a SocketTimeoutException but got " + e.getCause(), hasCause(e, SocketTimeoutException.class));
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2500);
+        assertEquals(0, api.getConnectionPoolStats().getLeased());
+    }
+
+    @Test
+    public void testConnectTimeout() throws Exception {
+
+        // A server socket that never accepts, once its backlog is full further connects hang until they time out
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        List<Socket> backlog = new ArrayList<Socket>();
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+            for (int i = 0; i < 64; i++) {
+                Socket socket = new Socket();
+                try {
+                    socket.connect(address, 200);
+                    backlog.add(socket);
+                } catch (SocketTimeoutException e) {
+                    socket.close();
+                    break;
+                }
+            }
+
+            GitLabApi api = new GitLabApi("http://127.0.0.1:" + serverSocket.getLocalPort(), "token");
+            api.setConnectorConfig(new GitLabConnectorConfig().withConnectTimeout(500).withReadTimeout(10000));
+            apis.add(api);
+
+            long start = System.currentTimeMillis();
+            try {
+                api.getProjectApi().getProject(1);
+                fail("Expected a connect timeout");
+            } catch (GitLabApiException e) {
+                assertTrue("Expected a connect timeout but got " + e.getCause(), hasCause(e, InterruptedIOException.class));
+            }
+
+            assertTrue(System.currentTimeMillis() - start < 5000);
+
+        } finally {
+            for (Socket socket : backlog) {
+                socket.close();
+            }
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void testEvictorClosesIdleConnections() throws Exception {
+
+        GitLabApi api = createApi(new GitLabConnectorConfig().withIdleTimeout(100));
+        api.getProjectApi().getProject(1);
+        assertEquals(1, api.getConnectionPoolStats().getAvailable());
+
+        // The evictor runs every 5 seconds
+        long deadline = System.currentTimeMillis() + 15000;
+        while (api.getConnectionPoolStats().getAvailable() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        PoolStats stats = api.getConnectionPoolStats();
+        assertEquals(0, stats.getAvailable());
+        assertEquals(0, stats.getLeased());
+
+        api.getProjectApi().getProject(1);
+        assertEquals("The evicted connection is replaced by a new one", 2, server.getRemotePorts().size());
+    }
+
+    @Test
+    public void testSharedTransportRefusesReset() throws Exception {
+
+        GitLabTransport transport = new GitLabTransport(server.getUrl(), new GitLabConnectorConfig());
+        try {
+            GitLabApi api = transport.createApi(TokenType.PRIVATE, "token");
+            GitLabApi view = api.as(2);
+            api.getProjectApi().getProject(1);
+
+            try {
+                api.setConnectorConfig(null);
+                fail("Expected an IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+
+            try {
+                view.setIgnoreCertificateErrors(true);
+                fail("Expected an IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+
+            // Not a change, so nothing is reset
+            api.setIgnoreCertificateErrors(false);
+
+            // Closing a handle leaves the shared transport open
+            api.close();
+            view.close();
+            assertNotNull(transport.getConnectionPoolStats());
+            assertEquals(1, transport.getConnectionPoolStats().getAvailable());
+
+            view.getProjectApi().getProject(1);
+            assertEquals("The pooled connection survived", 1, server.getRemotePorts().size());
+            assertEquals(GitLabConnectorConfig.DEFAULT_MAX_TOTAL_CONNECTIONS, transport.getConnectionPoolStats().getMax());
+
+        } finally {
+            transport.close();
+        }
+
+        assertNull(transport.getConnectionPoolStats());
+    }
+
+    private static boolean hasCause(Throwable thrown, Class<? extends Throwable> type) {
+        for (Throwable cause = thrown; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return (true);
+            }
+        }
+        return (false);
+    }
+}
@@ -0,0 +1,345 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Response;
+
+import org.gitlab4j.api.models.Project;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+public class RateLimitGovernorTest {
+
+    private static Response response(int status, String... headers) {
+        Response.ResponseBuilder builder = Response.status(status);
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return (builder.build());
+    }
+
+    private static String resetIn(int seconds) {
+        return (String.valueOf(System.currentTimeMillis() / 1000 + seconds));
+    }
+
+    @Test
+    public void testNoWaitWithoutRateLimitHeaders() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        assertEquals(0, governor.reserve());
+
+        governor.update(response(200));
+        assertEquals(0, governor.reserve());
+        assertEquals(-1, governor.getLimit());
+        assertEquals(-1, governor.getRemaining());
+        assertEquals(0, governor.getThrottledRequests());
+    }
+
+    @Test
+    public void testNoPacingAboveLowWatermark() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(200, RateLimitGovernor.RATE_LIMIT_LIMIT_HEADER, "100",
+                RateLimitGovernor.RATE_LIMIT_REMAINING_HEADER, "10",
+                RateLimitGovernor.RATE_LIMIT_RESET_HEADER, resetIn(60)));
+
+        assertEquals(100, governor.getLimit());
+        assertEquals(10, governor.getRemaining());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, governor.reserve());
+        }
+        assertEquals(0, governor.getThrottledRequests());
+    }
+
+    @Test
+    public void testPacingBelowLowWatermark() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(200, RateLimitGovernor.RATE_LIMIT_LIMIT_HEADER, "100",
+                RateLimitGovernor.RATE_LIMIT_REMAINING_HEADER, "5",
+                RateLimitGovernor.RATE_LIMIT_RESET_HEADER, resetIn(10)));
+
+        // 5 requests left for the 9 to 10 seconds until the reset, so one every ~2 seconds
+        long first = governor.reserve();
+        long second = governor.reserve();
+        long third = governor.reserve();
+
+        assertEquals(0, first);
+        assertTrue("second=" + second, second >= 1700 && second <= 2000);
+        assertTrue("third=" + third, third - second >= 1700 && third - second <= 2000);
+        assertEquals(2, governor.getThrottledRequests());
+        assertEquals(second + third, governor.getThrottledMillis());
+    }
+
+    @Test
+    public void testRetryAfterBlocksRequests() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        long before = System.currentTimeMillis();
+        governor.update(response(429, RateLimitGovernor.RETRY_AFTER_HEADER, "2"));
+
+        assertEquals(1, governor.getRateLimitedResponses());
+        assertTrue(governor.getBlockedUntil() >= before + 2000);
+        long delay = governor.reserve();
+        assertTrue("delay=" + delay, delay > 1500 && delay <= 2000);
+        assertEquals(1, governor.getThrottledRequests());
+    }
+
+    @Test
+    public void testRetryAfterWithoutRateLimitStatus() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(503, RateLimitGovernor.RETRY_AFTER_HEADER, "1"));
+
+        assertEquals(0, governor.getRateLimitedResponses());
+        long delay = governor.reserve();
+        assertTrue("delay=" + delay, delay > 500 && delay <= 1000);
+    }
+
+    @Test
+    public void testRateLimitedWithoutRetryAfterWaitsForReset() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(429, RateLimitGovernor.RATE_LIMIT_RESET_HEADER, resetIn(5)));
+
+        assertEquals(1, governor.getRateLimitedResponses());
+        assertEquals(governor.getResetAt(), governor.getBlockedUntil());
+        long delay = governor.reserve();
+        assertTrue("delay=" + delay, delay > 3500 && delay <= 5000);
+    }
+
+    @Test
+    public void testRateLimitedWithoutAnyHeaderDoesNotBlock() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(429));
+
+        assertEquals(1, governor.getRateLimitedResponses());
+        assertEquals(0, governor.getBlockedUntil());
+        assertEquals(0, governor.reserve());
+    }
+
+    @Test
+    public void testNoBudgetLeftWaitsForReset() {
+
+        RateLimitGovernor governor = new RateLimitGovernor();
+        governor.update(response(200, RateLimitGovernor.RATE_LIMIT_LIMIT_HEADER, "100",
+                RateLimitGovernor.RATE_LIMIT_REMAINING_HEADER, "0",
+                RateLimitGovernor.RATE_LIMIT_RESET_HEADER, resetIn(3)));
+
+        assertEquals(0, governor.getRateLimitedResponses());
+        assertEquals(governor.getResetAt(), governor.getBlockedUntil());
+        long delay = governor.reserve();
+        assertTrue("delay=" + delay, delay > 1500 && delay <= 3000);
+    }
+
+    @Test
+    public void testShouldRetry() {
+
+        RateLimitGovernor governor = new RateLimitGovernor(2, 100, 1000, 0.1);
+
+        assertFalse(governor.shouldRetry(200, 0));
+        assertFalse(governor.shouldRetry(404, 0));
+        assertFalse(governor.shouldRetry(501, 0));
+        assertEquals(0, governor.getRetries());
+
+        assertTrue(governor.shouldRetry(429, 0));
+        assertTrue(governor.shouldRetry(500, 0));
+        assertTrue(governor.shouldRetry(502, 1));
+        assertTrue(governor.shouldRetry(503, 0));
+        assertTrue(governor.shouldRetry(504, 1));
+        assertEquals(5, governor.getRetries());
+
+        assertFalse(governor.shouldRetry(503, 2));
+        assertFalse(governor.shouldRetry(429, 3));
+        assertEquals(5, governor.getRetries());
+        assertEquals(2, governor.getRetriesExhausted());
+
+        // Statuses that are never retried do not count as exhausted
+        assertFalse(governor.shouldRetry(404, 2));
+        assertEquals(2, governor.getRetriesExhausted());
+    }
+
+    @Test
+    public void testBackoffBounds() {
+
+        RateLimitGovernor governor = new RateLimitGovernor(3, 100, 1000, 0.1);
+        for (int attempt = 0; attempt <= 40; attempt++) {
+            long ceiling = Math.min(1000, 100L << Math.min(attempt, 30));
+            long max = 0;
+            for (int i = 0; i < 200; i++) {
+                long backoff = governor.backoff(attempt);
+                assertTrue("attempt=" + attempt + ", backoff=" + backoff, backoff >= 0 && backoff <= ceiling);
+                max = Math.max(max, backoff);
+            }
+            assertTrue("The backoff is jittered over the whole range", max > ceiling / 2);
+        }
+
+        assertEquals(0, new RateLimitGovernor(3, 0, 1000, 0.1).backoff(5));
+    }
+
+    @Test
+    public void testOnlyGetRequestsAreRetried() throws Exception {
+
+        StubGitLabServer server = new StubGitLabServer();
+        GitLabApi api = new GitLabApi(server.getUrl(), "token");
+        try {
+            RateLimitGovernor governor = new RateLimitGovernor(2, 1, 5, 0.1);
+            api.setRateLimitGovernor(governor);
+            server.setResponder(new StubGitLabServer.Responder() {
+                @Override
+                public void respond(HttpExchange exchange) throws IOException {
+                    StubGitLabServer.reply(exchange, 503, "{\"message\":\"unavailable\"}");
+                }
+            });
+
+            try {
+                api.getProjectApi().getProject(1);
+                fail("Expected a GitLabApiException");
+            } catch (GitLabApiException e) {
+                assertEquals(503, e.getHttpStatus());
+            }
+
+            List<StubGitLabServer.Request> requests = server.getRequests();
+            assertEquals("The GET is sent once and retried twice", 3, requests.size());
+            for (StubGitLabServer.Request request : requests) {
+                assertEquals("GET", request.getMethod());
+            }
+            assertEquals(2, governor.getRetries());
+            assertEquals(1, governor.getRetriesExhausted());
+
+            server.clearRequests();
+            try {
+                api.getUserApi().blockUser(1);
+                fail("Expected a GitLabApiException");
+            } catch (GitLabApiException e) {
+                assertEquals(503, e.getHttpStatus());
+            }
+
+            try {
+                api.getProjectApi().deleteProject(1);
+                fail("Expected a GitLabApiException");
+            } catch (GitLabApiException e) {
+                assertEquals(503, e.getHttpStatus());
+            }
+
+            requests = server.getRequests();
+            assertEquals("POST and DELETE are not retried", 2, requests.size());
+            assertEquals("POST", requests.get(0).getMethod());
+            assertEquals("DELETE", requests.get(1).getMethod());
+            assertEquals(2, governor.getRetries());
+
+        } finally {
+            api.close();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testGetSucceedsAfterRetry() throws Exception {
+
+        StubGitLabServer server = new StubGitLabServer();
+        GitLabApi api = new GitLabApi(server.getUrl(), "token");
+        try {
+            RateLimitGovernor governor = new RateLimitGovernor(3, 1, 5, 0.1);
+            api.setRateLimitGovernor(governor);
+            final AtomicInteger count = new AtomicInteger();
+            server.setResponder(new StubGitLabServer.Responder() {
+                @Override
+                public void respond(HttpExchange exchange) throws IOException {
+                    if (count.incrementAndGet() == 1) {
+                        StubGitLabServer.reply(exchange, 429, "{\"message\":\"429 Too Many Requests\"}",
+                                RateLimitGovernor.RETRY_AFTER_HEADER, "1");
+                    } else {
+                        StubGitLabServer.reply(exchange, 200, "{\"id\":1,\"name\":\"project\"}");
+                    }
+                }
+            });
+
+            long start = System.currentTimeMillis();
+            Project project = api.getProjectApi().getProject(1);
+
+            assertEquals(Integer.valueOf(1), project.getId());
+            assertEquals(2, server.getRequests().size());
+            assertTrue("The retry waits for Retry-After", System.currentTimeMillis() - start >= 900);
+            assertEquals(1, governor.getRetries());
+            assertEquals(1, governor.getRateLimitedResponses());
+            assertEquals(1, governor.getThrottledRequests());
+
+        } finally {
+            api.close();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testAsyncCallsArePacedWithoutBlocking() throws Exception {
+
+        StubGitLabServer server = new StubGitLabServer();
+        GitLabApi api = new GitLabApi(server.getUrl(), "token");
+        try {
+            RateLimitGovernor governor = new RateLimitGovernor();
+            api.setRateLimitGovernor(governor);
+            final List<Long> receivedAt = new CopyOnWriteArrayList<Long>();
+            server.setResponder(new StubGitLabServer.Responder() {
+                @Override
+                public void respond(HttpExchange exchange) throws IOException {
+                    receivedAt.add(System.currentTimeMillis());
+                    StubGitLabServer.reply(exchange, 200, "{\"id\":1,\"name\":\"project\"}",
+                            RateLimitGovernor.RETRY_AFTER_HEADER, "1");
+                }
+            });
+
+            api.getProjectApi().getProject(1);
+            long blockedUntil = governor.getBlockedUntil();
+
+            long start = System.currentTimeMillis();
+            CompletableFuture<Project> future = api.getProjectApi().getProjectAsync(1);
+            assertTrue("The caller is not blocked", System.currentTimeMillis() - start < 500);
+
+            Project project = future.get(5, TimeUnit.SECONDS);
+            assertEquals(Integer.valueOf(1), project.getId());
+            assertEquals(2, receivedAt.size());
+            assertTrue("The async request is held back until Retry-After is over", receivedAt.get(1) >= blockedUntil - 50);
+            assertEquals(1, governor.getThrottledRequests());
+
+        } finally {
+            api.close();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gitlab4j.api.Constants.TokenType;
+import org.gitlab4j.api.models.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestCoalescerTest {
+
+    private static final int WAITERS = 7;
+
+    private RequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    /**
+     * A call that blocks until released, then returns its result or throws its failure.
+     */
+    private static class LatchedCall implements RequestCoalescer.Call<Object> {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Object result;
+        private final Exception failure;
+
+        private LatchedCall(Object result, Exception failure) {
+            this.result = result;
+            this.failure = failure;
+        }
+
+        @Override
+        public Object call() throws GitLabApiException {
+
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new GitLabApiException(e);
+            }
+
+            if (failure instanceof GitLabApiException) {
+                throw (GitLabApiException) failure;
+            } else if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+
+            return (result);
+        }
+    }
+
+    @Before
+    public void setup() {
+        coalescer = new RequestCoalescer();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private Future<Object> submit(final String key, final RequestCoalescer.Call<Object> call) {
+        return (executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return (coalescer.execute(key, call));
+            }
+        }));
+    }
+
+    /**
+     * Starts the leader and the waiters for the key, and releases the leader once all waiters joined it.
+     */
+    private List<Future<Object>> runCoalesced(String key, LatchedCall call) throws Exception {
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        futures.add(submit(key, call));
+        assertTrue(call.started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < WAITERS; i++) {
+            futures.add(submit(key, call));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalescer.getCoalesced() < WAITERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(WAITERS, coalescer.getCoalesced());
+        assertEquals(1, coalescer.getInFlight());
+        call.release.countDown();
+        return (futures);
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsShareOneResult() throws Exception {
+
+        Object result = new Object();
+        LatchedCall call = new LatchedCall(result, null);
+        List<Future<Object>> futures = runCoalesced("projects/1", call);
+
+        for (Future<Object> future : futures) {
+            assertSame(result, future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, call.calls.get());
+        assertEquals(1, coalescer.getRequests());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    public void testLeaderFailureReachesEveryWaiter() throws Exception {
+
+        GitLabApiException failure = new GitLabApiException("404 Project Not Found");
+        LatchedCall call = new LatchedCall(null, failure);
+        List<Future<Object>> futures = runCoalesced("projects/1", call);
+
+        for (Future<Object> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected a GitLabApiException");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+
+        assertEquals(1, call.calls.get());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    public void testLeaderRuntimeExceptionReachesEveryWaiter() throws Exception {
+
+        IllegalStateException failure = new IllegalStateException("Client instance has been closed");
+        LatchedCall call = new LatchedCall(null, failure);
+        List<Future<Object>> futures = runCoalesced("projects/1", call);
+
+        for (Future<Object> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected an IllegalStateException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertSame(failure, e.getCause());
+            }
+        }
+
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    public void testKeyIsRemovedAfterSuccessAndFailure() throws Exception {
+
+        final AtomicInteger calls = new AtomicInteger();
+        RequestCoalescer.Call<Object> success = new RequestCoalescer.Call<Object>() {
+            @Override
+            public Object call() {
+                return (calls.incrementAndGet());
+            }
+        };
+
+        assertEquals(1, coalescer.execute("projects/1", success));
+        assertEquals(0, coalescer.getInFlight());
+        assertEquals("Nothing is kept once the request is done", 2, coalescer.execute("projects/1", success));
+
+        RequestCoalescer.Call<Object> failing = new RequestCoalescer.Call<Object>() {
+            @Override
+            public Object call() throws GitLabApiException {
+                calls.incrementAndGet();
+                throw new GitLabApiException("500 Internal Server Error");
+            }
+        };
+
+        try {
+            coalescer.execute("projects/1", failing);
+            fail("Expected a GitLabApiException");
+        } catch (GitLabApiException expected) {
+        }
+
+        assertEquals(0, coalescer.getInFlight());
+        assertEquals(4, coalescer.execute("projects/1", success));
+        assertEquals(4, coalescer.getRequests());
+        assertEquals(0, coalescer.getCoalesced());
+    }
+
+    @Test
+    public void testDifferentAuthContextsAreNotCoalesced() throws Exception {
+
+        GitLabApiClient client = new GitLabApiClient("http://localhost", "token-a");
+        GitLabApiClient sameToken = new GitLabApiClient("http://localhost", "token-a");
+        GitLabApiClient otherToken = client.withAuthToken(TokenType.PRIVATE, "token-b");
+        GitLabApiClient accessToken = client.withAuthToken(TokenType.ACCESS, "token-a");
+        GitLabApiClient sudo = client.withSudoAsId(2);
+
+        String type = Project.class.getName();
+        String key = client.getRequestKey(type, null, "projects", 1);
+        assertEquals(key, sameToken.getRequestKey(type, null, "projects", 1));
+        assertNotEquals(key, otherToken.getRequestKey(type, null, "projects", 1));
+        assertNotEquals(key, accessToken.getRequestKey(type, null, "projects", 1));
+        assertNotEquals(key, sudo.getRequestKey(type, null, "projects", 1));
+        assertFalse("The key must not hold the token", key.contains("token-a"));
+
+        // A call of another auth context sends its own request while the first one is in flight
+        LatchedCall first = new LatchedCall("a", null);
+        Future<Object> firstResult = submit(key, first);
+        assertTrue(first.started.await(5, TimeUnit.SECONDS));
+
+        LatchedCall second = new LatchedCall("b", null);
+        Future<Object> secondResult = submit(otherToken.getRequestKey(type, null, "projects", 1), second);
+        assertTrue(second.started.await(5, TimeUnit.SECONDS));
+        assertEquals(2, coalescer.getInFlight());
+
+        first.release.countDown();
+        second.release.countDown();
+        assertEquals("a", firstResult.get(5, TimeUnit.SECONDS));
+        assertEquals("b", secondResult.get(5, TimeUnit.SECONDS));
+        assertEquals(2, coalescer.getRequests());
+        assertEquals(0, coalescer.getCoalesced());
+        assertEquals(0, coalescer.getInFlight());
+    }
+}
@@ -0,0 +1,217 @@
+package org.gitlab4j.api;
+
+/*
+ *   The MIT License (MIT)
+ *
+ *   Copyright (c) 2017 Greg Messner <greg@messners.com>
+ *
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy of
+ *   this software and associated documentation files (the "Software"), to deal in
+ *   the Software without restriction, including without limitation the rights to
+ *   use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ *   the Software, and to permit persons to whom the Software is furnished to do so,
+ *   subject to the following conditions:
+ *
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *   FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ *   COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ *   IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in for a GitLab server, backed by the JDK HttpServer and listening on a free loopback port.
+ * Every request is recorded and answered by the current {@link Responder}, which tests swap as needed.
+ */
+class StubGitLabServer {
+
+    /**
+     * Answers one request, see {@link StubGitLabServer#reply(HttpExchange, int, String, String...)}.
+     */
+    interface Responder {
+        void respond(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * A request received by the server.
+     */
+    static class Request {
+
+        private final String method;
+        private final String uri;
+        private final Headers headers;
+        private final String body;
+        private final int remotePort;
+
+        private Request(String method, String uri, Headers headers, String body, int remotePort) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.body = body;
+            this.remotePort = remotePort;
+        }
+
+        String getMethod() {
+            return (method);
+        }
+
+        String getUri() {
+            return (uri);
+        }
+
+        String getHeader(String name) {
+            return (headers.getFirst(name));
+        }
+
+        String getBody() {
+            return (body);
+        }
+
+        int getRemotePort() {
+            return (remotePort);
+        }
+
+        @Override
+        public String toString() {
+            return (method + " " + uri);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Request> requests = new CopyOnWriteArrayList<Request>();
+    private volatile Responder responder;
+
+    StubGitLabServer() throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    String body = read(exchange.getRequestBody());
+                    requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                            exchange.getRequestHeaders(), body, exchange.getRemoteAddress().getPort()));
+                    Responder current = responder;
+                    if (current == null) {
+                        reply(exchange, 404, "{\"message\":\"404 Not Found\"}");
+                    } else {
+                        current.respond(exchange);
+                    }
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+
+        server.start();
+    }
+
+    /**
+     * Get the URL to give to GitLabApi or GitLabTransport.
+     *
+     * @return the URL of the server, without the API namespace
+     */
+    String getUrl() {
+        return ("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    void setResponder(Responder responder) {
+        this.responder = responder;
+    }
+
+    List<Request> getRequests() {
+        return (new ArrayList<Request>(requests));
+    }
+
+    Request getLastRequest() {
+        return (requests.isEmpty() ? null : requests.get(requests.size() - 1));
+    }
+
+    /**
+     * Get the client ports the requests came from, each port is one client connection.
+     *
+     * @return the client ports in the order they were first seen
+     */
+    Set<Integer> getRemotePorts() {
+        Set<Integer> ports = new LinkedHashSet<Integer>();
+        for (Request request : requests) {
+            ports.add(request.getRemotePort());
+        }
+        return (ports);
+    }
+
+    void clearRequests() {
+        requests.clear();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends a JSON response. The body is sent with a Content-Length so the connection can be kept alive,
+     * a null body sends no entity at all, as for 204 and 304.
+     *
+     * @param exchange the exchange to answer
+     * @param status   the HTTP status
+     * @param body     the JSON body, may be null
+     * @param headers  header names and values, alternating
+     * @throws IOException if the response cannot be written
+     */
+    static void reply(HttpExchange exchange, int status, String body, String... headers) throws IOException {
+
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return (new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -1,9 +1,18 @@
 package io.choerodon.asgard;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.choerodon.asgard.common.ApplicationContextHelper;
+import io.choerodon.asgard.common.AsgardBulkheadEndpoint;
+import io.choerodon.asgard.common.AsgardBulkheads;
+import io.choerodon.asgard.common.AsgardExecutors;
+import io.choerodon.asgard.common.diagnostic.AsgardDiagnosticsEndpoint;
+import io.choerodon.asgard.common.diagnostic.InFlightRegistry;
+import io.choerodon.asgard.common.index.AsgardAnnotationScanner;
 import io.choerodon.asgard.property.PropertyData;
 import io.choerodon.asgard.property.PropertyDataProcessor;
 import io.choerodon.asgard.property.PropertyEndpoint;
+import io.choerodon.asgard.saga.SagaPayloadCodec;
 import io.choerodon.asgard.saga.SagaProperties;
 import io.choerodon.asgard.saga.consumer.SagaConsumer;
 import io.choerodon.asgard.saga.consumer.SagaTaskProcessor;
@@ -11,18 +20,28 @@ import io.choerodon.asgard.saga.feign.SagaClient;
 import io.choerodon.asgard.saga.feign.SagaClientCallback;
 import io.choerodon.asgard.saga.feign.SagaConsumerClient;
 import io.choerodon.asgard.saga.producer.ProducerBackCheckEndpoint;
+import io.choerodon.asgard.saga.producer.SagaIdGenerator;
+import io.choerodon.asgard.saga.producer.TimeOrderedSagaIdGenerator;
 import io.choerodon.asgard.saga.producer.TransactionalProducer;
 import io.choerodon.asgard.saga.producer.TransactionalProducerImpl;
 import io.choerodon.asgard.saga.producer.consistency.SagaProducerConsistencyHandler;
 import io.choerodon.asgard.saga.producer.consistency.SagaProducerDbConsistencyHandler;
 import io.choerodon.asgard.saga.producer.consistency.SagaProducerMemoryConsistencyHandler;
+import io.choerodon.asgard.saga.trace.LoggingSagaTimingListener;
+import io.choerodon.asgard.saga.trace.SagaTimingListener;
 import io.choerodon.asgard.schedule.JobTaskProcessor;
 import io.choerodon.asgard.schedule.ScheduleConsumer;
 import io.choerodon.asgard.schedule.ScheduleProperties;
+import io.choerodon.asgard.schedule.local.DbTimedTaskLease;
+import io.choerodon.asgard.schedule.local.LocalTimedTaskScheduler;
+import io.choerodon.asgard.schedule.local.MemoryTimedTaskLease;
+import io.choerodon.asgard.schedule.local.TimedTaskLease;
 import io.choerodon.asgard.schedule.feign.ScheduleConsumerClient;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -37,6 +56,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import javax.sql.DataSource;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 
 @Configuration
@@ -65,14 +86,30 @@ public class AsgardAutoConfiguration {
         return InetAddress.getLocalHost().getHostAddress() + ":" + service + ":" + environment.getProperty("server.port");
     }
 
+    /**
+     * 开启后带索引的jar或目录中只扫描编译期注解索引中的类，编译时未启用注解处理器的模块仍完整扫描
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "choerodon.asgard", name = "annotationIndexEnabled")
+    public static BeanFactoryPostProcessor asgardAnnotationIndexLoader() {
+        return beanFactory -> AsgardAnnotationScanner.loadIndex(beanFactory.getBeanClassLoader());
+    }
+
     @Bean
-    public PropertyDataProcessor propertyDataProcessor() {
-        return new PropertyDataProcessor(propertyData());
+    public PropertyDataProcessor propertyDataProcessor(@Value("${choerodon.asgard.schemaFormat:EXAMPLE}") PropertyDataProcessor.SchemaFormat schemaFormat) {
+        PropertyDataProcessor processor = new PropertyDataProcessor(propertyData());
+        processor.setSchemaFormat(schemaFormat);
+        return processor;
     }
 
     @Bean
-    public PropertyEndpoint propertyEndpoint() {
-        return new PropertyEndpoint(propertyData());
+    public PropertyEndpoint propertyEndpoint(ObjectProvider<ObjectMapper> objectMapper) {
+        PropertyEndpoint endpoint = new PropertyEndpoint(propertyData());
+        ObjectMapper mapper = objectMapper.getIfUnique();
+        if (mapper != null) {
+            endpoint.setObjectMapper(mapper);
+        }
+        return endpoint;
     }
 
     @Bean
@@ -80,6 +117,55 @@ public class AsgardAutoConfiguration {
         return new SagaClientCallback();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public SagaPayloadCodec sagaPayloadCodec(SagaProperties sagaProperties) {
+        SagaProperties.Producer producer = sagaProperties.getProducer();
+        return new SagaPayloadCodec(Boolean.TRUE.equals(producer.getPayloadCompressEnabled()),
+                producer.getPayloadCompressThreshold());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SagaTimingListener sagaTimingListener() {
+        return new LoggingSagaTimingListener();
+    }
+
+    /**
+     * 开启后记录正在执行的任务调用，并采样慢调用的调用栈
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "choerodon.asgard", name = "diagnosticsEnabled")
+    public InFlightRegistry asgardInFlightRegistry(@Value("${choerodon.asgard.diagnosticsSlowThresholdMs:30000}") long slowThresholdMs,
+                                                   @Value("${choerodon.asgard.diagnosticsSampleIntervalMs:5000}") long sampleIntervalMs) {
+        return new InFlightRegistry(slowThresholdMs, sampleIntervalMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "choerodon.asgard", name = "diagnosticsEnabled")
+    public AsgardDiagnosticsEndpoint asgardDiagnosticsEndpoint(InFlightRegistry inFlightRegistry) {
+        return new AsgardDiagnosticsEndpoint(inFlightRegistry);
+    }
+
+    /**
+     * 与任务诊断一同开启
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "choerodon.asgard", name = "diagnosticsEnabled")
+    public AsgardBulkheadEndpoint asgardBulkheadEndpoint(ObjectProvider<SagaConsumer> sagaConsumer,
+                                                         ObjectProvider<ScheduleConsumer> scheduleConsumer) {
+        Map<String, AsgardBulkheads> bulkheads = new LinkedHashMap<>();
+        SagaConsumer saga = sagaConsumer.getIfAvailable();
+        if (saga != null) {
+            bulkheads.put("saga", saga.getBulkheads());
+        }
+        ScheduleConsumer schedule = scheduleConsumer.getIfAvailable();
+        if (schedule != null) {
+            bulkheads.put("schedule", schedule.getBulkheads());
+        }
+        return new AsgardBulkheadEndpoint(bulkheads);
+    }
+
     @ConditionalOnProperty(prefix = "choerodon.schedule.consumer", name = "enabled")
     static class ScheduleConsumerConfig {
 
@@ -104,13 +190,16 @@ public class AsgardAutoConfiguration {
 
         @Bean(name = "scheduleExecutor")
         public Executor scheduleExecutor() {
-            int coreSize = scheduleProperties.getCoreThreadNum();
-            if (coreSize <= 0) {
-                return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
-                        new SynchronousQueue<>());
-            }
-            return new ThreadPoolExecutor(coreSize, scheduleProperties.getMaxThreadNum(), 60L, TimeUnit.SECONDS,
-                    new LinkedBlockingDeque<>(99999), new ThreadPoolExecutor.AbortPolicy());
+            return AsgardExecutors.create("asgard-schedule", scheduleProperties.getCoreThreadNum(),
+                    scheduleProperties.getMaxThreadNum(),
+                    Boolean.TRUE.equals(scheduleProperties.getVirtualThreadEnabled()),
+                    scheduleProperties.getVirtualThreadMaxConcurrency());
+        }
+
+        @Bean(name = "scheduleBulkheads")
+        public AsgardBulkheads scheduleBulkheads() {
+            return AsgardBulkheads.create("asgard-schedule", scheduleExecutor(), scheduleProperties.getBulkheads(),
+                    Boolean.TRUE.equals(scheduleProperties.getVirtualThreadEnabled()));
         }
 
         @Bean
@@ -118,14 +207,56 @@ public class AsgardAutoConfiguration {
                                                 DataSourceTransactionManager transactionManager,
                                                 ApplicationContextHelper contextHelper,
                                                 @Qualifier("instance") String instance,
-                                                ScheduleProperties properties) {
+                                                ScheduleProperties properties,
+                                                ObjectProvider<InFlightRegistry> inFlightRegistry) {
             ScheduleConsumer scheduleConsumer = new ScheduleConsumer(service, instance, transactionManager,
                     scheduleExecutor(), scheduledExecutorService(), contextHelper, properties.getPollIntervalMs());
             scheduleConsumer.setScheduleConsumerClient(consumerClient);
+            scheduleConsumer.setInFlightRegistry(inFlightRegistry.getIfAvailable());
+            scheduleConsumer.setBulkheads(scheduleBulkheads());
             return scheduleConsumer;
         }
     }
 
+    /**
+     * 本地触发定时任务，默认使用db租约保证多实例下每次触发只执行一次
+     */
+    @ConditionalOnProperty(prefix = "choerodon.schedule.consumer", name = {"enabled", "localTimedTaskEnabled"})
+    static class LocalTimedTaskConfig {
+
+        /**
+         * 内存租约不能跨实例互斥，只执行一次的任务重启后也会再次执行，仅在显式配置memory时用于单实例部署
+         */
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "choerodon.schedule.consumer", name = "localTimedTaskLeaseType", havingValue = "memory")
+        @Bean
+        public MemoryTimedTaskLease memoryTimedTaskLease() {
+            return new MemoryTimedTaskLease();
+        }
+
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "choerodon.schedule.consumer", name = "localTimedTaskLeaseType", havingValue = "db", matchIfMissing = true)
+        @Bean
+        public DbTimedTaskLease dbTimedTaskLease(ObjectProvider<DataSource> dataSource) {
+            DataSource leaseDataSource = dataSource.getIfAvailable();
+            if (leaseDataSource == null) {
+                throw new IllegalStateException("local timed task requires a DataSource for the db lease, "
+                        + "or set choerodon.schedule.consumer.local-timed-task-lease-type=memory for a single instance deployment");
+            }
+            return new DbTimedTaskLease(leaseDataSource);
+        }
+
+        @Bean
+        public LocalTimedTaskScheduler localTimedTaskScheduler(PropertyData propertyData,
+                                                               ScheduleConsumer scheduleConsumer,
+                                                               TimedTaskLease timedTaskLease,
+                                                               @Qualifier("instance") String instance,
+                                                               ScheduleProperties properties) {
+            return new LocalTimedTaskScheduler(propertyData, scheduleConsumer, timedTaskLease, instance,
+                    properties.getLocalTimedTaskMinLeaseMs());
+        }
+    }
+
     @ConditionalOnProperty(prefix = "choerodon.saga.consumer", name = "enabled")
     static class SagaConsumerConfig {
 
@@ -145,13 +276,16 @@ public class AsgardAutoConfiguration {
 
         @Bean(name = "sagaExecutor")
         public Executor sagaExecutor() {
-            int coreSize = sagaProperties.getConsumer().getCoreThreadNum();
-            if (coreSize <= 0) {
-                return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
-                        new SynchronousQueue<>());
-            }
-            return new ThreadPoolExecutor(coreSize, sagaProperties.getConsumer().getMaxThreadNum(), 60L, TimeUnit.SECONDS,
-                    new LinkedBlockingDeque<>(99999), new ThreadPoolExecutor.AbortPolicy());
+            SagaProperties.Consumer consumer = sagaProperties.getConsumer();
+            return AsgardExecutors.create("asgard-saga", consumer.getCoreThreadNum(), consumer.getMaxThreadNum(),
+                    Boolean.TRUE.equals(consumer.getVirtualThreadEnabled()), consumer.getVirtualThreadMaxConcurrency());
+        }
+
+        @Bean(name = "sagaBulkheads")
+        public AsgardBulkheads sagaBulkheads() {
+            SagaProperties.Consumer consumer = sagaProperties.getConsumer();
+            return AsgardBulkheads.create("asgard-saga", sagaExecutor(), consumer.getBulkheads(),
+                    Boolean.TRUE.equals(consumer.getVirtualThreadEnabled()));
         }
 
         @Bean
@@ -164,11 +298,20 @@ public class AsgardAutoConfiguration {
         public SagaConsumer sagaMonitor(SagaConsumerClient sagaConsumerClient,
                                         @Qualifier("instance") String instance,
                                         DataSourceTransactionManager transactionManager,
-                                        ApplicationContextHelper contextHelper) {
+                                        ApplicationContextHelper contextHelper,
+                                        SagaPayloadCodec payloadCodec,
+                                        SagaTimingListener timingListener,
+                                        SagaTaskProcessor sagaTaskProcessor,
+                                        ObjectProvider<InFlightRegistry> inFlightRegistry) {
             SagaConsumer sagaConsumer = new SagaConsumer(service, instance, transactionManager, sagaExecutor(),
                     sagaScheduledExecutorService(), contextHelper, sagaProperties.getConsumer().getPollIntervalMs());
             sagaConsumer.setConsumerClient(sagaConsumerClient);
             sagaConsumer.setProperties(sagaProperties);
+            sagaConsumer.setPayloadCodec(payloadCodec);
+            sagaConsumer.setTimingListener(timingListener);
+            sagaConsumer.setLocalSagaCodes(sagaTaskProcessor.getSagaCodes());
+            sagaConsumer.setInFlightRegistry(inFlightRegistry.getIfAvailable());
+            sagaConsumer.setBulkheads(sagaBulkheads());
             return sagaConsumer;
         }
 
@@ -205,11 +348,28 @@ public class AsgardAutoConfiguration {
             return new ProducerBackCheckEndpoint(handler);
         }
 
+        @Bean
+        @ConditionalOnMissingBean
+        public SagaIdGenerator sagaIdGenerator() {
+            return new TimeOrderedSagaIdGenerator();
+        }
+
         @Bean
         public TransactionalProducer transactionalProducer(PlatformTransactionManager transactionManager,
                                                            SagaProducerConsistencyHandler consistencyHandler,
-                                                           SagaClient sagaClient) {
-            return new TransactionalProducerImpl(transactionManager, consistencyHandler, sagaClient, service);
+                                                           SagaClient sagaClient,
+                                                           SagaPayloadCodec payloadCodec,
+                                                           SagaIdGenerator idGenerator,
+                                                           SagaProperties sagaProperties,
+                                                           ObjectProvider<SagaConsumer> sagaConsumer,
+                                                           SagaTimingListener timingListener) {
+            TransactionalProducerImpl producer = new TransactionalProducerImpl(transactionManager, consistencyHandler, sagaClient, service);
+            producer.setPayloadCodec(payloadCodec);
+            producer.setIdGenerator(idGenerator);
+            producer.setBatchRequestEnabled(Boolean.TRUE.equals(sagaProperties.getProducer().getBatchRequestEnabled()));
+            producer.setLocalConsumer(sagaConsumer.getIfAvailable());
+            producer.setTimingListener(timingListener);
+            return producer;
         }
     }
 
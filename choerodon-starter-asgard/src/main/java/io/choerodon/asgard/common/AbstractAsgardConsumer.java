@@ -2,7 +2,10 @@ package io.choerodon.asgard.common;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.choerodon.asgard.common.diagnostic.InFlightInvocation;
+import io.choerodon.asgard.common.diagnostic.InFlightRegistry;
 import io.choerodon.asgard.saga.consumer.MockHttpServletRequest;
+import io.choerodon.asgard.saga.trace.SagaTraceContext;
 import io.choerodon.core.oauth.CustomUserDetails;
 
 import org.slf4j.Logger;
@@ -26,6 +29,7 @@ import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class AbstractAsgardConsumer {
 
@@ -43,9 +47,16 @@ public abstract class AbstractAsgardConsumer {
 
     protected final Executor executor;
 
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private final AtomicBoolean pollTriggered = new AtomicBoolean(false);
 
     private final ApplicationContextHelper applicationContextHelper;
 
+    private InFlightRegistry inFlightRegistry;
+
+    private AsgardBulkheads bulkheads;
+
     public AbstractAsgardConsumer(String service, String instance,
                                   PlatformTransactionManager transactionManager,
                                   Executor executor, ScheduledExecutorService scheduledExecutorService,
@@ -56,6 +67,7 @@ public abstract class AbstractAsgardConsumer {
         this.transactionManager = transactionManager;
         this.executor = executor;
         this.applicationContextHelper = applicationContextHelper;
+        this.scheduledExecutorService = scheduledExecutorService;
         scheduledExecutorService.scheduleWithFixedDelay(() -> {
             try {
                 scheduleRunning(instance);
@@ -68,6 +80,62 @@ public abstract class AbstractAsgardConsumer {
 
     protected abstract void scheduleRunning(String instance);
 
+    public void setInFlightRegistry(InFlightRegistry inFlightRegistry) {
+        this.inFlightRegistry = inFlightRegistry;
+    }
+
+    public void setBulkheads(AsgardBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public AsgardBulkheads getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * @param bulkhead 注解中指定的线程池名
+     * @return 执行任务的线程池，未配置隔离线程池时为默认线程池
+     */
+    protected Executor executorFor(String bulkhead) {
+        return bulkheads == null ? executor : bulkheads.get(bulkhead);
+    }
+
+    /**
+     * 在当前线程登记一次任务调用，未开启诊断时返回null
+     */
+    protected InFlightInvocation startInvocation(String type, String code, Long id) {
+        return inFlightRegistry == null ? null : inFlightRegistry.start(type, code, id);
+    }
+
+    protected void finishInvocation(InFlightInvocation invocation) {
+        if (invocation != null) {
+            inFlightRegistry.finish(invocation);
+        }
+    }
+
+    /**
+     * 立即触发一次拉取，不影响固定间隔的拉取
+     * 在同一个调度线程上执行，与定时拉取串行；已有未执行的触发时合并为一次
+     */
+    public void triggerPoll() {
+        if (!pollTriggered.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduledExecutorService.execute(() -> {
+                pollTriggered.set(false);
+                try {
+                    scheduleRunning(instance);
+                } catch (Exception e) {
+                    LOGGER.warn("error.asgard.triggerPoll, msg: {}", e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            pollTriggered.set(false);
+            throw e;
+        }
+    }
+
 
     protected void beforeInvoke(CustomUserDetails customUserDetails) {
         if (customUserDetails == null) {
@@ -87,8 +155,17 @@ public abstract class AbstractAsgardConsumer {
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
+    /**
+     * 设置用户上下文，并将链路标识写入MDC
+     */
+    protected void beforeInvoke(CustomUserDetails customUserDetails, String traceparent) {
+        beforeInvoke(customUserDetails);
+        SagaTraceContext.restore(traceparent);
+    }
+
     protected void afterInvoke() {
         SecurityContextHolder.clearContext();
+        SagaTraceContext.clear();
     }
 
     protected PlatformTransactionManager getSagaTaskTransactionManager(final String transactionManagerName) {
@@ -0,0 +1,33 @@
+package io.choerodon.asgard.common;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查看saga、定时任务消费者各线程池的运行状态
+ */
+@RestController
+public class AsgardBulkheadEndpoint {
+
+    private Map<String, AsgardBulkheads> bulkheads;
+
+    /**
+     * @param bulkheads 消费者类型 -> 线程池
+     */
+    public AsgardBulkheadEndpoint(Map<String, AsgardBulkheads> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @GetMapping("/choerodon/asgard/bulkheads")
+    public Map<String, List<BulkheadStats>> bulkheads() {
+        Map<String, List<BulkheadStats>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, AsgardBulkheads> entry : bulkheads.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package io.choerodon.asgard.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 默认线程池和按名称隔离的线程池。@SagaTask、@JobTask通过executor指定线程池，
+ * 某类任务阻塞占满自己的线程池时不影响其他任务
+ */
+public class AsgardBulkheads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsgardBulkheads.class);
+
+    public static final String DEFAULT = "default";
+
+    private final Executor defaultExecutor;
+
+    private final Map<String, Executor> executors;
+
+    private final Set<String> unknownNames = ConcurrentHashMap.newKeySet();
+
+    public AsgardBulkheads(Executor defaultExecutor, Map<String, Executor> executors) {
+        this.defaultExecutor = defaultExecutor;
+        this.executors = Collections.unmodifiableMap(new LinkedHashMap<>(executors));
+    }
+
+    /**
+     * @param threadNamePrefix     线程名前缀，实际为前缀-线程池名
+     * @param defaultExecutor      默认线程池
+     * @param bulkheads            线程池名 -> 配置
+     * @param virtualThreadEnabled 是否使用虚拟线程
+     */
+    public static AsgardBulkheads create(String threadNamePrefix, Executor defaultExecutor,
+                                         Map<String, BulkheadProperties> bulkheads, boolean virtualThreadEnabled) {
+        Map<String, Executor> executors = new LinkedHashMap<>();
+        if (bulkheads != null) {
+            for (Map.Entry<String, BulkheadProperties> entry : bulkheads.entrySet()) {
+                BulkheadProperties properties = entry.getValue();
+                executors.put(entry.getKey(), AsgardExecutors.create(threadNamePrefix + "-" + entry.getKey(),
+                        properties.getCoreThreadNum(), properties.getMaxThreadNum(),
+                        virtualThreadEnabled, properties.getMaxThreadNum()));
+            }
+        }
+        return new AsgardBulkheads(defaultExecutor, executors);
+    }
+
+    public boolean isEmpty() {
+        return executors.isEmpty();
+    }
+
+    /**
+     * @param name 线程池名，为空或未配置时返回默认线程池
+     */
+    public Executor get(String name) {
+        if (StringUtils.isEmpty(name)) {
+            return defaultExecutor;
+        }
+        Executor executor = executors.get(name);
+        if (executor == null) {
+            if (unknownNames.add(name)) {
+                LOGGER.warn("asgard bulkhead {} is not configured, use default executor", name);
+            }
+            return defaultExecutor;
+        }
+        return executor;
+    }
+
+    /**
+     * @return 所有线程池还能立即开始执行的任务数之和
+     */
+    public int freeCapacity() {
+        long total = stats(DEFAULT, defaultExecutor).getFreeCapacity();
+        for (Map.Entry<String, Executor> entry : executors.entrySet()) {
+            total += stats(entry.getKey(), entry.getValue()).getFreeCapacity();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    public List<BulkheadStats> getStats() {
+        List<BulkheadStats> stats = new ArrayList<>(executors.size() + 1);
+        stats.add(stats(DEFAULT, defaultExecutor));
+        for (Map.Entry<String, Executor> entry : executors.entrySet()) {
+            stats.add(stats(entry.getKey(), entry.getValue()));
+        }
+        return stats;
+    }
+
+    private static BulkheadStats stats(String name, Executor executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            int active = pool.getActiveCount();
+            int queued = pool.getQueue().size();
+            int concurrency = concurrency(pool);
+            long free = (long) concurrency - active - queued;
+            return new BulkheadStats(name, "platform", concurrency, active, queued,
+                    pool.getCompletedTaskCount(), (int) Math.max(0, Math.min(Integer.MAX_VALUE, free)));
+        }
+        if (executor instanceof AsgardExecutors.VirtualThreadExecutor) {
+            AsgardExecutors.VirtualThreadExecutor virtual = (AsgardExecutors.VirtualThreadExecutor) executor;
+            int available = virtual.getAvailablePermits();
+            int queued = virtual.getQueueLength();
+            return new BulkheadStats(name, "virtual", virtual.getMaxConcurrency(), virtual.getMaxConcurrency() - available,
+                    queued, virtual.getCompletedCount(), Math.max(0, available - queued));
+        }
+        return new BulkheadStats(name, "unknown", -1, -1, -1, -1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 不排队即可执行任务的线程数。使用有界队列时，线程池在队列满之前不会超过核心线程数；
+     * 使用SynchronousQueue时才会增长到最大线程数
+     */
+    private static int concurrency(ThreadPoolExecutor pool) {
+        return pool.getQueue() instanceof SynchronousQueue ? pool.getMaximumPoolSize() : pool.getCorePoolSize();
+    }
+
+    /**
+     * 关闭隔离线程池，默认线程池由其自身的bean关闭。由spring作为销毁方法调用
+     */
+    public void shutdown() {
+        for (Executor executor : executors.values()) {
+            if (executor instanceof ExecutorService) {
+                ((ExecutorService) executor).shutdown();
+            } else if (executor instanceof AsgardExecutors.VirtualThreadExecutor) {
+                ((AsgardExecutors.VirtualThreadExecutor) executor).shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.choerodon.asgard.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 创建saga和定时任务消费者的执行线程池。
+ * <p>
+ * 运行在支持虚拟线程的JDK(21+)上且开启虚拟线程时，每个任务使用一个虚拟线程执行，
+ * 并发数由信号量限制；否则使用平台线程池。虚拟线程相关的API均通过反射调用，Java 8下可正常编译运行
+ */
+public final class AsgardExecutors {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsgardExecutors.class);
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    private AsgardExecutors() {
+    }
+
+    /**
+     * @return 当前运行时是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param name                 线程名前缀
+     * @param coreThreadNum        平台线程池核心线程数，小于等于0时不限制线程数
+     * @param maxThreadNum         平台线程池最大线程数
+     * @param virtualThreadEnabled 是否使用虚拟线程
+     * @param maxConcurrency       使用虚拟线程时同时执行的最大任务数
+     */
+    public static Executor create(String name, int coreThreadNum, int maxThreadNum,
+                                  boolean virtualThreadEnabled, int maxConcurrency) {
+        if (virtualThreadEnabled) {
+            if (isVirtualThreadSupported()) {
+                try {
+                    LOGGER.info("asgard executor {} use virtual threads, maxConcurrency: {}", name, maxConcurrency);
+                    return new VirtualThreadExecutor(newVirtualThreadExecutor(name + "-vt-"), maxConcurrency);
+                } catch (ReflectiveOperationException e) {
+                    LOGGER.warn("asgard executor {} create virtual thread executor failed, use platform threads", name, e);
+                }
+            } else {
+                LOGGER.warn("asgard executor {} virtual threads are not supported by java {}, use platform threads",
+                        name, System.getProperty("java.version"));
+            }
+        }
+        ThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+        if (coreThreadNum <= 0) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), threadFactory);
+        }
+        return new ThreadPoolExecutor(coreThreadNum, maxThreadNum, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingDeque<>(99999), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(String prefix) throws ReflectiveOperationException {
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        Object builder = OF_VIRTUAL.invoke(null);
+        builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+        ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+    }
+
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程，提交任务的线程先获取许可，许可用完时阻塞等待，等待被中断时向提交方抛出RejectedExecutionException。
+     * 本线程池的任务再提交任务(如分片)时不能持有许可阻塞等待，否则许可耗尽时互相等待，改为由新的虚拟线程等待许可
+     */
+    public static class VirtualThreadExecutor implements Executor {
+
+        private static final ThreadLocal<VirtualThreadExecutor> CURRENT = new ThreadLocal<>();
+
+        private final ExecutorService delegate;
+
+        private final Semaphore permits;
+
+        private final int maxConcurrency;
+
+        private final LongAdder completed = new LongAdder();
+
+        VirtualThreadExecutor(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (CURRENT.get() == this) {
+                delegate.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    run(command);
+                });
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("asgard executor interrupted while waiting for permit", e);
+            }
+            try {
+                delegate.execute(() -> run(command));
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void run(Runnable command) {
+            CURRENT.set(this);
+            try {
+                command.run();
+            } finally {
+                CURRENT.remove();
+                permits.release();
+                completed.increment();
+            }
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public int getAvailablePermits() {
+            return permits.availablePermits();
+        }
+
+        public long getCompletedCount() {
+            return completed.sum();
+        }
+
+        /**
+         * 等待许可的提交线程数和任务数，为估计值
+         */
+        public int getQueueLength() {
+            return permits.getQueueLength();
+        }
+
+        /**
+         * 由spring作为销毁方法调用
+         */
+        public void shutdown() {
+            delegate.shutdown();
+        }
+    }
+}
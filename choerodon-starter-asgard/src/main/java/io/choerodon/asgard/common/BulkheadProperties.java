@@ -0,0 +1,27 @@
+package io.choerodon.asgard.common;
+
+/**
+ * 隔离线程池的配置，开启虚拟线程时maxThreadNum为最大并发数
+ */
+public class BulkheadProperties {
+
+    private Integer coreThreadNum = 1;
+
+    private Integer maxThreadNum = 2;
+
+    public Integer getCoreThreadNum() {
+        return coreThreadNum;
+    }
+
+    public void setCoreThreadNum(Integer coreThreadNum) {
+        this.coreThreadNum = coreThreadNum;
+    }
+
+    public Integer getMaxThreadNum() {
+        return maxThreadNum;
+    }
+
+    public void setMaxThreadNum(Integer maxThreadNum) {
+        this.maxThreadNum = maxThreadNum;
+    }
+}
@@ -0,0 +1,78 @@
+package io.choerodon.asgard.common;
+
+/**
+ * 线程池的运行状态，无法获取的值为-1
+ */
+public class BulkheadStats {
+
+    private final String name;
+
+    private final String type;
+
+    private final int maxConcurrency;
+
+    private final int active;
+
+    private final int queued;
+
+    private final long completed;
+
+    private final int freeCapacity;
+
+    BulkheadStats(String name, String type, int maxConcurrency, int active, int queued, long completed, int freeCapacity) {
+        this.name = name;
+        this.type = type;
+        this.maxConcurrency = maxConcurrency;
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.freeCapacity = freeCapacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return platform、virtual或unknown
+     */
+    public String getType() {
+        return type;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return 还能立即开始执行的任务数
+     */
+    public int getFreeCapacity() {
+        return freeCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadStats{" +
+                "name='" + name + '\'' +
+                ", type='" + type + '\'' +
+                ", maxConcurrency=" + maxConcurrency +
+                ", active=" + active +
+                ", queued=" + queued +
+                ", completed=" + completed +
+                ", freeCapacity=" + freeCapacity +
+                '}';
+    }
+}
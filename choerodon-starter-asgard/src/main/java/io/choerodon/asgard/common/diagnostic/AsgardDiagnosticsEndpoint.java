@@ -0,0 +1,35 @@
+package io.choerodon.asgard.common.diagnostic;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 查看正在执行的@SagaTask、@JobTask调用及慢调用的热点帧
+ */
+@RestController
+public class AsgardDiagnosticsEndpoint {
+
+    private InFlightRegistry registry;
+
+    public AsgardDiagnosticsEndpoint(InFlightRegistry registry) {
+        this.registry = registry;
+    }
+
+    @GetMapping("/choerodon/asgard/diagnostics")
+    public Map<String, Object> diagnostics(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        Map<String, Object> result = new HashMap<>(4);
+        result.put("invocations", registry.getInvocations());
+        result.put("hotFrames", registry.getHotFrames(limit));
+        return result;
+    }
+
+    @DeleteMapping("/choerodon/asgard/diagnostics/hot-frames")
+    public void resetHotFrames() {
+        registry.resetHotFrames();
+    }
+}
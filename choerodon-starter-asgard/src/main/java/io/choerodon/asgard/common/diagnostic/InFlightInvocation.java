@@ -0,0 +1,90 @@
+package io.choerodon.asgard.common.diagnostic;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 正在执行的@SagaTask或@JobTask调用
+ */
+public class InFlightInvocation {
+
+    public static final String TYPE_SAGA_TASK = "SagaTask";
+
+    public static final String TYPE_JOB_TASK = "JobTask";
+
+    private final String type;
+
+    private final String code;
+
+    private final Long id;
+
+    private final long startTime;
+
+    private final Thread thread;
+
+    private volatile int samples;
+
+    private volatile List<String> lastStack = Collections.emptyList();
+
+    InFlightInvocation(String type, String code, Long id, Thread thread) {
+        this.type = type;
+        this.code = code;
+        this.id = id;
+        this.thread = thread;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getDurationMs() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public String getThreadName() {
+        return thread.getName();
+    }
+
+    public String getThreadState() {
+        return thread.getState().name();
+    }
+
+    /**
+     * @return 被采样的次数
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return 最近一次采样的调用栈，执行时间未超过阈值时为空
+     */
+    public List<String> getLastStack() {
+        return lastStack;
+    }
+
+    @JsonIgnore
+    Thread getThread() {
+        return thread;
+    }
+
+    void sampled(List<String> stack) {
+        this.lastStack = stack;
+        this.samples++;
+    }
+}
@@ -0,0 +1,176 @@
+package io.choerodon.asgard.common.diagnostic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录正在执行的任务调用，并定时采样执行时间超过阈值的调用所在线程的调用栈，
+ * 按任务code汇总栈顶帧出现的次数，用于定位卡住的任务在等待什么
+ */
+public class InFlightRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InFlightRegistry.class);
+
+    private static final int MAX_STACK_DEPTH = 64;
+
+    /**
+     * 每个任务code最多记录的热点帧数，超过后新出现的帧不再记录
+     */
+    private static final int MAX_FRAMES_PER_CODE = 200;
+
+    private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    private final Set<InFlightInvocation> invocations = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Map<String, AtomicLong>> hotFrames = new ConcurrentHashMap<>();
+
+    private final long slowThresholdMs;
+
+    private final ScheduledExecutorService sampler;
+
+    /**
+     * @param slowThresholdMs  执行超过该时间的调用才会被采样
+     * @param sampleIntervalMs 采样间隔，小于等于0时不采样
+     */
+    public InFlightRegistry(long slowThresholdMs, long sampleIntervalMs) {
+        this.slowThresholdMs = slowThresholdMs;
+        if (sampleIntervalMs > 0) {
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "asgard-diagnostics-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleWithFixedDelay(() -> {
+                try {
+                    sample();
+                } catch (Exception e) {
+                    LOGGER.warn("error.asgard.diagnostics.sample, msg: {}", e.getMessage());
+                }
+            }, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            sampler = null;
+        }
+    }
+
+    public InFlightInvocation start(String type, String code, Long id) {
+        InFlightInvocation invocation = new InFlightInvocation(type, code, id, Thread.currentThread());
+        invocations.add(invocation);
+        return invocation;
+    }
+
+    public void finish(InFlightInvocation invocation) {
+        invocations.remove(invocation);
+    }
+
+    /**
+     * @return 正在执行的调用，按开始时间升序
+     */
+    public List<InFlightInvocation> getInvocations() {
+        List<InFlightInvocation> list = new ArrayList<>(invocations);
+        list.sort(Comparator.comparingLong(InFlightInvocation::getStartTime));
+        return list;
+    }
+
+    /**
+     * @param limit 每个任务code返回的帧数
+     * @return 任务code -> 热点帧及采样次数，按次数降序
+     */
+    public Map<String, Map<String, Long>> getHotFrames(int limit) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, AtomicLong>> entry : hotFrames.entrySet()) {
+            List<Map.Entry<String, AtomicLong>> frames = new ArrayList<>(entry.getValue().entrySet());
+            frames.sort((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()));
+            Map<String, Long> top = new LinkedHashMap<>();
+            for (int i = 0; i < frames.size() && i < limit; i++) {
+                top.put(frames.get(i).getKey(), frames.get(i).getValue().get());
+            }
+            result.put(entry.getKey(), top);
+        }
+        return result;
+    }
+
+    public void resetHotFrames() {
+        hotFrames.clear();
+    }
+
+    void sample() {
+        long now = System.currentTimeMillis();
+        for (InFlightInvocation invocation : invocations) {
+            if (now - invocation.getStartTime() < slowThresholdMs) {
+                continue;
+            }
+            StackTraceElement[] stack = invocation.getThread().getStackTrace();
+            // 采样期间调用可能已结束，线程已在执行其他任务
+            if (stack.length == 0 || !invocations.contains(invocation)) {
+                continue;
+            }
+            int depth = Math.min(stack.length, MAX_STACK_DEPTH);
+            List<String> lines = new ArrayList<>(depth);
+            for (int i = 0; i < depth; i++) {
+                lines.add(stack[i].toString());
+            }
+            invocation.sampled(lines);
+            recordHotFrame(invocation.getCode(), frameKey(stack));
+        }
+    }
+
+    private void recordHotFrame(String code, String frame) {
+        Map<String, AtomicLong> frames = hotFrames.computeIfAbsent(code, k -> new ConcurrentHashMap<>());
+        AtomicLong count = frames.get(frame);
+        if (count == null) {
+            if (frames.size() >= MAX_FRAMES_PER_CODE) {
+                return;
+            }
+            count = frames.computeIfAbsent(frame, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * 栈顶帧，栈顶在JDK内部时附加最近的业务代码帧，如 "java.net.SocketInputStream.socketRead0 <- com.xx.XxxService.sync"
+     */
+    private static String frameKey(StackTraceElement[] stack) {
+        String top = stack[0].toString();
+        if (!isJdkFrame(stack[0])) {
+            return top;
+        }
+        for (int i = 1; i < stack.length; i++) {
+            if (!isJdkFrame(stack[i])) {
+                return top + " <- " + stack[i];
+            }
+        }
+        return top;
+    }
+
+    private static boolean isJdkFrame(StackTraceElement element) {
+        String className = element.getClassName();
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 由spring作为销毁方法调用
+     */
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        invocations.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package io.choerodon.asgard.common.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期记录使用了@Saga、@SagaTask、@JobTask、@TimedTask的类，写入{@link #INDEX_LOCATION}，
+ * 开启choerodon.asgard.annotation-index-enabled后启动时只扫描索引中的类
+ * <p>
+ * 未通过META-INF/services注册，需要的模块在编译插件中显式启用。增量编译时与已有索引合并，不会覆盖未重新编译的类
+ */
+@SupportedAnnotationTypes({
+        "io.choerodon.asgard.saga.annotation.Saga",
+        "io.choerodon.asgard.saga.annotation.SagaTask",
+        "io.choerodon.asgard.schedule.annotation.JobTask",
+        "io.choerodon.asgard.schedule.annotation.TimedTask"})
+public class AsgardAnnotationIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/choerodon/asgard-annotation.index";
+
+    private final Set<String> classes = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type = element.getKind().isClass() || element.getKind().isInterface()
+                        ? element : element.getEnclosingElement();
+                if (type instanceof TypeElement) {
+                    classes.add(processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString());
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !classes.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        readIndex();
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String clazz : classes) {
+                    writer.write(clazz);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "write asgard annotation index failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取上次编译输出的索引，已删除的类留在索引中只会多扫描一次，不影响结果
+     */
+    private void readIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        classes.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 首次编译没有索引
+        }
+    }
+}
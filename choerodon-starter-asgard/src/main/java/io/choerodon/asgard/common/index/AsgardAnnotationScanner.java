@@ -0,0 +1,258 @@
+package io.choerodon.asgard.common.index;
+
+import io.choerodon.asgard.saga.annotation.Saga;
+import io.choerodon.asgard.saga.annotation.SagaTask;
+import io.choerodon.asgard.schedule.annotation.JobTask;
+import io.choerodon.asgard.schedule.annotation.TimedTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SagaTaskProcessor、JobTaskProcessor和PropertyDataProcessor共用的注解扫描，每个类只扫描一次并缓存结果。
+ * 缓存为软引用，不会阻止类被卸载
+ * <p>
+ * 开启索引后，来自带索引的jar或目录的类只在{@link AsgardAnnotationIndexProcessor}编译期记录在索引中时才扫描；
+ * 类本身或其父类来自没有索引的jar或目录(编译时未启用注解处理器)时仍完整扫描
+ */
+public final class AsgardAnnotationScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsgardAnnotationScanner.class);
+
+    private static final Map<Class<?>, ScannedClass> CACHE = new ConcurrentReferenceHashMap<>(256);
+
+    private static volatile Set<String> indexedClasses;
+
+    /**
+     * 带索引的jar或目录的URL
+     */
+    private static volatile Set<String> indexedRoots;
+
+    private AsgardAnnotationScanner() {
+    }
+
+    public static ScannedClass scan(Class<?> clazz) {
+        ScannedClass scanned = CACHE.get(clazz);
+        if (scanned == null) {
+            scanned = doScan(clazz);
+            CACHE.putIfAbsent(clazz, scanned);
+        }
+        return scanned;
+    }
+
+    /**
+     * 加载classpath下所有的注解索引，未找到索引时仍扫描全部类
+     *
+     * @param classLoader 类加载器
+     * @return 是否加载到索引
+     */
+    public static boolean loadIndex(ClassLoader classLoader) {
+        Set<String> classes = new HashSet<>();
+        Set<String> roots = new HashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(AsgardAnnotationIndexProcessor.INDEX_LOCATION);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                roots.add(rootOf(url, AsgardAnnotationIndexProcessor.INDEX_LOCATION));
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.trim().isEmpty()) {
+                            classes.add(line.trim());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("load asgard annotation index failed, scan all classes", e);
+            return false;
+        }
+        if (classes.isEmpty()) {
+            return false;
+        }
+        indexedRoots = roots;
+        indexedClasses = classes;
+        CACHE.clear();
+        LOGGER.info("asgard annotation index loaded, classes: {}", classes.size());
+        return true;
+    }
+
+    public static void clear() {
+        indexedClasses = null;
+        indexedRoots = null;
+        CACHE.clear();
+    }
+
+    private static ScannedClass doScan(Class<?> clazz) {
+        if (!isIndexed(clazz)) {
+            return ScannedClass.EMPTY;
+        }
+        Saga typeSaga = AnnotationUtils.findAnnotation(clazz, Saga.class);
+        List<ScannedMethod> methods = new ArrayList<>();
+        for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+            Saga saga = AnnotationUtils.findAnnotation(method, Saga.class);
+            SagaTask sagaTask = AnnotationUtils.findAnnotation(method, SagaTask.class);
+            JobTask jobTask = AnnotationUtils.findAnnotation(method, JobTask.class);
+            if (saga == null && sagaTask == null && jobTask == null) {
+                continue;
+            }
+            methods.add(new ScannedMethod(method, saga, sagaTask,
+                    sagaTask == null ? null : AnnotationUtils.getAnnotation(method, SagaTask.class),
+                    jobTask, jobTask == null ? null : AnnotationUtils.findAnnotation(method, TimedTask.class)));
+        }
+        if (typeSaga == null && methods.isEmpty()) {
+            return ScannedClass.EMPTY;
+        }
+        return new ScannedClass(typeSaga, Collections.unmodifiableList(methods));
+    }
+
+    private static boolean isIndexed(Class<?> clazz) {
+        Set<String> classes = indexedClasses;
+        if (classes == null) {
+            return true;
+        }
+        Set<String> roots = indexedRoots;
+        Class<?> current = ClassUtils.getUserClass(clazz);
+        while (current != null && current != Object.class) {
+            if (classes.contains(current.getName())) {
+                return true;
+            }
+            if (current.getClassLoader() != null && !roots.contains(rootOf(current))) {
+                // 编译时未启用注解处理器，索引中没有该类的信息
+                return true;
+            }
+            current = current.getSuperclass();
+        }
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(clazz)) {
+            if (classes.contains(ifc.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 类所在jar或目录的URL，找不到类文件时为null
+     */
+    static String rootOf(Class<?> clazz) {
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        return rootOf(clazz.getClassLoader().getResource(resource), resource);
+    }
+
+    private static String rootOf(URL url, String resource) {
+        if (url == null) {
+            return null;
+        }
+        String location = url.toString();
+        return location.endsWith(resource) ? location.substring(0, location.length() - resource.length()) : location;
+    }
+
+    public static final class ScannedClass {
+
+        static final ScannedClass EMPTY = new ScannedClass(null, Collections.emptyList());
+
+        private final Saga typeSaga;
+
+        private final List<ScannedMethod> methods;
+
+        ScannedClass(Saga typeSaga, List<ScannedMethod> methods) {
+            this.typeSaga = typeSaga;
+            this.methods = methods;
+        }
+
+        /**
+         * @return 类上的@Saga，等同于AnnotationUtils.findAnnotation(clazz, Saga.class)
+         */
+        public Saga getTypeSaga() {
+            return typeSaga;
+        }
+
+        public List<ScannedMethod> getMethods() {
+            return methods;
+        }
+
+        public boolean isEmpty() {
+            return this == EMPTY;
+        }
+    }
+
+    public static final class ScannedMethod {
+
+        private final Method method;
+
+        private final Saga saga;
+
+        private final SagaTask sagaTask;
+
+        private final SagaTask declaredSagaTask;
+
+        private final JobTask jobTask;
+
+        private final TimedTask timedTask;
+
+        ScannedMethod(Method method, Saga saga, SagaTask sagaTask, SagaTask declaredSagaTask,
+                      JobTask jobTask, TimedTask timedTask) {
+            this.method = method;
+            this.saga = saga;
+            this.sagaTask = sagaTask;
+            this.declaredSagaTask = declaredSagaTask;
+            this.jobTask = jobTask;
+            this.timedTask = timedTask;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * @return findAnnotation查找的@Saga
+         */
+        public Saga getSaga() {
+            return saga;
+        }
+
+        /**
+         * @return findAnnotation查找的@SagaTask，包含父类和接口上的注解
+         */
+        public SagaTask getSagaTask() {
+            return sagaTask;
+        }
+
+        /**
+         * @return getAnnotation查找的@SagaTask，仅方法本身的注解
+         */
+        public SagaTask getDeclaredSagaTask() {
+            return declaredSagaTask;
+        }
+
+        public JobTask getJobTask() {
+            return jobTask;
+        }
+
+        /**
+         * @return 仅在存在@JobTask时查找
+         */
+        public TimedTask getTimedTask() {
+            return timedTask;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.choerodon.asgard.common.jfr;
+
+/**
+ * asgard消费者的JFR事件。未开启记录或运行时不支持JFR时使用{@link #DISABLED}，所有方法均为空操作
+ */
+public class AsgardFlightEvent {
+
+    public static final AsgardFlightEvent DISABLED = new AsgardFlightEvent();
+
+    AsgardFlightEvent() {
+    }
+
+    /**
+     * 开始计时创建/提交/回滚事务，可多次调用，耗时累加
+     */
+    public void beginTransaction() {
+        // 未开启时不记录
+    }
+
+    public void endTransaction() {
+        // 未开启时不记录
+    }
+
+    /**
+     * 开始计时执行任务方法
+     */
+    public void beginMethod() {
+        // 未开启时不记录
+    }
+
+    public void endMethod() {
+        // 未开启时不记录
+    }
+
+    public AsgardFlightEvent batchSize(int batchSize) {
+        return this;
+    }
+
+    public AsgardFlightEvent failed() {
+        return this;
+    }
+
+    public void commit() {
+        // 未开启时不记录
+    }
+}
@@ -0,0 +1,61 @@
+package io.choerodon.asgard.common.jfr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 创建asgard消费者的JFR事件：拉取、任务调用和状态上报。
+ * <p>
+ * 只有运行时存在jdk.jfr时才会加载{@link JfrAsgardEvents}，否则始终返回{@link AsgardFlightEvent#DISABLED}；
+ * 未开启对应事件的记录时同样返回DISABLED，不产生额外对象
+ */
+public final class AsgardFlightRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsgardFlightRecorder.class);
+
+    public static final String SAGA = "saga";
+
+    public static final String SCHEDULE = "schedule";
+
+    private static final boolean AVAILABLE = detect();
+
+    private AsgardFlightRecorder() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, AsgardFlightRecorder.class.getClassLoader());
+            JfrAsgardEvents.register();
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        } catch (Exception e) {
+            LOGGER.debug("asgard jfr events are unavailable", e);
+            return false;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * @param consumer {@link #SAGA}或{@link #SCHEDULE}
+     */
+    public static AsgardFlightEvent poll(String consumer) {
+        return AVAILABLE ? JfrAsgardEvents.poll(consumer) : AsgardFlightEvent.DISABLED;
+    }
+
+    /**
+     * @param taskType 任务类型，见{@link io.choerodon.asgard.common.diagnostic.InFlightInvocation}
+     * @param code     任务code
+     * @param id       任务实例id，本地触发的定时任务为null
+     */
+    public static AsgardFlightEvent invoke(String taskType, String code, Long id) {
+        return AVAILABLE ? JfrAsgardEvents.invoke(taskType, code, id) : AsgardFlightEvent.DISABLED;
+    }
+
+    public static AsgardFlightEvent updateStatus(String consumer, Long id, String status) {
+        return AVAILABLE ? JfrAsgardEvents.updateStatus(consumer, id, status) : AsgardFlightEvent.DISABLED;
+    }
+}
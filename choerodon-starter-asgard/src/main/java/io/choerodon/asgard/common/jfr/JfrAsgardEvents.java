@@ -0,0 +1,206 @@
+package io.choerodon.asgard.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR事件定义，只能由{@link AsgardFlightRecorder}在确认jdk.jfr存在后加载
+ */
+final class JfrAsgardEvents {
+
+    private static EventType pollType;
+
+    private static EventType invokeType;
+
+    private static EventType updateStatusType;
+
+    private JfrAsgardEvents() {
+    }
+
+    static void register() {
+        FlightRecorder.register(PollEvent.class);
+        FlightRecorder.register(InvokeEvent.class);
+        FlightRecorder.register(UpdateStatusEvent.class);
+        pollType = EventType.getEventType(PollEvent.class);
+        invokeType = EventType.getEventType(InvokeEvent.class);
+        updateStatusType = EventType.getEventType(UpdateStatusEvent.class);
+    }
+
+    static AsgardFlightEvent poll(String consumer) {
+        if (!pollType.isEnabled()) {
+            return AsgardFlightEvent.DISABLED;
+        }
+        PollEvent event = new PollEvent();
+        event.consumer = consumer;
+        event.begin();
+        return new Recording(event);
+    }
+
+    static AsgardFlightEvent invoke(String taskType, String code, Long id) {
+        if (!invokeType.isEnabled()) {
+            return AsgardFlightEvent.DISABLED;
+        }
+        InvokeEvent event = new InvokeEvent();
+        event.taskType = taskType;
+        event.code = code;
+        event.instanceId = id == null ? -1 : id;
+        event.begin();
+        return new Recording(event);
+    }
+
+    static AsgardFlightEvent updateStatus(String consumer, Long id, String status) {
+        if (!updateStatusType.isEnabled()) {
+            return AsgardFlightEvent.DISABLED;
+        }
+        UpdateStatusEvent event = new UpdateStatusEvent();
+        event.consumer = consumer;
+        event.instanceId = id == null ? -1 : id;
+        event.status = status;
+        event.begin();
+        return new Recording(event);
+    }
+
+    private static final class Recording extends AsgardFlightEvent {
+
+        private final Event event;
+
+        private long transactionStart;
+
+        private long transactionNanos;
+
+        private long methodStart;
+
+        private long methodNanos;
+
+        private int batchSize;
+
+        private boolean failed;
+
+        Recording(Event event) {
+            this.event = event;
+        }
+
+        @Override
+        public void beginTransaction() {
+            transactionStart = System.nanoTime();
+        }
+
+        @Override
+        public void endTransaction() {
+            transactionNanos += System.nanoTime() - transactionStart;
+        }
+
+        @Override
+        public void beginMethod() {
+            methodStart = System.nanoTime();
+        }
+
+        @Override
+        public void endMethod() {
+            methodNanos += System.nanoTime() - methodStart;
+        }
+
+        @Override
+        public AsgardFlightEvent batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        @Override
+        public AsgardFlightEvent failed() {
+            this.failed = true;
+            return this;
+        }
+
+        @Override
+        public void commit() {
+            event.end();
+            if (!event.shouldCommit()) {
+                return;
+            }
+            if (event instanceof PollEvent) {
+                ((PollEvent) event).batchSize = batchSize;
+                ((PollEvent) event).failed = failed;
+            } else if (event instanceof InvokeEvent) {
+                ((InvokeEvent) event).transactionTime = transactionNanos;
+                ((InvokeEvent) event).methodTime = methodNanos;
+                ((InvokeEvent) event).failed = failed;
+            } else if (event instanceof UpdateStatusEvent) {
+                ((UpdateStatusEvent) event).failed = failed;
+            }
+            event.commit();
+        }
+    }
+
+    @Name("io.choerodon.asgard.Poll")
+    @Label("Asgard Poll")
+    @Category({"Choerodon", "Asgard"})
+    @Description("拉取saga任务或定时任务实例")
+    @StackTrace(false)
+    static class PollEvent extends Event {
+
+        @Label("Consumer")
+        String consumer;
+
+        @Label("Batch Size")
+        int batchSize;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("io.choerodon.asgard.Invoke")
+    @Label("Asgard Invoke")
+    @Category({"Choerodon", "Asgard"})
+    @Description("执行@SagaTask或@JobTask方法")
+    @StackTrace(false)
+    static class InvokeEvent extends Event {
+
+        @Label("Task Type")
+        String taskType;
+
+        @Label("Code")
+        String code;
+
+        @Label("Instance Id")
+        long instanceId;
+
+        @Label("Transaction Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long transactionTime;
+
+        @Label("Method Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long methodTime;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("io.choerodon.asgard.UpdateStatus")
+    @Label("Asgard Update Status")
+    @Category({"Choerodon", "Asgard"})
+    @Description("向asgard上报任务实例状态")
+    @StackTrace(false)
+    static class UpdateStatusEvent extends Event {
+
+        @Label("Consumer")
+        String consumer;
+
+        @Label("Instance Id")
+        long instanceId;
+
+        @Label("Status")
+        String status;
+
+        @Label("Failed")
+        boolean failed;
+    }
+}
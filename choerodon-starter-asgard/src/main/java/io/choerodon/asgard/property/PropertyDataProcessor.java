@@ -2,6 +2,7 @@ package io.choerodon.asgard.property;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.choerodon.asgard.common.index.AsgardAnnotationScanner;
 import io.choerodon.asgard.saga.SagaDefinition;
 import io.choerodon.asgard.saga.annotation.Saga;
 import io.choerodon.asgard.saga.annotation.SagaTask;
@@ -9,23 +10,36 @@ import io.choerodon.asgard.saga.consumer.GenerateJsonSchemaUtil;
 import io.choerodon.asgard.schedule.annotation.JobTask;
 import io.choerodon.asgard.schedule.annotation.TimedTask;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 
-public class PropertyDataProcessor implements BeanPostProcessor {
+public class PropertyDataProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertyDataProcessor.class);
 
     private final ObjectMapper mapper = new ObjectMapper();
 
     private PropertyData propertyData;
 
+    private SchemaFormat schemaFormat = SchemaFormat.EXAMPLE;
+
     public PropertyDataProcessor(PropertyData propertyData) {
         this.propertyData = propertyData;
     }
 
+    /**
+     * 由类生成的schema的格式，默认为示例JSON
+     */
+    public void setSchemaFormat(SchemaFormat schemaFormat) {
+        this.schemaFormat = schemaFormat == null ? SchemaFormat.EXAMPLE : schemaFormat;
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) {
         return bean;
@@ -34,25 +48,40 @@ public class PropertyDataProcessor implements BeanPostProcessor {
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) {
 
-        Saga typeSaga = AnnotationUtils.findAnnotation(bean.getClass(), Saga.class);
+        AsgardAnnotationScanner.ScannedClass scanned = AsgardAnnotationScanner.scan(bean.getClass());
+        if (scanned.isEmpty()) {
+            return bean;
+        }
+        Saga typeSaga = scanned.getTypeSaga();
         if (typeSaga != null) {
             PropertySaga data = new PropertySaga(typeSaga.code(), typeSaga.description());
             addInputSchema(typeSaga, data);
             propertyData.addSaga(data);
         }
-        Method[] methods = ReflectionUtils.getAllDeclaredMethods(bean.getClass());
-        if (methods != null) {
-            for (Method method : methods) {
-                addMethodSaga(method);
-                addMethodSagaTask(method);
-                addMethodJobTask(bean, method);
-            }
+        for (AsgardAnnotationScanner.ScannedMethod method : scanned.getMethods()) {
+            addMethodSaga(method.getSaga());
+            addMethodSagaTask(method.getMethod(), method.getSagaTask());
+            addMethodJobTask(bean, method.getMethod(), method.getJobTask(), method.getTimedTask());
         }
         return bean;
     }
 
-    private void addMethodSaga(final Method method) {
-        Saga saga = AnnotationUtils.findAnnotation(method, Saga.class);
+    /**
+     * 由类生成的schema延迟到首次读取，启动完成后在后台线程提前生成，不阻塞启动
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            new ArrayList<>(propertyData.getSagas()).forEach(PropertySaga::getInputSchema);
+            new ArrayList<>(propertyData.getSagaTasks()).forEach(PropertySagaTask::getOutputSchema);
+            LOGGER.debug("asgard schema generated in {}ms", System.currentTimeMillis() - start);
+        }, "asgard-schema-generator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void addMethodSaga(final Saga saga) {
         if (saga != null) {
             PropertySaga data = new PropertySaga(saga.code(), saga.description());
             addInputSchema(saga, data);
@@ -60,8 +89,7 @@ public class PropertyDataProcessor implements BeanPostProcessor {
         }
     }
 
-    private void addMethodSagaTask(final Method method) {
-        SagaTask sagaTask = AnnotationUtils.findAnnotation(method, SagaTask.class);
+    private void addMethodSagaTask(final Method method, final SagaTask sagaTask) {
         if (sagaTask != null) {
             PropertySagaTask task = new PropertySagaTask(sagaTask.code(), sagaTask.description(),
                     sagaTask.sagaCode(), sagaTask.seq(), sagaTask.maxRetryCount());
@@ -75,12 +103,12 @@ public class PropertyDataProcessor implements BeanPostProcessor {
         }
     }
 
-    private void addMethodJobTask(final Object bean, final Method method) {
-        JobTask jobTask = AnnotationUtils.findAnnotation(method, JobTask.class);
+    private void addMethodJobTask(final Object bean, final Method method, final JobTask jobTask, final TimedTask timedTask) {
         if (jobTask != null) {
             String methodName = bean.getClass().getName() + "." + method.getName();
-            propertyData.addJobTask(new PropertyJobTask(methodName, jobTask.maxRetryCount(), jobTask.code(), jobTask.description(), jobTask.level(), jobTask.params()));
-            TimedTask timedTask = AnnotationUtils.findAnnotation(method, TimedTask.class);
+            PropertyJobTask task = new PropertyJobTask(methodName, jobTask.maxRetryCount(), jobTask.code(), jobTask.description(), jobTask.level(), jobTask.params());
+            task.setShardCount(Math.max(jobTask.shardCount(), 1));
+            propertyData.addJobTask(task);
             if (timedTask != null) {
                 propertyData.addTimedTasks(new PropertyTimedTask(timedTask, jobTask));
             }
@@ -92,10 +120,12 @@ public class PropertyDataProcessor implements BeanPostProcessor {
             data.setOutputSchema(sagaTask.outputSchema());
             data.setOutputSchemaSource(SagaDefinition.SagaTaskOutputSchemaSource.OUTPUT_SCHEMA.name());
         } else if (!sagaTask.outputSchemaClass().equals(Object.class)) {
-            data.setOutputSchema(GenerateJsonSchemaUtil.generate(sagaTask.outputSchemaClass(), mapper, true));
+            final Class<?> outputSchemaClass = sagaTask.outputSchemaClass();
+            data.setOutputSchemaSupplier(() -> generateSchema(outputSchemaClass, true));
             data.setOutputSchemaSource(SagaDefinition.SagaTaskOutputSchemaSource.OUTPUT_SCHEMA_CLASS.name());
         } else {
-            data.setOutputSchema(GenerateJsonSchemaUtil.generate(method.getReturnType(), mapper, true));
+            final Class<?> returnType = method.getReturnType();
+            data.setOutputSchemaSupplier(() -> generateSchema(returnType, true));
             data.setOutputSchemaSource(SagaDefinition.SagaTaskOutputSchemaSource.METHOD_RETURN_TYPE.name());
         }
     }
@@ -105,7 +135,8 @@ public class PropertyDataProcessor implements BeanPostProcessor {
             data.setInputSchema(saga.inputSchema());
             data.setInputSchemaSource(SagaDefinition.SagaInputSchemaSource.INPUT_SCHEMA.name());
         } else if (!saga.inputSchemaClass().equals(Object.class)) {
-            data.setInputSchema(GenerateJsonSchemaUtil.generate(saga.inputSchemaClass(), mapper, false));
+            final Class<?> inputSchemaClass = saga.inputSchemaClass();
+            data.setInputSchemaSupplier(() -> generateSchema(inputSchemaClass, false));
             data.setInputSchemaSource(SagaDefinition.SagaInputSchemaSource.INPUT_SCHEMA_CLASS.name());
         } else {
             data.setInputSchema("");
@@ -113,4 +144,22 @@ public class PropertyDataProcessor implements BeanPostProcessor {
         }
     }
 
+    private String generateSchema(final Class<?> claz, final boolean emptyIsNull) {
+        if (schemaFormat == SchemaFormat.JSON_SCHEMA) {
+            return GenerateJsonSchemaUtil.generateJsonSchema(claz, mapper);
+        }
+        return GenerateJsonSchemaUtil.generate(claz, mapper, emptyIsNull);
+    }
+
+    public enum SchemaFormat {
+        /**
+         * 由类生成的示例JSON
+         */
+        EXAMPLE,
+        /**
+         * draft-07格式的JSON Schema，需要asgard服务端支持
+         */
+        JSON_SCHEMA
+    }
+
 }
@@ -1,22 +1,137 @@
 package io.choerodon.asgard.property;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.choerodon.core.exception.CommonException;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+/**
+ * 提供给asgard拉取本服务定义的saga、任务等信息
+ * <p>
+ * 序列化结果在首次请求时生成并缓存，上下文刷新后失效；响应带ETag，asgard携带If-None-Match时内容未变化返回304
+ */
 @RestController
-public class PropertyEndpoint {
+public class PropertyEndpoint implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final int GZIP_MIN_SIZE = 1024;
 
     private PropertyData propertyData;
 
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Snapshot snapshot;
+
     public PropertyEndpoint(PropertyData propertyData) {
         this.propertyData = propertyData;
     }
 
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        snapshot = null;
+    }
+
     @GetMapping(value = "/choerodon/asgard", produces = {APPLICATION_JSON_VALUE})
-    PropertyData propertyData() {
-        return propertyData;
+    ResponseEntity<byte[]> propertyData(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Snapshot current = getSnapshot();
+        if (current.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.etag).build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(current.etag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (current.gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(current.gzipped);
+        }
+        return builder.body(current.bytes);
+    }
+
+    Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = createSnapshot();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot createSnapshot() {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(propertyData);
+        } catch (JsonProcessingException e) {
+            throw new CommonException("error.asgard.propertyData.serialize", e);
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+        return new Snapshot(bytes, bytes.length >= GZIP_MIN_SIZE ? gzip(bytes) : null, etag);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    static final class Snapshot {
+
+        final byte[] bytes;
+
+        final byte[] gzipped;
+
+        final String etag;
+
+        Snapshot(byte[] bytes, byte[] gzipped, String etag) {
+            this.bytes = bytes;
+            this.gzipped = gzipped;
+            this.etag = etag;
+        }
+
+        boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if ("*".equals(candidate) || etag.equals(candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
 }
@@ -20,6 +20,8 @@ public class PropertyJobTask {
 
     private List<PropertyJobParam> params;
 
+    private int shardCount = 1;
+
     public PropertyJobTask(String method, int maxRetryCount, String code, String description, ResourceLevel level, JobParam[] params) {
         this.method = method;
         this.maxRetryCount = maxRetryCount;
@@ -83,6 +85,14 @@ public class PropertyJobTask {
         this.params = params;
     }
 
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
     @Override
     public String toString() {
         return "PropertyJobTask{" +
@@ -92,6 +102,7 @@ public class PropertyJobTask {
                 ", description='" + description + '\'' +
                 ", level='" + level + '\'' +
                 ", params=" + params +
+                ", shardCount=" + shardCount +
                 '}';
     }
 }
@@ -1,5 +1,7 @@
 package io.choerodon.asgard.property;
 
+import java.util.function.Supplier;
+
 public class PropertySaga {
 
     private String code;
@@ -10,6 +12,11 @@ public class PropertySaga {
 
     private String inputSchemaSource;
 
+    /**
+     * 由inputSchemaClass生成的schema在首次读取时才生成
+     */
+    private Supplier<String> inputSchemaSupplier;
+
     public PropertySaga() {
     }
 
@@ -34,12 +41,22 @@ public class PropertySaga {
         this.description = description;
     }
 
-    public String getInputSchema() {
+    public synchronized String getInputSchema() {
+        Supplier<String> supplier = inputSchemaSupplier;
+        if (supplier != null) {
+            inputSchema = supplier.get();
+            inputSchemaSupplier = null;
+        }
         return inputSchema;
     }
 
-    public void setInputSchema(String inputSchema) {
+    public synchronized void setInputSchema(String inputSchema) {
         this.inputSchema = inputSchema;
+        this.inputSchemaSupplier = null;
+    }
+
+    synchronized void setInputSchemaSupplier(Supplier<String> inputSchemaSupplier) {
+        this.inputSchemaSupplier = inputSchemaSupplier;
     }
 
     public String getInputSchemaSource() {
@@ -1,5 +1,7 @@
 package io.choerodon.asgard.property;
 
+import java.util.function.Supplier;
+
 public class PropertySagaTask {
 
     private String code;
@@ -24,6 +26,11 @@ public class PropertySagaTask {
 
     private String outputSchemaSource;
 
+    /**
+     * 由outputSchemaClass或方法返回值生成的schema在首次读取时才生成
+     */
+    private Supplier<String> outputSchemaSupplier;
+
     private String failureCallbackMethod;
 
 
@@ -110,12 +117,22 @@ public class PropertySagaTask {
         this.concurrentLimitPolicy = concurrentLimitPolicy;
     }
 
-    public String getOutputSchema() {
+    public synchronized String getOutputSchema() {
+        Supplier<String> supplier = outputSchemaSupplier;
+        if (supplier != null) {
+            outputSchema = supplier.get();
+            outputSchemaSupplier = null;
+        }
         return outputSchema;
     }
 
-    public void setOutputSchema(String outputSchema) {
+    public synchronized void setOutputSchema(String outputSchema) {
         this.outputSchema = outputSchema;
+        this.outputSchemaSupplier = null;
+    }
+
+    synchronized void setOutputSchemaSupplier(Supplier<String> outputSchemaSupplier) {
+        this.outputSchemaSupplier = outputSchemaSupplier;
     }
 
     public String getOutputSchemaSource() {
@@ -0,0 +1,168 @@
+package io.choerodon.asgard.saga;
+
+import io.choerodon.asgard.saga.exception.SagaProducerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * saga payload的编解码器，生产端、一致性记录和消费端共用
+ * <p>
+ * 开启压缩后，超过阈值的payload会被gzip压缩后再base64编码，并加上{@link #GZIP_PREFIX}前缀；
+ * 解码总是可用的，未压缩的payload原样返回。
+ */
+public class SagaPayloadCodec {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SagaPayloadCodec.class);
+
+    public static final String GZIP_PREFIX = "gzip:";
+
+    private final boolean compressEnabled;
+
+    private final int compressThreshold;
+
+    private final LongAdder encodedCount = new LongAdder();
+
+    private final LongAdder compressedCount = new LongAdder();
+
+    private final LongAdder rawBytes = new LongAdder();
+
+    private final LongAdder encodedBytes = new LongAdder();
+
+    private final AtomicLong maxRawBytes = new AtomicLong();
+
+    public SagaPayloadCodec(boolean compressEnabled, int compressThreshold) {
+        this.compressEnabled = compressEnabled;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public String encode(byte[] payload) {
+        if (payload == null) {
+            return null;
+        }
+        String encoded;
+        int encodedSize;
+        if (compressEnabled && payload.length >= compressThreshold) {
+            encoded = GZIP_PREFIX + Base64.getEncoder().encodeToString(gzip(payload));
+            // base64编码后只含ascii字符，字符数即字节数
+            encodedSize = encoded.length();
+            compressedCount.increment();
+        } else {
+            encoded = new String(payload, StandardCharsets.UTF_8);
+            encodedSize = payload.length;
+        }
+        record(payload.length, encodedSize);
+        return encoded;
+    }
+
+    public String encode(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        // utf-8下一个字符最多3个字节，字符数不足阈值的1/3时无需转换即可确定不压缩
+        if (compressEnabled && payload.length() >= compressThreshold / 3) {
+            byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length >= compressThreshold) {
+                return encode(bytes);
+            }
+            record(bytes.length, bytes.length);
+            return payload;
+        }
+        int size = utf8Length(payload);
+        record(size, size);
+        return payload;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public String decode(String payload) {
+        if (payload == null || !payload.startsWith(GZIP_PREFIX)) {
+            return payload;
+        }
+        byte[] compressed = Base64.getDecoder().decode(payload.substring(GZIP_PREFIX.length()));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+             ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SagaProducerException("error.sagaPayloadCodec.decode", e);
+        }
+    }
+
+    private byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new SagaProducerException("error.sagaPayloadCodec.encode", e);
+        }
+        return out.toByteArray();
+    }
+
+    private void record(int raw, int encoded) {
+        encodedCount.increment();
+        rawBytes.add(raw);
+        encodedBytes.add(encoded);
+        maxRawBytes.accumulateAndGet(raw, Math::max);
+        LOGGER.trace("saga payload encoded, raw size: {}, encoded size: {}", raw, encoded);
+    }
+
+    public boolean isCompressEnabled() {
+        return compressEnabled;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public long getEncodedCount() {
+        return encodedCount.sum();
+    }
+
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    public long getMaxRawBytes() {
+        return maxRawBytes.get();
+    }
+
+}
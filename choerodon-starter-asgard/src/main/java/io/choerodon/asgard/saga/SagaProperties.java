@@ -1,13 +1,18 @@
 package io.choerodon.asgard.saga;
 
+import io.choerodon.asgard.common.BulkheadProperties;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "choerodon.saga")
 public class SagaProperties {
 
     private Consumer consumer;
 
-    private Producer producer;
+    private Producer producer = new Producer();
 
 
     public Consumer getConsumer() {
@@ -37,6 +42,17 @@ public class SagaProperties {
 
         private Boolean enabled = false;
 
+        private Boolean localDispatchEnabled = false;
+
+        private Boolean virtualThreadEnabled = false;
+
+        private Integer virtualThreadMaxConcurrency = 1000;
+
+        /**
+         * 隔离线程池，@SagaTask通过executor指定
+         */
+        private Map<String, BulkheadProperties> bulkheads = new LinkedHashMap<>();
+
         public Long getPollIntervalMs() {
             return pollIntervalMs;
         }
@@ -76,11 +92,49 @@ public class SagaProperties {
         public void setEnabled(Boolean enabled) {
             this.enabled = enabled;
         }
+
+        public Boolean getLocalDispatchEnabled() {
+            return localDispatchEnabled;
+        }
+
+        public void setLocalDispatchEnabled(Boolean localDispatchEnabled) {
+            this.localDispatchEnabled = localDispatchEnabled;
+        }
+
+        public Boolean getVirtualThreadEnabled() {
+            return virtualThreadEnabled;
+        }
+
+        public void setVirtualThreadEnabled(Boolean virtualThreadEnabled) {
+            this.virtualThreadEnabled = virtualThreadEnabled;
+        }
+
+        public Integer getVirtualThreadMaxConcurrency() {
+            return virtualThreadMaxConcurrency;
+        }
+
+        public void setVirtualThreadMaxConcurrency(Integer virtualThreadMaxConcurrency) {
+            this.virtualThreadMaxConcurrency = virtualThreadMaxConcurrency;
+        }
+
+        public Map<String, BulkheadProperties> getBulkheads() {
+            return bulkheads;
+        }
+
+        public void setBulkheads(Map<String, BulkheadProperties> bulkheads) {
+            this.bulkheads = bulkheads;
+        }
     }
 
     public static class Producer {
         private String consistencyType = "memory";
 
+        private Boolean payloadCompressEnabled = false;
+
+        private Integer payloadCompressThreshold = 16384;
+
+        private Boolean batchRequestEnabled = false;
+
         public String getConsistencyType() {
             return consistencyType;
         }
@@ -88,6 +142,30 @@ public class SagaProperties {
         public void setConsistencyType(String consistencyType) {
             this.consistencyType = consistencyType;
         }
+
+        public Boolean getPayloadCompressEnabled() {
+            return payloadCompressEnabled;
+        }
+
+        public void setPayloadCompressEnabled(Boolean payloadCompressEnabled) {
+            this.payloadCompressEnabled = payloadCompressEnabled;
+        }
+
+        public Integer getPayloadCompressThreshold() {
+            return payloadCompressThreshold;
+        }
+
+        public void setPayloadCompressThreshold(Integer payloadCompressThreshold) {
+            this.payloadCompressThreshold = payloadCompressThreshold;
+        }
+
+        public Boolean getBatchRequestEnabled() {
+            return batchRequestEnabled;
+        }
+
+        public void setBatchRequestEnabled(Boolean batchRequestEnabled) {
+            this.batchRequestEnabled = batchRequestEnabled;
+        }
     }
 
 }
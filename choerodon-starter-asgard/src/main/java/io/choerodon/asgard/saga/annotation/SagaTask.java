@@ -134,4 +134,12 @@ public @interface SagaTask {
      * @return
      */
     String failureCallbackMethod() default "";
+
+    /**
+     * 执行该任务的隔离线程池名，对应choerodon.saga.consumer.bulkheads中的配置。
+     * 为空或未配置时使用默认的sagaExecutor
+     *
+     * @return 线程池名
+     */
+    String executor() default "";
 }
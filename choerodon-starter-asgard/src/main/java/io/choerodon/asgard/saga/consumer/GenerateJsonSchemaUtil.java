@@ -1,14 +1,23 @@
 package io.choerodon.asgard.saga.consumer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GenerateJsonSchemaUtil {
 
@@ -22,6 +31,41 @@ public class GenerateJsonSchemaUtil {
             Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
             Void.class, Map.class, Enum.class);
 
+    private static final Map<Class<?>, Object> DEFAULT_VALUES = new HashMap<>();
+
+    private static final String JSON_SCHEMA_DRAFT = "http://json-schema.org/draft-07/schema#";
+
+    private static final String DEFINITIONS = "definitions";
+
+    /**
+     * 示例实例的缓存，无法实例化的类缓存为{@link #NULL}。
+     * 只缓存与调用路径无关的结果：生成过程中因循环引用被置空的字段指向的是该类的外层类时不缓存
+     */
+    private static final Map<Class<?>, Object> EXAMPLE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 每个类可设置值的字段及其setter
+     */
+    private static final Map<Class<?>, List<FieldSetter>> SETTER_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在生成示例的类及其嵌套深度，用于检测循环引用
+     */
+    private static final ThreadLocal<Generation> IN_PROGRESS = ThreadLocal.withInitial(Generation::new);
+
+    private static final Object NULL = new Object();
+
+    static {
+        DEFAULT_VALUES.put(Boolean.class, true);
+        DEFAULT_VALUES.put(Byte.class, (byte) 0);
+        DEFAULT_VALUES.put(Short.class, (short) 0);
+        DEFAULT_VALUES.put(Integer.class, 0);
+        DEFAULT_VALUES.put(Long.class, 0L);
+        DEFAULT_VALUES.put(Float.class, 0.0f);
+        DEFAULT_VALUES.put(Double.class, 0.0);
+        DEFAULT_VALUES.put(String.class, "string");
+    }
+
     private GenerateJsonSchemaUtil() {
     }
 
@@ -38,6 +82,30 @@ public class GenerateJsonSchemaUtil {
         return value;
     }
 
+    /**
+     * 生成draft-07格式的JSON Schema，嵌套对象放在definitions中通过$ref引用，循环引用不会无限展开
+     *
+     * @param claz   类
+     * @param mapper 用于解析属性名的objectMapper
+     * @return JSON Schema
+     */
+    public static String generateJsonSchema(final Class<?> claz, final ObjectMapper mapper) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("$schema", JSON_SCHEMA_DRAFT);
+        ObjectNode definitions = mapper.createObjectNode();
+        ObjectNode schema = schemaOf(mapper.constructType(claz), mapper, definitions, true);
+        root.setAll(schema);
+        if (definitions.size() > 0) {
+            root.set(DEFINITIONS, definitions);
+        }
+        try {
+            return mapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            LOGGER.trace("GenerateJsonSchemaUtil jsonProcessingException {}", e.getMessage());
+            return null;
+        }
+    }
+
     private static Object createExampleInstance(final Class<?> claz) {
         if (claz == null) {
             return null;
@@ -48,31 +116,44 @@ public class GenerateJsonSchemaUtil {
         if (claz.isArray() || Collection.class.isAssignableFrom(claz)) {
             return Collections.emptyList();
         }
+        Object cached = EXAMPLE_CACHE.get(claz);
+        if (cached != null) {
+            return cached == NULL ? null : cached;
+        }
+        Generation generation = IN_PROGRESS.get();
+        Integer cycleDepth = generation.depths.get(claz);
+        if (cycleDepth != null) {
+            // 循环引用，该字段留空
+            generation.lowestCutDepth = Math.min(generation.lowestCutDepth, cycleDepth);
+            return null;
+        }
+        int depth = generation.depths.size();
+        int outerCutDepth = generation.lowestCutDepth;
+        generation.depths.put(claz, depth);
+        generation.lowestCutDepth = Integer.MAX_VALUE;
+        try {
+            Object obj = newExampleInstance(claz);
+            if (generation.lowestCutDepth >= depth) {
+                EXAMPLE_CACHE.put(claz, obj == null ? NULL : obj);
+            }
+            return obj;
+        } finally {
+            generation.depths.remove(claz);
+            generation.lowestCutDepth = Math.min(outerCutDepth, generation.lowestCutDepth);
+        }
+    }
+
+    private static Object newExampleInstance(final Class<?> claz) {
         try {
             Object obj = claz.newInstance();
-            final List<Field> fieldList = new ArrayList<>();
-            getAllFields(fieldList, claz);
-            for (Field field : fieldList) {
-                Class<?> type = field.getType();
-                if (type.equals(Boolean.class)) {
-                    setter(obj, field.getName(), true, type);
-                } else if (type.equals(Byte.class)) {
-                    setter(obj, field.getName(), new Byte("0"), type);
-                } else if (type.equals(Short.class)) {
-                    setter(obj, field.getName(), new Short("0"), type);
-                } else if (type.equals(Integer.class)) {
-                    setter(obj, field.getName(), 0, type);
-                } else if (type.equals(Long.class)) {
-                    setter(obj, field.getName(), 0L, type);
-                } else if (type.equals(Float.class)) {
-                    setter(obj, field.getName(), 0.0f, type);
-                } else if (type.equals(Double.class)) {
-                    setter(obj, field.getName(), 0.0, type);
-                } else if (type.equals(String.class)) {
-                    setter(obj, field.getName(), "string", type);
-                } else if (!type.isPrimitive()) {
-                    Object value = createExampleInstance(field.getType());
-                    setter(obj, field.getName(), value, type);
+            for (FieldSetter fieldSetter : getFieldSetters(claz)) {
+                Object value = DEFAULT_VALUES.containsKey(fieldSetter.type)
+                        ? DEFAULT_VALUES.get(fieldSetter.type) : createExampleInstance(fieldSetter.type);
+                try {
+                    fieldSetter.setter.invoke(obj, value);
+                } catch (Exception e) {
+                    LOGGER.trace("generate json example data error when invoke setter," +
+                            " filed {} setValue {} cause {}", fieldSetter.setter.getName(), value, e);
                 }
             }
             return obj;
@@ -81,7 +162,92 @@ public class GenerateJsonSchemaUtil {
                     " class {}, cause {}", claz, e);
         }
         return null;
+    }
 
+    private static List<FieldSetter> getFieldSetters(final Class<?> claz) {
+        List<FieldSetter> setters = SETTER_CACHE.get(claz);
+        if (setters == null) {
+            setters = new ArrayList<>();
+            final List<Field> fieldList = new ArrayList<>();
+            getAllFields(fieldList, claz);
+            for (Field field : fieldList) {
+                Class<?> type = field.getType();
+                if (type.isPrimitive() || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    setters.add(new FieldSetter(claz.getMethod("set" + toUpperCaseFirstOne(field.getName()), type), type));
+                } catch (NoSuchMethodException e) {
+                    LOGGER.trace("generate json example data, setter of field {} not found", field.getName());
+                }
+            }
+            SETTER_CACHE.putIfAbsent(claz, setters);
+        }
+        return setters;
+    }
+
+    private static ObjectNode schemaOf(final JavaType type, final ObjectMapper mapper,
+                                       final ObjectNode definitions, final boolean root) {
+        ObjectNode node = mapper.createObjectNode();
+        Class<?> raw = type.getRawClass();
+        if (raw == String.class || raw == Character.class || raw == char.class) {
+            node.put("type", "string");
+        } else if (raw == Boolean.class || raw == boolean.class) {
+            node.put("type", "boolean");
+        } else if (raw == Integer.class || raw == int.class || raw == Long.class || raw == long.class
+                || raw == Short.class || raw == short.class || raw == Byte.class || raw == byte.class
+                || raw == BigInteger.class) {
+            node.put("type", "integer");
+        } else if (raw == Double.class || raw == double.class || raw == Float.class || raw == float.class
+                || raw == BigDecimal.class || Number.class.isAssignableFrom(raw)) {
+            node.put("type", "number");
+        } else if (Date.class.isAssignableFrom(raw)) {
+            node.put("type", "string");
+            node.put("format", "date-time");
+        } else if (raw.isEnum()) {
+            node.put("type", "string");
+            ArrayNode values = node.putArray("enum");
+            for (Object constant : raw.getEnumConstants()) {
+                values.add(((Enum<?>) constant).name());
+            }
+        } else if (type.isArrayType() || type.isCollectionLikeType()) {
+            node.put("type", "array");
+            JavaType contentType = type.getContentType();
+            if (contentType != null && contentType.getRawClass() != Object.class) {
+                node.set("items", schemaOf(contentType, mapper, definitions, false));
+            }
+        } else if (type.isMapLikeType()) {
+            node.put("type", "object");
+            JavaType contentType = type.getContentType();
+            if (contentType != null && contentType.getRawClass() != Object.class) {
+                node.set("additionalProperties", schemaOf(contentType, mapper, definitions, false));
+            }
+        } else if (raw == Object.class || raw == Void.class || raw == void.class) {
+            return node;
+        } else if (root) {
+            fillObjectSchema(node, type, mapper, definitions);
+        } else {
+            String name = raw.getName();
+            if (!definitions.has(name)) {
+                // 先占位，循环引用时直接引用该定义
+                ObjectNode definition = definitions.putObject(name);
+                fillObjectSchema(definition, type, mapper, definitions);
+            }
+            node.put("$ref", "#/" + DEFINITIONS + "/" + name);
+        }
+        return node;
+    }
+
+    private static void fillObjectSchema(final ObjectNode node, final JavaType type,
+                                         final ObjectMapper mapper, final ObjectNode definitions) {
+        node.put("type", "object");
+        ObjectNode properties = node.putObject("properties");
+        BeanDescription description = mapper.getSerializationConfig().introspect(type);
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldSerialize()) {
+                properties.set(property.getName(), schemaOf(property.getPrimaryType(), mapper, definitions, false));
+            }
+        }
     }
 
     private static void getAllFields(final List<Field> fieldList, Class<?> clazz) {
@@ -92,18 +258,6 @@ public class GenerateJsonSchemaUtil {
         }
     }
 
-    private static void setter(Object obj, String att, Object value, Class<?> type) {
-        try {
-            Method met = obj.getClass().getMethod("set" + toUpperCaseFirstOne(att), type);    // 得到setter方法
-            if (met != null) {
-                met.invoke(obj, value);
-            }
-        } catch (Exception e) {
-            LOGGER.trace("generate json example data error when invoke setter," +
-                    " filed {} setValue {} cause {}", att, value, e);
-        }
-    }
-
     private static String toUpperCaseFirstOne(String s) {
         if (Character.isUpperCase(s.charAt(0)))
             return s;
@@ -111,4 +265,26 @@ public class GenerateJsonSchemaUtil {
             return Character.toUpperCase(s.charAt(0)) + s.substring(1);
     }
 
+    private static final class Generation {
+
+        final Map<Class<?>, Integer> depths = new HashMap<>();
+
+        /**
+         * 因循环引用被置空的字段所指向的类中，嵌套深度最小的
+         */
+        int lowestCutDepth = Integer.MAX_VALUE;
+    }
+
+    private static final class FieldSetter {
+
+        final Method setter;
+
+        final Class<?> type;
+
+        FieldSetter(Method setter, Class<?> type) {
+            this.setter = setter;
+            this.type = type;
+        }
+    }
+
 }
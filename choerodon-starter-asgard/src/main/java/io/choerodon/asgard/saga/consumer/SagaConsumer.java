@@ -2,13 +2,21 @@ package io.choerodon.asgard.saga.consumer;
 
 import io.choerodon.asgard.common.AbstractAsgardConsumer;
 import io.choerodon.asgard.common.ApplicationContextHelper;
+import io.choerodon.asgard.common.AsgardBulkheads;
 import io.choerodon.asgard.common.UpdateStatusDTO;
+import io.choerodon.asgard.common.diagnostic.InFlightInvocation;
+import io.choerodon.asgard.common.jfr.AsgardFlightEvent;
+import io.choerodon.asgard.common.jfr.AsgardFlightRecorder;
 import io.choerodon.asgard.saga.SagaDefinition;
+import io.choerodon.asgard.saga.SagaPayloadCodec;
 import io.choerodon.asgard.saga.SagaProperties;
 import io.choerodon.asgard.saga.annotation.SagaTask;
 import io.choerodon.asgard.saga.dto.PollSagaTaskInstanceDTO;
 import io.choerodon.asgard.saga.dto.SagaTaskInstanceDTO;
 import io.choerodon.asgard.saga.feign.SagaConsumerClient;
+import io.choerodon.asgard.saga.trace.SagaStageTimings;
+import io.choerodon.asgard.saga.trace.SagaTimingListener;
+import io.choerodon.asgard.saga.trace.SagaTraceContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,9 +26,11 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
@@ -33,12 +43,21 @@ public class SagaConsumer extends AbstractAsgardConsumer {
 
     static final Map<String, SagaTaskInvokeBean> invokeBeanMap = new HashMap<>();
 
+    /**
+     * 本服务中定义了@SagaTask的saga code，由{@link SagaTaskProcessor}收集
+     */
+    private Set<String> localSagaCodes = Collections.emptySet();
+
     private SagaConsumerClient consumerClient;
 
     private PollSagaTaskInstanceDTO pollDTO;
 
     private SagaProperties properties;
 
+    private SagaPayloadCodec payloadCodec = new SagaPayloadCodec(false, Integer.MAX_VALUE);
+
+    private SagaTimingListener timingListener;
+
     public SagaConsumer(String service, String instance, PlatformTransactionManager transactionManager,
                         Executor executor, ScheduledExecutorService scheduledExecutorService,
                         ApplicationContextHelper contextHelper, long pollIntervalMs) {
@@ -53,15 +72,61 @@ public class SagaConsumer extends AbstractAsgardConsumer {
         this.properties = properties;
     }
 
+    public void setPayloadCodec(SagaPayloadCodec payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
+    public void setTimingListener(SagaTimingListener timingListener) {
+        this.timingListener = timingListener;
+    }
+
+    public void setLocalSagaCodes(Set<String> localSagaCodes) {
+        this.localSagaCodes = localSagaCodes;
+    }
+
+    /**
+     * 本服务发起的saga确认后调用，若开启本地派发且本服务消费该saga则立即触发一次拉取，
+     * 任务状态仍以asgard为准。触发失败(如停机时线程池拒绝)只记录日志，不影响调用方
+     *
+     * @param sagaCode saga code
+     */
+    public void onSagaConfirmed(String sagaCode) {
+        if (!isLocalDispatch(sagaCode)) {
+            return;
+        }
+        LOGGER.trace("SagaConsumer local dispatch, sagaCode: {}", sagaCode);
+        try {
+            triggerPoll();
+        } catch (Exception e) {
+            LOGGER.warn("SagaConsumer local dispatch failed, sagaCode: {}", sagaCode, e);
+        }
+    }
+
+    private boolean isLocalDispatch(String sagaCode) {
+        return properties != null && Boolean.TRUE.equals(properties.getConsumer().getLocalDispatchEnabled())
+                && sagaCode != null && localSagaCodes.contains(sagaCode);
+    }
+
     @Override
     public void scheduleRunning(String instance) {
+        final AsgardFlightEvent pollEvent = AsgardFlightRecorder.poll(AsgardFlightRecorder.SAGA);
         try {
-            List<SagaTaskInstanceDTO> list = consumerClient.pollBatch(getPollDTO());
+            final List<SagaTaskInstanceDTO> list;
+            try {
+                list = consumerClient.pollBatch(getPollDTO());
+                pollEvent.batchSize(list == null ? 0 : list.size());
+            } catch (Exception e) {
+                pollEvent.failed();
+                throw e;
+            } finally {
+                pollEvent.commit();
+            }
+            final long polledTime = System.currentTimeMillis();
             if (!CollectionUtils.isEmpty(list)) {
                 list.forEach(t -> {
                     LOGGER.trace("SagaConsumer polled sagaTaskInstances: {}", t);
                     runningTasks.add(t.getId());
-                    CompletableFuture.supplyAsync(() -> invoke(t), executor)
+                    CompletableFuture.supplyAsync(() -> invoke(t, polledTime), executorFor(getBulkhead(t)))
                             .exceptionally(ex -> {
                                 LOGGER.warn("@SagaTask method code: {}, id: {} supplyAsync failed", t.getTaskCode(), t.getId(), ex);
                                 return null;
@@ -78,40 +143,110 @@ public class SagaConsumer extends AbstractAsgardConsumer {
         if (pollDTO == null) {
             pollDTO = new PollSagaTaskInstanceDTO(instance, service, this.properties.getConsumer().getMaxPollSize(), runningTasks);
         }
+        pollDTO.setMaxPollSize(getMaxPollSize());
         return pollDTO;
     }
 
+    /**
+     * 配置了隔离线程池时按各线程池的空闲容量之和限制拉取数量，至少拉取1个
+     */
+    int getMaxPollSize() {
+        int maxPollSize = properties.getConsumer().getMaxPollSize();
+        AsgardBulkheads bulkheads = getBulkheads();
+        if (bulkheads == null || bulkheads.isEmpty()) {
+            return maxPollSize;
+        }
+        return Math.max(1, Math.min(maxPollSize, bulkheads.freeCapacity()));
+    }
+
+    private static String getBulkhead(SagaTaskInstanceDTO data) {
+        SagaTaskInvokeBean invokeBean = invokeBeanMap.get(data.getSagaCode() + data.getTaskCode());
+        return invokeBean == null ? null : invokeBean.sagaTask.executor();
+    }
+
 
     /**
      * 执行@SagaTask注解的方法
      */
-    private SagaTaskInstanceDTO invoke(final SagaTaskInstanceDTO data) {
+    private SagaTaskInstanceDTO invoke(final SagaTaskInstanceDTO data, final long polledTime) {
+        final String traceparent = SagaTraceContext.childOf(data.getTraceparent());
+        final SagaStageTimings timings = new SagaStageTimings(traceparent, data.getSagaCode(), data.getTaskCode())
+                .mark(SagaStageTimings.POLLED, polledTime)
+                .mark(SagaStageTimings.DEQUEUED);
         final SagaTaskInvokeBean invokeBean = invokeBeanMap.get(data.getSagaCode() + data.getTaskCode());
         final SagaTask sagaTask = invokeBean.sagaTask;
+        final String code = data.getSagaCode() + ":" + data.getTaskCode();
+        final AsgardFlightEvent invokeEvent = AsgardFlightRecorder.invoke(InFlightInvocation.TYPE_SAGA_TASK, code, data.getId());
         PlatformTransactionManager platformTransactionManager = getSagaTaskTransactionManager(sagaTask.transactionManager());
+        invokeEvent.beginTransaction();
         TransactionStatus status = createTransactionStatus(transactionManager, sagaTask.transactionIsolation().value());
-        beforeInvoke(data.getUserDetails());
+        invokeEvent.endTransaction();
+        beforeInvoke(data.getUserDetails(), traceparent);
+        final InFlightInvocation inFlight = startInvocation(InFlightInvocation.TYPE_SAGA_TASK, code, data.getId());
+        boolean completed = false;
         try {
             invokeBean.method.setAccessible(true);
-            final Object result = invokeBean.method.invoke(invokeBean.object, data.getInput());
-            consumerClient.updateStatus(data.getId(),
+            timings.mark(SagaStageTimings.STARTED);
+            invokeEvent.beginMethod();
+            final Object result;
+            try {
+                result = invokeBean.method.invoke(invokeBean.object, payloadCodec.decode(data.getInput()));
+            } finally {
+                invokeEvent.endMethod();
+            }
+            updateStatus(data.getId(),
                     UpdateStatusDTO.UpdateStatusDTOBuilder.newInstance()
                             .withStatus(SagaDefinition.TaskInstanceStatus.COMPLETED.name())
                             .withOutput(resultToJson(result, objectMapper))
                             .withId(data.getId())
                             .withObjectVersionNumber(data.getObjectVersionNumber()).build());
             runningTasks.remove(data.getId());
+            invokeEvent.beginTransaction();
             platformTransactionManager.commit(status);
+            invokeEvent.endTransaction();
+            completed = true;
         } catch (Exception e) {
             LOGGER.info("@SagaTask method code: {}, id: {} invoke error", data.getTaskCode(), data.getId(), getLoggerException(e));
             String errorMsg = getErrorInfoFromException(e);
+            invokeEvent.failed();
             invokeError(platformTransactionManager, status, data, errorMsg, invokeBean);
+            timings.setSuccess(false);
         } finally {
+            invokeEvent.commit();
+            finishInvocation(inFlight);
             afterInvoke();
+            publishTimings(timings.mark(SagaStageTimings.FINISHED));
+        }
+        if (completed) {
+            // 后续任务可能也由本服务消费，事务已提交，不能再进入失败处理
+            onSagaConfirmed(data.getSagaCode());
         }
         return data;
     }
 
+    private ResponseEntity<String> updateStatus(final Long id, final UpdateStatusDTO statusDTO) {
+        final AsgardFlightEvent event = AsgardFlightRecorder.updateStatus(AsgardFlightRecorder.SAGA, id, statusDTO.getStatus());
+        try {
+            return consumerClient.updateStatus(id, statusDTO);
+        } catch (RuntimeException e) {
+            event.failed();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void publishTimings(SagaStageTimings timings) {
+        if (timingListener == null) {
+            return;
+        }
+        try {
+            timingListener.onTimings(timings);
+        } catch (Exception e) {
+            LOGGER.warn("saga timing listener error, sagaCode: {}, taskCode: {}", timings.getSagaCode(), timings.getTaskCode(), e);
+        }
+    }
+
 
     private void invokeError(final PlatformTransactionManager platformTransactionManager,
                              final TransactionStatus status,
@@ -124,7 +259,7 @@ public class SagaConsumer extends AbstractAsgardConsumer {
             LOGGER.warn("@SagaTask method code: {}, id: {} transaction rollback error", data.getTaskCode(), data.getId(), e);
         } finally {
             try {
-                ResponseEntity<String> responseEntity = consumerClient.updateStatus(data.getId(),
+                ResponseEntity<String> responseEntity = updateStatus(data.getId(),
                         UpdateStatusDTO.UpdateStatusDTOBuilder.newInstance()
                                 .withStatus(SagaDefinition.TaskInstanceStatus.FAILED.name())
                                 .withExceptionMessage(errorMsg)
@@ -143,7 +278,7 @@ public class SagaConsumer extends AbstractAsgardConsumer {
         if (!StringUtils.isEmpty(sagaTaskInstanceStatus) && sagaTaskInstanceStatus.equals(SagaDefinition.TaskInstanceStatus.FAILED.name())) {
             String failureCallbackStatus = SagaDefinition.TaskInstanceStatus.COMPLETED.name();
             try {
-                invokeBean.failureCallbackMethod.invoke(invokeBean.failureCallbackObject, data.getInput());
+                invokeBean.failureCallbackMethod.invoke(invokeBean.failureCallbackObject, payloadCodec.decode(data.getInput()));
             } catch (Exception e) {
                 failureCallbackStatus = SagaDefinition.TaskInstanceStatus.FAILED.name();
                 e.printStackTrace();
@@ -163,7 +298,7 @@ public class SagaConsumer extends AbstractAsgardConsumer {
                     LOGGER.error("@SagaTask method id: {} queryStatus failed", id);
                     return id;
                 }
-                consumerClient.updateStatus(id, UpdateStatusDTO.UpdateStatusDTOBuilder.newInstance()
+                updateStatus(id, UpdateStatusDTO.UpdateStatusDTOBuilder.newInstance()
                         .withStatus(SagaDefinition.TaskInstanceStatus.FAILED.name())
                         .withExceptionMessage(errorMsg)
                         .withId(id)
@@ -1,23 +1,34 @@
 package io.choerodon.asgard.saga.consumer;
 
+import io.choerodon.asgard.common.index.AsgardAnnotationScanner;
 import io.choerodon.asgard.saga.annotation.SagaTask;
 import io.choerodon.asgard.saga.exception.SagaTaskCodeUniqueException;
 import io.choerodon.asgard.saga.exception.SagaTaskMethodParameterException;
 import io.choerodon.core.exception.CommonException;
 
 import org.springframework.beans.factory.config.BeanPostProcessor;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.choerodon.asgard.saga.consumer.SagaConsumer.invokeBeanMap;
 
 public class SagaTaskProcessor implements BeanPostProcessor {
+
+    /**
+     * 本服务中定义了@SagaTask的saga code
+     */
+    private final Set<String> sagaCodes = ConcurrentHashMap.newKeySet();
+
+    public Set<String> getSagaCodes() {
+        return sagaCodes;
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) {
         return bean;
@@ -25,9 +36,9 @@ public class SagaTaskProcessor implements BeanPostProcessor {
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) {
-        Method[] methods = ReflectionUtils.getAllDeclaredMethods(bean.getClass());
-        for (Method method : methods) {
-            SagaTask sagaTask = AnnotationUtils.getAnnotation(method, SagaTask.class);
+        for (AsgardAnnotationScanner.ScannedMethod scannedMethod : AsgardAnnotationScanner.scan(bean.getClass()).getMethods()) {
+            Method method = scannedMethod.getMethod();
+            SagaTask sagaTask = scannedMethod.getDeclaredSagaTask();
             if (sagaTask != null) {
                 String key = sagaTask.sagaCode() + sagaTask.code();
                 errorCheck(method, sagaTask, key);
@@ -55,6 +66,7 @@ public class SagaTaskProcessor implements BeanPostProcessor {
                     }
                 }
                 invokeBeanMap.put(key, new SagaTaskInvokeBean(method, bean, sagaTask, key, failureCallbackObject, failureCallbackMethod));
+                sagaCodes.add(sagaTask.sagaCode());
             }
         }
         return bean;
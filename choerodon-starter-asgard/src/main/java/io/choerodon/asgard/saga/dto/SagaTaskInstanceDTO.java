@@ -18,6 +18,8 @@ public class SagaTaskInstanceDTO {
 
     private CustomUserDetails userDetails;
 
+    private String traceparent;
+
     public Long getId() {
         return id;
     }
@@ -74,6 +76,14 @@ public class SagaTaskInstanceDTO {
         this.userDetails = userDetails;
     }
 
+    public String getTraceparent() {
+        return traceparent;
+    }
+
+    public void setTraceparent(String traceparent) {
+        this.traceparent = traceparent;
+    }
+
     @Override
     public String toString() {
         return "SagaTaskInstanceDTO{" +
@@ -83,6 +93,7 @@ public class SagaTaskInstanceDTO {
                 ", sagaCode='" + sagaCode + '\'' +
                 ", input='" + input + '\'' +
                 ", objectVersionNumber=" + objectVersionNumber +
+                ", traceparent='" + traceparent + '\'' +
                 '}';
     }
 }
@@ -18,6 +18,8 @@ public class StartInstanceDTO {
 
     private String service;
 
+    private String traceparent;
+
     public StartInstanceDTO() {
     }
 
@@ -103,6 +105,14 @@ public class StartInstanceDTO {
         this.service = service;
     }
 
+    public String getTraceparent() {
+        return traceparent;
+    }
+
+    public void setTraceparent(String traceparent) {
+        this.traceparent = traceparent;
+    }
+
     @Override
     public String toString() {
         return "StartInstanceDTO{" +
@@ -114,6 +124,7 @@ public class StartInstanceDTO {
                 ", sourceId=" + sourceId +
                 ", uuid='" + uuid + '\'' +
                 ", service='" + service + '\'' +
+                ", traceparent='" + traceparent + '\'' +
                 '}';
     }
 }
@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(name = "${choerodon.saga.service:choerodon-asgard}", fallback = SagaClientCallback.class)
 public interface SagaClient {
 
@@ -32,4 +34,16 @@ public interface SagaClient {
     @PutMapping("/v1/sagas/instances/{uuid}/cancel")
     void cancelSaga(@PathVariable("uuid") String uuid);
 
+
+    @PostMapping("/v1/sagas/instances/batch")
+    List<SagaInstanceDTO> preCreateSagaBatch(@RequestBody List<StartInstanceDTO> instanceDTOs);
+
+
+    @PostMapping("/v1/sagas/instances/confirm/batch")
+    void confirmSagaBatch(@RequestBody List<StartInstanceDTO> dtos);
+
+
+    @PutMapping("/v1/sagas/instances/cancel/batch")
+    void cancelSagaBatch(@RequestBody List<String> uuids);
+
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import io.choerodon.asgard.saga.dto.SagaInstanceDTO;
 import io.choerodon.asgard.saga.dto.StartInstanceDTO;
 import io.choerodon.asgard.saga.exception.SagaProducerException;
 
+import java.util.List;
+
 public class SagaClientCallback implements SagaClient {
 
     /**
@@ -30,4 +32,19 @@ public class SagaClientCallback implements SagaClient {
         throw new SagaProducerException("error.saga.cancel, uuid: " + uuid);
     }
 
+    @Override
+    public List<SagaInstanceDTO> preCreateSagaBatch(List<StartInstanceDTO> instanceDTOs) {
+        throw new SagaProducerException("error.saga.preCreateBatch, size: " + instanceDTOs.size());
+    }
+
+    @Override
+    public void confirmSagaBatch(List<StartInstanceDTO> dtos) {
+        throw new SagaProducerException("error.saga.confirmBatch, size: " + dtos.size());
+    }
+
+    @Override
+    public void cancelSagaBatch(List<String> uuids) {
+        throw new SagaProducerException("error.saga.cancelBatch, uuids: " + uuids);
+    }
+
 }
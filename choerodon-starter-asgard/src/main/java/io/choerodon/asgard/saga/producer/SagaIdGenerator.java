@@ -0,0 +1,15 @@
+package io.choerodon.asgard.saga.producer;
+
+/**
+ * saga实例uuid生成器
+ */
+public interface SagaIdGenerator {
+
+    /**
+     * 生成32位无分隔符的十六进制id
+     *
+     * @return saga实例uuid
+     */
+    String generate();
+
+}
@@ -2,19 +2,38 @@ package io.choerodon.asgard.saga.producer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+import io.choerodon.asgard.saga.SagaPayloadCodec;
 import io.choerodon.asgard.saga.dto.StartInstanceDTO;
 import io.choerodon.asgard.saga.exception.SagaProducerException;
+import io.choerodon.asgard.saga.trace.SagaTraceContext;
 import io.choerodon.core.iam.ResourceLevel;
 
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+
 public final class StartSagaBuilder {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = new ObjectMapper().writer();
 
     private StartInstanceDTO startInstanceDTO;
 
+    /**
+     * 已序列化但尚未编码的payload，在confirmBuild时经payloadCodec编码后写入input
+     */
+    private byte[] payload;
+
+    /**
+     * withJson传入的payload，与序列化的payload一样在confirmBuild时编码后写入input
+     */
+    private String json;
+
+    private SagaPayloadCodec payloadCodec;
+
+    private boolean payloadEncoded;
+
     private StartSagaBuilder() {
         startInstanceDTO = new StartInstanceDTO();
     }
@@ -29,15 +48,20 @@ public final class StartSagaBuilder {
     }
 
     public StartSagaBuilder withJson(String json) {
-        startInstanceDTO.setInput(json);
+        this.json = json;
+        this.payload = null;
+        this.payloadEncoded = false;
+        startInstanceDTO.setInput(null);
         return this;
     }
 
     public StartSagaBuilder withPayloadAndSerialize(Object payload) {
         try {
             if (payload != null) {
-                String json = MAPPER.writeValueAsString(payload);
-                startInstanceDTO.setInput(json);
+                this.payload = WRITER.writeValueAsBytes(payload);
+                this.json = null;
+                this.payloadEncoded = false;
+                startInstanceDTO.setInput(null);
             }
         } catch (JsonProcessingException e) {
             throw new SagaProducerException("error.startSagaBuilder.withPayloadAndSerialize", e);
@@ -65,6 +89,16 @@ public final class StartSagaBuilder {
         return this;
     }
 
+    /**
+     * 指定链路标识，未指定时沿用当前线程MDC中的traceId或重新生成
+     *
+     * @param traceparent W3C traceparent
+     */
+    public StartSagaBuilder withTraceparent(String traceparent) {
+        startInstanceDTO.setTraceparent(traceparent);
+        return this;
+    }
+
     StartSagaBuilder withService(String service) {
         startInstanceDTO.setService(service);
         return this;
@@ -75,6 +109,11 @@ public final class StartSagaBuilder {
         return this;
     }
 
+    StartSagaBuilder withPayloadCodec(SagaPayloadCodec payloadCodec) {
+        this.payloadCodec = payloadCodec;
+        return this;
+    }
+
     StartInstanceDTO preBuild() {
         if (StringUtils.isEmpty(startInstanceDTO.getSagaCode())) {
             throw new SagaProducerException("error.startSaga.sagaCodeIsEmpty");
@@ -85,10 +124,14 @@ public final class StartSagaBuilder {
         if (startInstanceDTO.getSourceId() == null) {
             startInstanceDTO.setSourceId(0L);
         }
+        if (startInstanceDTO.getTraceparent() == null) {
+            startInstanceDTO.setTraceparent(SagaTraceContext.newTraceparent());
+        }
         return startInstanceDTO;
     }
 
     StartInstanceDTO confirmBuild() {
+        encodePayload();
         if (startInstanceDTO.getInput() == null) {
             throw new SagaProducerException("error.startSaga.inputIsNull");
         }
@@ -98,4 +141,19 @@ public final class StartSagaBuilder {
         return startInstanceDTO;
     }
 
+    private void encodePayload() {
+        if (payloadEncoded) {
+            return;
+        }
+        if (payload != null) {
+            startInstanceDTO.setInput(payloadCodec == null
+                    ? new String(payload, StandardCharsets.UTF_8) : payloadCodec.encode(payload));
+            payload = null;
+        } else if (json != null) {
+            startInstanceDTO.setInput(payloadCodec == null ? json : payloadCodec.encode(json));
+            json = null;
+        }
+        payloadEncoded = true;
+    }
+
 }
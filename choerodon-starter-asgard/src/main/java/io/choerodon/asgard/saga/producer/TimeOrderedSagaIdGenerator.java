@@ -0,0 +1,52 @@
+package io.choerodon.asgard.saga.producer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间递增的saga id生成器，格式与UUIDv7一致：
+ * 48位毫秒时间戳 + 4位版本号 + 12位同毫秒内序号 + 2位变体 + 62位随机数。
+ * <p>
+ * 同一个生成器生成的id严格单调递增，使asgard_producer_record的主键插入基本为追加写。
+ */
+public class TimeOrderedSagaIdGenerator implements SagaIdGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int SEQUENCE_BITS = 12;
+
+    /**
+     * 高位为毫秒时间戳，低12位为同毫秒内序号；序号用尽时借用下一毫秒，保证单调
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Override
+    public String generate() {
+        long state = nextState();
+        long msb = ((state >>> SEQUENCE_BITS) << 16) | 0x7000L | (state & 0xFFFL);
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        char[] chars = new char[32];
+        toHex(msb, chars, 0);
+        toHex(lsb, chars, 16);
+        return new String(chars);
+    }
+
+    private long nextState() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            long next = Math.max(last + 1, now);
+            if (lastState.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static void toHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+}
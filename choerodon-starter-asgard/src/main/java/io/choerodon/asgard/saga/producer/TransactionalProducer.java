@@ -3,6 +3,7 @@ package io.choerodon.asgard.saga.producer;
 
 import org.springframework.transaction.TransactionDefinition;
 
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -22,4 +23,17 @@ public interface TransactionalProducer {
                final Consumer<StartSagaBuilder> consumer,
                final TransactionDefinition definition);
 
+    /**
+     * 在同一个事务内批量发起saga，一致性记录批量写入
+     *
+     * @param builders 每个saga对应一个builder
+     * @param consumer 业务逻辑，可在其中为各builder设置payload和refId等
+     */
+    void applyBatch(final List<StartSagaBuilder> builders,
+                    final Consumer<List<StartSagaBuilder>> consumer);
+
+    void applyBatch(final List<StartSagaBuilder> builders,
+                    final Consumer<List<StartSagaBuilder>> consumer,
+                    final TransactionDefinition definition);
+
 }
@@ -1,14 +1,22 @@
 package io.choerodon.asgard.saga.producer;
 
+import io.choerodon.asgard.saga.SagaPayloadCodec;
+import io.choerodon.asgard.saga.consumer.SagaConsumer;
+import io.choerodon.asgard.saga.dto.StartInstanceDTO;
 import io.choerodon.asgard.saga.feign.SagaClient;
 import io.choerodon.asgard.saga.producer.consistency.SagaProducerConsistencyHandler;
+import io.choerodon.asgard.saga.trace.SagaStageTimings;
+import io.choerodon.asgard.saga.trace.SagaTimingListener;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -17,6 +25,8 @@ import static org.springframework.transaction.TransactionDefinition.ISOLATION_DE
 
 public class TransactionalProducerImpl implements TransactionalProducer {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionalProducerImpl.class);
+
     private PlatformTransactionManager transactionManager;
 
     private SagaProducerConsistencyHandler consistencyHandler;
@@ -25,6 +35,16 @@ public class TransactionalProducerImpl implements TransactionalProducer {
 
     private String service;
 
+    private SagaPayloadCodec payloadCodec;
+
+    private SagaIdGenerator idGenerator = new TimeOrderedSagaIdGenerator();
+
+    private boolean batchRequestEnabled;
+
+    private SagaConsumer localConsumer;
+
+    private SagaTimingListener timingListener;
+
     public TransactionalProducerImpl(PlatformTransactionManager transactionManager,
                                      SagaProducerConsistencyHandler consistencyHandler,
                                      SagaClient sagaClient,
@@ -35,8 +55,49 @@ public class TransactionalProducerImpl implements TransactionalProducer {
         this.service = service;
     }
 
+    public void setPayloadCodec(SagaPayloadCodec payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
+    public void setIdGenerator(SagaIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * 开启后applyBatch使用asgard的批量接口，需要asgard服务端支持；关闭时逐条调用
+     */
+    public void setBatchRequestEnabled(boolean batchRequestEnabled) {
+        this.batchRequestEnabled = batchRequestEnabled;
+    }
+
+    /**
+     * 同一服务内既发起又消费saga时，确认后通知本地消费者立即拉取
+     */
+    public void setLocalConsumer(SagaConsumer localConsumer) {
+        this.localConsumer = localConsumer;
+    }
+
+    public void setTimingListener(SagaTimingListener timingListener) {
+        this.timingListener = timingListener;
+    }
+
+    private void afterConfirm(StartInstanceDTO dto, long createdTime) {
+        if (localConsumer != null) {
+            localConsumer.onSagaConfirmed(dto.getSagaCode());
+        }
+        if (timingListener != null) {
+            try {
+                timingListener.onTimings(new SagaStageTimings(dto.getTraceparent(), dto.getSagaCode(), null)
+                        .mark(SagaStageTimings.CREATED, createdTime)
+                        .mark(SagaStageTimings.CONFIRMED));
+            } catch (Exception e) {
+                LOGGER.warn("saga timing listener error, uuid: {}", dto.getUuid(), e);
+            }
+        }
+    }
+
     private String generateUUID() {
-        return UUID.randomUUID().toString().replaceAll("-", "");
+        return idGenerator.generate();
     }
 
 
@@ -61,9 +122,10 @@ public class TransactionalProducerImpl implements TransactionalProducer {
                                 Function<StartSagaBuilder, T> function,
                                 TransactionDefinition definition) {
         T result;
+        long createdTime = System.currentTimeMillis();
         String uuid = generateUUID();
         TransactionStatus status = transactionManager.getTransaction(definition);
-        builder.withUuid(uuid).withService(service);
+        builder.withUuid(uuid).withService(service).withPayloadCodec(payloadCodec);
         try {
             // 解决TransactionalProducer.applyAndReturn() function中设置 sourceId不生效问题
             result = function.apply(builder);
@@ -76,7 +138,9 @@ public class TransactionalProducerImpl implements TransactionalProducer {
             sagaClient.cancelSaga(uuid);
             throw e;
         }
-        sagaClient.confirmSaga(uuid, builder.confirmBuild());
+        StartInstanceDTO dto = builder.confirmBuild();
+        sagaClient.confirmSaga(uuid, dto);
+        afterConfirm(dto, createdTime);
         return result;
     }
 
@@ -84,9 +148,10 @@ public class TransactionalProducerImpl implements TransactionalProducer {
     public void apply(StartSagaBuilder builder,
                       Consumer<StartSagaBuilder> consumer,
                       TransactionDefinition definition) {
+        long createdTime = System.currentTimeMillis();
         String uuid = generateUUID();
         TransactionStatus status = transactionManager.getTransaction(definition);
-        builder.withUuid(uuid).withService(service);
+        builder.withUuid(uuid).withService(service).withPayloadCodec(payloadCodec);
         try {
             sagaClient.preCreateSaga(builder.preBuild());
             consumer.accept(builder);
@@ -98,6 +163,89 @@ public class TransactionalProducerImpl implements TransactionalProducer {
             sagaClient.cancelSaga(uuid);
             throw e;
         }
-        sagaClient.confirmSaga(uuid, builder.confirmBuild());
+        StartInstanceDTO dto = builder.confirmBuild();
+        sagaClient.confirmSaga(uuid, dto);
+        afterConfirm(dto, createdTime);
+    }
+
+    @Override
+    public void applyBatch(final List<StartSagaBuilder> builders, final Consumer<List<StartSagaBuilder>> consumer) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        def.setPropagationBehavior(DefaultTransactionDefinition.PROPAGATION_REQUIRED);
+        def.setIsolationLevel(ISOLATION_DEFAULT);
+        applyBatch(builders, consumer, def);
+    }
+
+    @Override
+    public void applyBatch(List<StartSagaBuilder> builders,
+                           Consumer<List<StartSagaBuilder>> consumer,
+                           TransactionDefinition definition) {
+        long createdTime = System.currentTimeMillis();
+        List<String> uuids = new ArrayList<>(builders.size());
+        for (StartSagaBuilder builder : builders) {
+            String uuid = generateUUID();
+            uuids.add(uuid);
+            builder.withUuid(uuid).withService(service).withPayloadCodec(payloadCodec);
+        }
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        List<StartInstanceDTO> confirmed;
+        try {
+            preCreateBatch(builders);
+            consumer.accept(builders);
+            confirmed = new ArrayList<>(builders.size());
+            for (StartSagaBuilder builder : builders) {
+                confirmed.add(builder.confirmBuild());
+            }
+            consistencyHandler.beforeTransactionCommit(confirmed);
+            transactionManager.commit(status);
+        } catch (Exception e) {
+            consistencyHandler.beforeTransactionCancel(uuids);
+            transactionManager.rollback(status);
+            cancelBatch(uuids);
+            throw e;
+        }
+        confirmBatch(confirmed);
+        for (StartInstanceDTO dto : confirmed) {
+            afterConfirm(dto, createdTime);
+        }
+    }
+
+    private void preCreateBatch(List<StartSagaBuilder> builders) {
+        List<StartInstanceDTO> dtos = new ArrayList<>(builders.size());
+        for (StartSagaBuilder builder : builders) {
+            dtos.add(builder.preBuild());
+        }
+        if (batchRequestEnabled) {
+            sagaClient.preCreateSagaBatch(dtos);
+            return;
+        }
+        for (StartInstanceDTO dto : dtos) {
+            sagaClient.preCreateSaga(dto);
+        }
+    }
+
+    private void confirmBatch(List<StartInstanceDTO> dtos) {
+        if (batchRequestEnabled) {
+            sagaClient.confirmSagaBatch(dtos);
+        } else {
+            for (StartInstanceDTO dto : dtos) {
+                sagaClient.confirmSaga(dto.getUuid(), dto);
+            }
+        }
+    }
+
+    private void cancelBatch(List<String> uuids) {
+        if (batchRequestEnabled) {
+            sagaClient.cancelSagaBatch(uuids);
+            return;
+        }
+        // 逐条取消时单条失败不影响其余saga，未取消的由asgard回查处理
+        for (String uuid : uuids) {
+            try {
+                sagaClient.cancelSaga(uuid);
+            } catch (Exception e) {
+                LOGGER.warn("error.saga.cancel, uuid: {}", uuid, e);
+            }
+        }
     }
 }
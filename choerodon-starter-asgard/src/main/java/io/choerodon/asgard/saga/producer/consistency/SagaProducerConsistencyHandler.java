@@ -6,6 +6,7 @@ import io.choerodon.asgard.saga.dto.StartInstanceDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -32,6 +33,23 @@ public abstract class SagaProducerConsistencyHandler {
 
     public abstract void beforeTransactionCancel(String uuid);
 
+    /**
+     * 批量记录，默认逐条调用{@link #beforeTransactionCommit(String, StartInstanceDTO)}
+     *
+     * @param dtos 已设置uuid的saga实例
+     */
+    public void beforeTransactionCommit(List<StartInstanceDTO> dtos) {
+        for (StartInstanceDTO dto : dtos) {
+            beforeTransactionCommit(dto.getUuid(), dto);
+        }
+    }
+
+    public void beforeTransactionCancel(List<String> uuids) {
+        for (String uuid : uuids) {
+            beforeTransactionCancel(uuid);
+        }
+    }
+
     /**
      * 提供给choerodon-asgard回查使用
      *
@@ -9,6 +9,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -44,6 +47,22 @@ public class SagaProducerDbConsistencyHandler extends SagaProducerConsistencyHan
         LOGGER.trace("insert into asgard_producer_record,  UUID: {}", uuid);
     }
 
+    @Override
+    public void beforeTransactionCommit(List<StartInstanceDTO> dtos) {
+        long now = System.currentTimeMillis();
+        List<Object[]> batchArgs = new ArrayList<>(dtos.size());
+        for (StartInstanceDTO dto : dtos) {
+            batchArgs.add(new Object[]{dto.getUuid(), dto.getInput(), dto.getRefType(), dto.getRefId(), now});
+        }
+        int[] rows = jdbcTemplate.batchUpdate(INSERT_STATEMENT, batchArgs);
+        for (int row : rows) {
+            if (row != 1 && row != Statement.SUCCESS_NO_INFO) {
+                throw new SagaProducerException("error.saga.start.record");
+            }
+        }
+        LOGGER.trace("batch insert into asgard_producer_record, size: {}", dtos.size());
+    }
+
     @Override
     public void beforeTransactionCancel(String uuid) {
         // do nothing
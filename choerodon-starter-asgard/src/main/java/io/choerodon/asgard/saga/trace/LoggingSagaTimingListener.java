@@ -0,0 +1,17 @@
+package io.choerodon.asgard.saga.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 以debug日志输出saga阶段耗时
+ */
+public class LoggingSagaTimingListener implements SagaTimingListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingSagaTimingListener.class);
+
+    @Override
+    public void onTimings(SagaStageTimings timings) {
+        LOGGER.debug("{}", timings);
+    }
+}
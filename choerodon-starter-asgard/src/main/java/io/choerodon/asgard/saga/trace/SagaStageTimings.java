@@ -0,0 +1,106 @@
+package io.choerodon.asgard.saga.trace;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次saga发起或一次saga任务执行中各阶段的时间戳(毫秒)
+ * <p>
+ * 生产端阶段: {@link #CREATED}, {@link #CONFIRMED}；
+ * 消费端阶段: {@link #POLLED}, {@link #DEQUEUED}, {@link #STARTED}, {@link #FINISHED}
+ */
+public class SagaStageTimings {
+
+    public static final String CREATED = "created";
+
+    public static final String CONFIRMED = "confirmed";
+
+    public static final String POLLED = "polled";
+
+    public static final String DEQUEUED = "dequeued";
+
+    public static final String STARTED = "started";
+
+    public static final String FINISHED = "finished";
+
+    private final String traceparent;
+
+    private final String sagaCode;
+
+    private final String taskCode;
+
+    private final Map<String, Long> stages = new LinkedHashMap<>(8);
+
+    private boolean success = true;
+
+    public SagaStageTimings(String traceparent, String sagaCode, String taskCode) {
+        this.traceparent = traceparent;
+        this.sagaCode = sagaCode;
+        this.taskCode = taskCode;
+    }
+
+    public SagaStageTimings mark(String stage) {
+        return mark(stage, System.currentTimeMillis());
+    }
+
+    public SagaStageTimings mark(String stage, long timeMillis) {
+        stages.put(stage, timeMillis);
+        return this;
+    }
+
+    /**
+     * 两个阶段之间的耗时，任一阶段未记录时返回-1
+     */
+    public long between(String from, String to) {
+        Long start = stages.get(from);
+        Long end = stages.get(to);
+        return start == null || end == null ? -1 : end - start;
+    }
+
+    public String getTraceparent() {
+        return traceparent;
+    }
+
+    public String getTraceId() {
+        return SagaTraceContext.traceId(traceparent);
+    }
+
+    public String getSagaCode() {
+        return sagaCode;
+    }
+
+    public String getTaskCode() {
+        return taskCode;
+    }
+
+    public Map<String, Long> getStages() {
+        return Collections.unmodifiableMap(stages);
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SagaStageTimings{traceId=").append(getTraceId())
+                .append(", sagaCode=").append(sagaCode);
+        if (taskCode != null) {
+            sb.append(", taskCode=").append(taskCode);
+        }
+        sb.append(", success=").append(success);
+        Long first = null;
+        for (Map.Entry<String, Long> entry : stages.entrySet()) {
+            if (first == null) {
+                first = entry.getValue();
+            }
+            sb.append(", ").append(entry.getKey()).append("=+").append(entry.getValue() - first).append("ms");
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,14 @@
+package io.choerodon.asgard.saga.trace;
+
+/**
+ * saga各阶段耗时的导出接口，可自定义bean覆盖默认的日志实现以对接监控系统
+ */
+public interface SagaTimingListener {
+
+    /**
+     * 生产端saga确认后或消费端任务执行结束后调用，实现不应抛出异常或阻塞
+     *
+     * @param timings 阶段时间戳
+     */
+    void onTimings(SagaStageTimings timings);
+}
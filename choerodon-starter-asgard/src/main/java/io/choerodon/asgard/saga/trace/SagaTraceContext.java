@@ -0,0 +1,125 @@
+package io.choerodon.asgard.saga.trace;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C traceparent格式的链路标识: 00-{traceId 32位}-{spanId 16位}-01
+ * <p>
+ * 生产端发起saga时生成，随{@link io.choerodon.asgard.saga.dto.StartInstanceDTO}发送，
+ * 消费端执行任务前写入MDC，使同一个saga的日志和耗时可以按traceId关联
+ */
+public final class SagaTraceContext {
+
+    public static final String MDC_TRACE_ID = "traceId";
+
+    public static final String MDC_SPAN_ID = "spanId";
+
+    public static final String MDC_TRACEPARENT = "traceparent";
+
+    private static final String VERSION = "00";
+
+    private static final String FLAGS = "01";
+
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    private SagaTraceContext() {
+    }
+
+    /**
+     * 生成traceparent，当前线程MDC中已有traceId时沿用
+     *
+     * @return traceparent
+     */
+    public static String newTraceparent() {
+        String traceId = normalizeTraceId(MDC.get(MDC_TRACE_ID));
+        if (traceId == null) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            traceId = hex(random.nextLong(), 16) + hex(random.nextLong(), 16);
+        }
+        return format(traceId, newSpanId());
+    }
+
+    /**
+     * 以给定traceparent为父生成新的span，traceparent无效时重新生成
+     *
+     * @param parent 父traceparent
+     * @return traceparent
+     */
+    public static String childOf(String parent) {
+        String traceId = traceId(parent);
+        return traceId == null ? newTraceparent() : format(traceId, newSpanId());
+    }
+
+    public static String traceId(String traceparent) {
+        return isValid(traceparent) ? traceparent.substring(3, 35) : null;
+    }
+
+    public static String spanId(String traceparent) {
+        return isValid(traceparent) ? traceparent.substring(36, 52) : null;
+    }
+
+    public static boolean isValid(String traceparent) {
+        return traceparent != null && traceparent.length() == TRACEPARENT_LENGTH
+                && traceparent.charAt(2) == '-' && traceparent.charAt(35) == '-' && traceparent.charAt(52) == '-';
+    }
+
+    /**
+     * 将traceparent写入当前线程MDC
+     *
+     * @param traceparent 可为null，为null时不做处理
+     */
+    public static void restore(String traceparent) {
+        if (!isValid(traceparent)) {
+            return;
+        }
+        MDC.put(MDC_TRACEPARENT, traceparent);
+        MDC.put(MDC_TRACE_ID, traceId(traceparent));
+        MDC.put(MDC_SPAN_ID, spanId(traceparent));
+    }
+
+    public static void clear() {
+        MDC.remove(MDC_TRACEPARENT);
+        MDC.remove(MDC_TRACE_ID);
+        MDC.remove(MDC_SPAN_ID);
+    }
+
+    private static String format(String traceId, String spanId) {
+        return VERSION + "-" + traceId + "-" + spanId + "-" + FLAGS;
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong(), 16);
+    }
+
+    /**
+     * 兼容16位(B3)和32位的traceId
+     */
+    private static String normalizeTraceId(String traceId) {
+        if (traceId == null) {
+            return null;
+        }
+        if (traceId.length() == 16) {
+            traceId = "0000000000000000" + traceId;
+        }
+        if (traceId.length() != 32) {
+            return null;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            if (Character.digit(traceId.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return traceId.toLowerCase();
+    }
+
+    private static String hex(long value, int digits) {
+        String s = Long.toHexString(value);
+        StringBuilder sb = new StringBuilder(digits);
+        for (int i = s.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(s).toString();
+    }
+}
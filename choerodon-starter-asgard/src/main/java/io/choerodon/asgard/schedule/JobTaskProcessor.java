@@ -1,11 +1,10 @@
 package io.choerodon.asgard.schedule;
 
+import io.choerodon.asgard.common.index.AsgardAnnotationScanner;
 import io.choerodon.asgard.schedule.annotation.JobTask;
 import io.choerodon.asgard.schedule.exception.InvalidJobTaskMethodException;
 
 import org.springframework.beans.factory.config.BeanPostProcessor;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -21,16 +20,14 @@ public class JobTaskProcessor implements BeanPostProcessor {
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String s) {
-        Method[] methods = ReflectionUtils.getAllDeclaredMethods(bean.getClass());
-        if (methods != null) {
-            for (Method method : methods) {
-                JobTask jobTask = AnnotationUtils.findAnnotation(method, JobTask.class);
-                if (jobTask != null) {
-                    if (!validParam(method, method.getGenericParameterTypes()[0])) {
-                        throw new InvalidJobTaskMethodException(method);
-                    }
-                    ScheduleConsumer.addInvokeBean(jobTask.code(), new JobTaskInvokeBean(method, bean, jobTask));
+        for (AsgardAnnotationScanner.ScannedMethod scannedMethod : AsgardAnnotationScanner.scan(bean.getClass()).getMethods()) {
+            Method method = scannedMethod.getMethod();
+            JobTask jobTask = scannedMethod.getJobTask();
+            if (jobTask != null) {
+                if (!validParam(method, method.getGenericParameterTypes()[0])) {
+                    throw new InvalidJobTaskMethodException(method);
                 }
+                ScheduleConsumer.addInvokeBean(jobTask.code(), new JobTaskInvokeBean(method, bean, jobTask));
             }
         }
         return bean;
@@ -6,6 +6,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import io.choerodon.asgard.common.AbstractAsgardConsumer;
 import io.choerodon.asgard.common.ApplicationContextHelper;
 import io.choerodon.asgard.common.UpdateStatusDTO;
+import io.choerodon.asgard.common.diagnostic.InFlightInvocation;
+import io.choerodon.asgard.common.jfr.AsgardFlightEvent;
+import io.choerodon.asgard.common.jfr.AsgardFlightRecorder;
 import io.choerodon.asgard.schedule.annotation.JobTask;
 import io.choerodon.asgard.schedule.dto.PollScheduleInstanceDTO;
 import io.choerodon.asgard.schedule.dto.ScheduleInstanceConsumerDTO;
@@ -18,11 +21,16 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
@@ -36,6 +44,22 @@ public class ScheduleConsumer extends AbstractAsgardConsumer {
 
     private static final Map<String, JobTaskInvokeBean> invokeBeanMap = new HashMap<>();
 
+    private static final int MAX_COMPLETED_SHARD_RECORDS = 1024;
+
+    static final String COMPLETED_SHARDS = "completedShards";
+
+    /**
+     * 分片任务失败时已成功分片的结果，asgard重试同一实例时跳过这些分片。
+     * 只保存在本实例内存中，重试被其他实例拉取时仍会重新执行全部分片
+     */
+    private final Map<Long, Map<Integer, Object>> completedShards = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Map<Integer, Object>>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Map<Integer, Object>> eldest) {
+                    return size() > MAX_COMPLETED_SHARD_RECORDS;
+                }
+            });
+
     private ScheduleConsumerClient scheduleConsumerClient;
 
     private PollScheduleInstanceDTO pollScheduleInstanceDTO;
@@ -61,10 +85,19 @@ public class ScheduleConsumer extends AbstractAsgardConsumer {
 
     @Override
     protected void scheduleRunning(String instance) {
-        scheduleConsumerClient.pollBatch(getPollScheduleInstanceDTO()).forEach(t -> {
+        final AsgardFlightEvent pollEvent = AsgardFlightRecorder.poll(AsgardFlightRecorder.SCHEDULE);
+        final List<ScheduleInstanceConsumerDTO> list;
+        try {
+            list = scheduleConsumerClient.pollBatch(getPollScheduleInstanceDTO());
+        } catch (RuntimeException e) {
+            pollEvent.failed().commit();
+            throw e;
+        }
+        pollEvent.batchSize(list.size()).commit();
+        list.forEach(t -> {
             LOGGER.trace("ScheduleConsumer polled scheduleTaskInstances: {}", t);
             runningTasks.add(t.getId());
-            CompletableFuture.supplyAsync(() -> invoke(t), executor)
+            CompletableFuture.supplyAsync(() -> invoke(t), executorFor(getBulkhead(t.getMethod())))
                     .exceptionally(ex -> {
                         LOGGER.warn("@JobTask method: {}, id: {} supplyAsync failed", t.getMethod(), t.getId(), ex);
                         return null;
@@ -72,32 +105,85 @@ public class ScheduleConsumer extends AbstractAsgardConsumer {
         });
     }
 
+    private static String getBulkhead(String method) {
+        JobTaskInvokeBean invokeBean = invokeBeanMap.get(method);
+        return invokeBean == null ? null : invokeBean.jobTask.executor();
+    }
+
     private ScheduleInstanceConsumerDTO invoke(final ScheduleInstanceConsumerDTO data) {
         final JobTaskInvokeBean invokeBean = invokeBeanMap.get(data.getMethod());
         final JobTask jobTask = invokeBean.jobTask;
+        if (jobTask.shardCount() > 1) {
+            Map<String, Object> params;
+            try {
+                params = getInputMap(data.getExecuteParams());
+            } catch (IOException e) {
+                // 参数无法解析时不能退化为不分片执行，直接置为失败
+                LOGGER.warn("@JobTask method: {}, id: {} executeParams parse error", data.getMethod(), data.getId(), e);
+                reportFailed(data, getErrorInfoFromException(e));
+                return data;
+            }
+            // asgard已下发分片序号时按普通任务执行该分片
+            if (!params.containsKey(JobTask.SHARD_INDEX)) {
+                invokeShards(data, invokeBean, params);
+                return data;
+            }
+        }
+        final AsgardFlightEvent invokeEvent = AsgardFlightRecorder.invoke(InFlightInvocation.TYPE_JOB_TASK, jobTask.code(), data.getId());
         PlatformTransactionManager platformTransactionManager = getSagaTaskTransactionManager(jobTask.transactionManager());
+        invokeEvent.beginTransaction();
         TransactionStatus status = createTransactionStatus(transactionManager, jobTask.transactionIsolation().value());
+        invokeEvent.endTransaction();
         beforeInvoke(data.getUserDetails());
+        final InFlightInvocation inFlight = startInvocation(InFlightInvocation.TYPE_JOB_TASK, jobTask.code(), data.getId());
         try {
             invokeBean.method.setAccessible(true);
-            Object result = invokeBean.method.invoke(invokeBean.object, getInputMap(data.getExecuteParams()));
+            Object result = invokeMethod(invokeEvent, invokeBean, getInputMap(data.getExecuteParams()));
             if (result != null) {
                 result = objectMapper.writeValueAsString(result);
             }
-            scheduleConsumerClient.updateStatus(data.getId(), new UpdateStatusDTO(data.getId(), QuartzDefinition.InstanceStatus.COMPLETED.name(),
+            updateStatus(data.getId(), new UpdateStatusDTO(data.getId(), QuartzDefinition.InstanceStatus.COMPLETED.name(),
                     resultToJson(result, objectMapper), null, data.getObjectVersionNumber()));
+            invokeEvent.beginTransaction();
             platformTransactionManager.commit(status);
+            invokeEvent.endTransaction();
             runningTasks.remove(data.getId());
         } catch (Exception e) {
             String errorMsg = getErrorInfoFromException(e);
             LOGGER.info("@JobTask method: {}, id: {} invoke error", data.getMethod(), data.getId(), getLoggerException(e));
+            invokeEvent.failed();
             invokeError(platformTransactionManager, status, data, errorMsg);
         } finally {
+            invokeEvent.commit();
+            finishInvocation(inFlight);
             afterInvoke();
         }
         return data;
     }
 
+    private Object invokeMethod(final AsgardFlightEvent invokeEvent,
+                                final JobTaskInvokeBean invokeBean,
+                                final Map<String, Object> params) throws ReflectiveOperationException {
+        invokeEvent.beginMethod();
+        try {
+            return invokeBean.method.invoke(invokeBean.object, params);
+        } finally {
+            invokeEvent.endMethod();
+        }
+    }
+
+    private void updateStatus(final Long id, final UpdateStatusDTO statusDTO) {
+        final AsgardFlightEvent event = AsgardFlightRecorder.updateStatus(AsgardFlightRecorder.SCHEDULE, id, statusDTO.getStatus());
+        try {
+            scheduleConsumerClient.updateStatus(id, statusDTO);
+        } catch (RuntimeException e) {
+            event.failed();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
     private void invokeError(final PlatformTransactionManager platformTransactionManager,
                              final TransactionStatus status,
                              final ScheduleInstanceConsumerDTO data,
@@ -108,7 +194,7 @@ public class ScheduleConsumer extends AbstractAsgardConsumer {
             LOGGER.warn("@JobTask method: {}, id: {} transaction rollback error", data.getMethod(), data.getId(), e);
         } finally {
             try {
-                scheduleConsumerClient.updateStatus(data.getId(), new UpdateStatusDTO(data.getId(),
+                updateStatus(data.getId(), new UpdateStatusDTO(data.getId(),
                         QuartzDefinition.InstanceStatus.FAILED.name(), null, errorMsg, data.getObjectVersionNumber()));
                 runningTasks.remove(data.getId());
             } catch (Exception ex) {
@@ -118,6 +204,195 @@ public class ScheduleConsumer extends AbstractAsgardConsumer {
         }
     }
 
+    /**
+     * 并发执行全部分片，每个分片独立事务，全部结束后汇总上报状态。
+     * 汇总在最后一个分片结束的线程上回调完成，不阻塞当前线程，避免分片占满线程池时互相等待。
+     * 线程池拒绝时，被拒绝的分片及其后的分片都记为失败，已提交的分片结束后照常汇总上报。
+     * 重试时跳过上次已成功的分片，沿用其结果
+     */
+    private void invokeShards(final ScheduleInstanceConsumerDTO data,
+                              final JobTaskInvokeBean invokeBean,
+                              final Map<String, Object> params) {
+        final int shardTotal = invokeBean.jobTask.shardCount();
+        final List<CompletableFuture<Object>> futures = new ArrayList<>(shardTotal);
+        final Map<Integer, Object> completed = completedShards.remove(data.getId());
+        for (int i = 0; i < shardTotal; i++) {
+            if (completed != null && completed.containsKey(i)) {
+                LOGGER.info("@JobTask method: {}, id: {}, shard: {} completed before, skipped", data.getMethod(), data.getId(), i);
+                futures.add(CompletableFuture.completedFuture(completed.get(i)));
+                continue;
+            }
+            final Map<String, Object> shardParams = new HashMap<>(params);
+            shardParams.put(JobTask.SHARD_INDEX, i);
+            shardParams.put(JobTask.SHARD_TOTAL, shardTotal);
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> invokeShard(data, invokeBean, shardParams),
+                        executorFor(invokeBean.jobTask.executor())));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("@JobTask method: {}, id: {}, shard: {} rejected by executor", data.getMethod(), data.getId(), i, e);
+                for (int j = i; j < shardTotal; j++) {
+                    CompletableFuture<Object> rejected = new CompletableFuture<>();
+                    rejected.completeExceptionally(new ShardInvokeException("rejected by executor"));
+                    futures.add(rejected);
+                }
+                break;
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((v, ex) -> reportShards(data, futures));
+    }
+
+    private Object invokeShard(final ScheduleInstanceConsumerDTO data,
+                               final JobTaskInvokeBean invokeBean,
+                               final Map<String, Object> shardParams) {
+        final JobTask jobTask = invokeBean.jobTask;
+        final String code = jobTask.code() + "#" + shardParams.get(JobTask.SHARD_INDEX);
+        final AsgardFlightEvent invokeEvent = AsgardFlightRecorder.invoke(InFlightInvocation.TYPE_JOB_TASK, code, data.getId());
+        PlatformTransactionManager platformTransactionManager = getSagaTaskTransactionManager(jobTask.transactionManager());
+        invokeEvent.beginTransaction();
+        TransactionStatus status = createTransactionStatus(platformTransactionManager, jobTask.transactionIsolation().value());
+        invokeEvent.endTransaction();
+        beforeInvoke(data.getUserDetails());
+        final InFlightInvocation inFlight = startInvocation(InFlightInvocation.TYPE_JOB_TASK, code, data.getId());
+        try {
+            invokeBean.method.setAccessible(true);
+            Object result = invokeMethod(invokeEvent, invokeBean, shardParams);
+            invokeEvent.beginTransaction();
+            platformTransactionManager.commit(status);
+            invokeEvent.endTransaction();
+            return result;
+        } catch (Exception e) {
+            invokeEvent.failed();
+            LOGGER.info("@JobTask method: {}, id: {}, shard: {} invoke error", data.getMethod(), data.getId(),
+                    shardParams.get(JobTask.SHARD_INDEX), getLoggerException(e));
+            try {
+                platformTransactionManager.rollback(status);
+            } catch (Exception ex) {
+                LOGGER.warn("@JobTask method: {}, id: {} transaction rollback error", data.getMethod(), data.getId(), ex);
+            }
+            throw new ShardInvokeException(getErrorInfoFromException(e));
+        } finally {
+            invokeEvent.commit();
+            finishInvocation(inFlight);
+            afterInvoke();
+        }
+    }
+
+    private void reportShards(final ScheduleInstanceConsumerDTO data, final List<CompletableFuture<Object>> futures) {
+        List<Object> results = new ArrayList<>(futures.size());
+        Map<Integer, Object> completed = new LinkedHashMap<>();
+        StringBuilder errors = new StringBuilder();
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<Object> future = futures.get(i);
+            try {
+                Object result = future.join();
+                results.add(result);
+                completed.put(i, result);
+            } catch (Exception e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                if (errors.length() > 0) {
+                    errors.append("; ");
+                }
+                errors.append("shard ").append(i).append(": ").append(cause.getMessage());
+                results.add(null);
+            }
+        }
+        if (errors.length() > 0) {
+            if (!completed.isEmpty()) {
+                completedShards.put(data.getId(), completed);
+            }
+            Map<String, Object> output = new HashMap<>(4);
+            output.put(JobTask.SHARD_TOTAL, futures.size());
+            output.put(COMPLETED_SHARDS, new ArrayList<>(completed.keySet()));
+            String outputJson = null;
+            try {
+                outputJson = resultToJson(output, objectMapper);
+            } catch (IOException e) {
+                LOGGER.warn("@JobTask method: {}, id: {} shard output serialize error", data.getMethod(), data.getId(), e);
+            }
+            reportFailed(data, outputJson, errors.toString());
+            return;
+        }
+        try {
+            Map<String, Object> output = new HashMap<>(4);
+            output.put(JobTask.SHARD_TOTAL, futures.size());
+            output.put("results", results);
+            updateStatus(data.getId(), new UpdateStatusDTO(data.getId(), QuartzDefinition.InstanceStatus.COMPLETED.name(),
+                    resultToJson(output, objectMapper), null, data.getObjectVersionNumber()));
+        } catch (Exception e) {
+            LOGGER.warn("@JobTask method: {}, id: {} updateStatus error, error message: {}", data.getMethod(), data.getId(), e.getMessage());
+        } finally {
+            runningTasks.remove(data.getId());
+        }
+    }
+
+    private void reportFailed(final ScheduleInstanceConsumerDTO data, final String errorMsg) {
+        reportFailed(data, null, errorMsg);
+    }
+
+    private void reportFailed(final ScheduleInstanceConsumerDTO data, final String output, final String errorMsg) {
+        try {
+            updateStatus(data.getId(), new UpdateStatusDTO(data.getId(),
+                    QuartzDefinition.InstanceStatus.FAILED.name(), output, errorMsg, data.getObjectVersionNumber()));
+        } catch (Exception e) {
+            LOGGER.warn("@JobTask method: {}, id: {} updateStatus error, error message: {}", data.getMethod(), data.getId(), e.getMessage());
+        } finally {
+            runningTasks.remove(data.getId());
+        }
+    }
+
+    /**
+     * 执行本地触发的定时任务，没有asgard实例，结果只记录日志
+     *
+     * @param methodCode @JobTask的code
+     * @param params     执行参数
+     */
+    public void executeLocal(final String methodCode, final Map<String, Object> params) {
+        final JobTaskInvokeBean invokeBean = invokeBeanMap.get(methodCode);
+        if (invokeBean == null) {
+            LOGGER.warn("@JobTask method: {} not found for local timed task", methodCode);
+            return;
+        }
+        executorFor(invokeBean.jobTask.executor()).execute(() -> invokeLocal(invokeBean, params));
+    }
+
+    private void invokeLocal(final JobTaskInvokeBean invokeBean, final Map<String, Object> params) {
+        final JobTask jobTask = invokeBean.jobTask;
+        final AsgardFlightEvent invokeEvent = AsgardFlightRecorder.invoke(InFlightInvocation.TYPE_JOB_TASK, jobTask.code(), null);
+        PlatformTransactionManager platformTransactionManager = getSagaTaskTransactionManager(jobTask.transactionManager());
+        invokeEvent.beginTransaction();
+        TransactionStatus status = createTransactionStatus(platformTransactionManager, jobTask.transactionIsolation().value());
+        invokeEvent.endTransaction();
+        beforeInvoke(null);
+        final InFlightInvocation inFlight = startInvocation(InFlightInvocation.TYPE_JOB_TASK, jobTask.code(), null);
+        try {
+            invokeBean.method.setAccessible(true);
+            Object result = invokeMethod(invokeEvent, invokeBean, params);
+            invokeEvent.beginTransaction();
+            platformTransactionManager.commit(status);
+            invokeEvent.endTransaction();
+            LOGGER.debug("@JobTask method: {} local invoke completed, result: {}", jobTask.code(), result);
+        } catch (Exception e) {
+            invokeEvent.failed();
+            LOGGER.warn("@JobTask method: {} local invoke error", jobTask.code(), getLoggerException(e));
+            try {
+                platformTransactionManager.rollback(status);
+            } catch (Exception ex) {
+                LOGGER.warn("@JobTask method: {} transaction rollback error", jobTask.code(), ex);
+            }
+        } finally {
+            invokeEvent.commit();
+            finishInvocation(inFlight);
+            afterInvoke();
+        }
+    }
+
+    private static class ShardInvokeException extends RuntimeException {
+        ShardInvokeException(String message) {
+            super(message);
+        }
+    }
+
     private Map<String, Object> getInputMap(final String jsonMap) throws IOException {
         if (StringUtils.isEmpty(jsonMap)) {
             return new HashMap<>();
@@ -1,7 +1,12 @@
 package io.choerodon.asgard.schedule;
 
+import io.choerodon.asgard.common.BulkheadProperties;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "choerodon.schedule.consumer")
 public class ScheduleProperties {
 
@@ -13,6 +18,21 @@ public class ScheduleProperties {
 
     private Boolean enabled = false;
 
+    private Boolean localTimedTaskEnabled = false;
+
+    private String localTimedTaskLeaseType = "db";
+
+    private Long localTimedTaskMinLeaseMs = 30000L;
+
+    private Boolean virtualThreadEnabled = false;
+
+    private Integer virtualThreadMaxConcurrency = 1000;
+
+    /**
+     * 隔离线程池，@JobTask通过executor指定
+     */
+    private Map<String, BulkheadProperties> bulkheads = new LinkedHashMap<>();
+
     public Long getPollIntervalMs() {
         return pollIntervalMs;
     }
@@ -44,4 +64,51 @@ public class ScheduleProperties {
     public void setEnabled(Boolean enabled) {
         this.enabled = enabled;
     }
+
+    public Boolean getLocalTimedTaskEnabled() {
+        return localTimedTaskEnabled;
+    }
+
+    public void setLocalTimedTaskEnabled(Boolean localTimedTaskEnabled) {
+        this.localTimedTaskEnabled = localTimedTaskEnabled;
+    }
+
+    public String getLocalTimedTaskLeaseType() {
+        return localTimedTaskLeaseType;
+    }
+
+    public void setLocalTimedTaskLeaseType(String localTimedTaskLeaseType) {
+        this.localTimedTaskLeaseType = localTimedTaskLeaseType;
+    }
+
+    public Long getLocalTimedTaskMinLeaseMs() {
+        return localTimedTaskMinLeaseMs;
+    }
+
+    public void setLocalTimedTaskMinLeaseMs(Long localTimedTaskMinLeaseMs) {
+        this.localTimedTaskMinLeaseMs = localTimedTaskMinLeaseMs;
+    }
+    public Boolean getVirtualThreadEnabled() {
+        return virtualThreadEnabled;
+    }
+
+    public void setVirtualThreadEnabled(Boolean virtualThreadEnabled) {
+        this.virtualThreadEnabled = virtualThreadEnabled;
+    }
+
+    public Integer getVirtualThreadMaxConcurrency() {
+        return virtualThreadMaxConcurrency;
+    }
+
+    public void setVirtualThreadMaxConcurrency(Integer virtualThreadMaxConcurrency) {
+        this.virtualThreadMaxConcurrency = virtualThreadMaxConcurrency;
+    }
+
+    public Map<String, BulkheadProperties> getBulkheads() {
+        return bulkheads;
+    }
+
+    public void setBulkheads(Map<String, BulkheadProperties> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
 }
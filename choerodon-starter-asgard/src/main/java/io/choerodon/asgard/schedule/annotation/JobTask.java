@@ -13,6 +13,16 @@ import org.springframework.transaction.annotation.Isolation;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface JobTask {
 
+    /**
+     * 分片执行时传入执行参数的分片序号，从0开始
+     */
+    String SHARD_INDEX = "shardIndex";
+
+    /**
+     * 分片执行时传入执行参数的分片总数
+     */
+    String SHARD_TOTAL = "shardTotal";
+
     /**
      * 最大重试次数
      *
@@ -76,4 +86,23 @@ public @interface JobTask {
      * @return 方法层级
      */
     ResourceLevel level() default ResourceLevel.SITE;
+
+    /**
+     * 分片数量，大于1时方法按分片执行，通过执行参数中的{@link #SHARD_INDEX}和{@link #SHARD_TOTAL}获取分片信息。
+     * asgard下发的执行参数中已包含分片序号时只执行该分片；否则由拉取到任务的实例并发执行全部分片，
+     * 每个分片使用独立事务，结果汇总后上报。
+     * 任一分片失败时整个实例置为失败，失败结果的completedShards中记录已成功的分片序号；
+     * asgard重试时由同一实例拉取则跳过这些分片，由其他实例拉取时会重新执行，因此分片方法需要保证幂等
+     *
+     * @return 分片数量
+     */
+    int shardCount() default 1;
+
+    /**
+     * 执行该任务的隔离线程池名，对应choerodon.schedule.consumer.bulkheads中的配置。
+     * 为空或未配置时使用默认的scheduleExecutor
+     *
+     * @return 线程池名
+     */
+    String executor() default "";
 }
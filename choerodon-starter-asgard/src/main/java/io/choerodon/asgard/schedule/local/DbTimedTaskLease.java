@@ -0,0 +1,67 @@
+package io.choerodon.asgard.schedule.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 基于数据表实现的租约，依赖asgard_timed_task_lease表:
+ * <pre>
+ * CREATE TABLE asgard_timed_task_lease (
+ *   name        VARCHAR(128) NOT NULL PRIMARY KEY,
+ *   owner       VARCHAR(128) NOT NULL,
+ *   expire_time BIGINT       NOT NULL
+ * );
+ * </pre>
+ */
+public class DbTimedTaskLease implements TimedTaskLease {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DbTimedTaskLease.class);
+
+    static final String COMPLETED_OWNER = "__COMPLETED__";
+
+    private static final String UPDATE_STATEMENT = "update asgard_timed_task_lease set owner = ?, expire_time = ? where name = ? and owner <> ? and (owner = ? or expire_time < ?)";
+
+    private static final String INSERT_STATEMENT = "insert into asgard_timed_task_lease (name, owner, expire_time) values (?, ?, ?)";
+
+    private static final String COMPLETE_STATEMENT = "update asgard_timed_task_lease set owner = ?, expire_time = ? where name = ?";
+
+    private static final String SELECT_STATEMENT = "select owner from asgard_timed_task_lease where name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DbTimedTaskLease(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, long ttlMs) {
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(UPDATE_STATEMENT, owner, now + ttlMs, name, COMPLETED_OWNER, owner, now) == 1) {
+            return true;
+        }
+        if (jdbcTemplate.queryForList(SELECT_STATEMENT, String.class, name).isEmpty()) {
+            try {
+                return jdbcTemplate.update(INSERT_STATEMENT, name, owner, now + ttlMs) == 1;
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.trace("timed task lease already created by other instance, name: {}", name);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void complete(String name) {
+        jdbcTemplate.update(COMPLETE_STATEMENT, COMPLETED_OWNER, Long.MAX_VALUE, name);
+    }
+
+    @Override
+    public boolean isCompleted(String name) {
+        List<String> owners = jdbcTemplate.queryForList(SELECT_STATEMENT, String.class, name);
+        return !owners.isEmpty() && COMPLETED_OWNER.equals(owners.get(0));
+    }
+}
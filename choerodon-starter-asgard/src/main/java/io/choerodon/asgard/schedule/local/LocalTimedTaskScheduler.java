@@ -0,0 +1,197 @@
+package io.choerodon.asgard.schedule.local;
+
+import io.choerodon.asgard.property.PropertyData;
+import io.choerodon.asgard.property.PropertyTimedTask;
+import io.choerodon.asgard.schedule.QuartzDefinition;
+import io.choerodon.asgard.schedule.ScheduleConsumer;
+import io.choerodon.asgard.schedule.enums.TriggerTypeEnum;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地触发{@link io.choerodon.asgard.schedule.annotation.TimedTask}定时任务
+ * <p>
+ * 启动后接管{@link PropertyData}中收集的定时任务，不再上报给asgard，由本实例按simple/cron触发器计算触发时间，
+ * 触发时通过{@link TimedTaskLease}竞争租约，获取成功的实例执行对应的@JobTask方法
+ */
+public class LocalTimedTaskScheduler implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalTimedTaskScheduler.class);
+
+    private final PropertyData propertyData;
+
+    private final ScheduleConsumer scheduleConsumer;
+
+    private final TimedTaskLease lease;
+
+    private final String instance;
+
+    private final long minLeaseTtlMs;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "asgard-local-timed-task");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Trigger> triggers = new ArrayList<>();
+
+    public LocalTimedTaskScheduler(PropertyData propertyData, ScheduleConsumer scheduleConsumer,
+                                   TimedTaskLease lease, String instance, long minLeaseTtlMs) {
+        this.propertyData = propertyData;
+        this.scheduleConsumer = scheduleConsumer;
+        this.lease = lease;
+        this.instance = instance;
+        this.minLeaseTtlMs = minLeaseTtlMs;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<PropertyTimedTask> timedTasks = new ArrayList<>(propertyData.getTimedTasks());
+        // 由本地触发的定时任务不再上报给asgard，避免重复执行；本地无法解析的仍上报给asgard
+        List<PropertyTimedTask> remoteTasks = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (PropertyTimedTask task : timedTasks) {
+            Trigger trigger;
+            long firstFireTime;
+            try {
+                trigger = new Trigger(task);
+                firstFireTime = trigger.next(now);
+            } catch (RuntimeException e) {
+                LOGGER.warn("local timed task trigger not supported, leave it to asgard, name: {}, cron: {}",
+                        task.getName(), task.getCronExpression(), e);
+                remoteTasks.add(task);
+                continue;
+            }
+            if (trigger.simple && Boolean.TRUE.equals(task.getOneExecution()) && lease.isCompleted(task.getName())) {
+                LOGGER.info("local timed task already executed, name: {}", task.getName());
+                continue;
+            }
+            triggers.add(trigger);
+            scheduleNext(trigger, firstFireTime);
+        }
+        propertyData.setTimedTasks(remoteTasks);
+        LOGGER.info("local timed task scheduler started, tasks: {}", triggers.size());
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    private void scheduleNext(Trigger trigger, long fireTime) {
+        if (fireTime < 0) {
+            return;
+        }
+        trigger.nextFireTime = fireTime;
+        timer.schedule(() -> fire(trigger), Math.max(fireTime - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void fire(Trigger trigger) {
+        PropertyTimedTask task = trigger.task;
+        long scheduled = trigger.nextFireTime;
+        trigger.fired++;
+        long next = trigger.next(scheduled);
+        try {
+            // 租约有效期覆盖到下一次触发，期间其他实例的同一次触发获取失败
+            long ttl = next < 0 ? minLeaseTtlMs : Math.max(next - System.currentTimeMillis(), minLeaseTtlMs);
+            if (lease.tryAcquire(task.getName(), instance, ttl)) {
+                LOGGER.debug("local timed task fired, name: {}, delay: {}ms", task.getName(), System.currentTimeMillis() - scheduled);
+                scheduleConsumer.executeLocal(task.getMethodCode(), new HashMap<>(task.getParams()));
+                if (next < 0 && trigger.simple && Boolean.TRUE.equals(task.getOneExecution())) {
+                    lease.complete(task.getName());
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("local timed task fire error, name: {}", task.getName(), e);
+        } finally {
+            scheduleNext(trigger, next);
+        }
+    }
+
+    static final class Trigger {
+
+        final PropertyTimedTask task;
+
+        final boolean simple;
+
+        final CronSequenceGenerator cron;
+
+        final long intervalMs;
+
+        int fired;
+
+        long nextFireTime;
+
+        Trigger(PropertyTimedTask task) {
+            this.task = task;
+            this.simple = TriggerTypeEnum.SIMPLE_TRIGGER.getType().equals(task.getTriggerType());
+            if (simple) {
+                this.cron = null;
+                this.intervalMs = toMillis(task.getRepeatInterval(),
+                        QuartzDefinition.SimpleRepeatIntervalUnit.valueOf(task.getRepeatIntervalUnit()));
+            } else {
+                this.cron = new CronSequenceGenerator(toSpringCron(task.getCronExpression()));
+                this.intervalMs = 0;
+            }
+        }
+
+        /**
+         * @param previous 上一次触发时间，首次为启动时间
+         * @return 下一次触发时间，不再触发时返回-1
+         */
+        long next(long previous) {
+            if (!simple) {
+                return cron.next(new Date(previous)).getTime();
+            }
+            if (fired == 0) {
+                return previous;
+            }
+            // 与quartz一致，repeatCount为重复次数，负数表示无限重复
+            int repeatCount = task.getRepeatCount() == null ? 0 : task.getRepeatCount();
+            if (repeatCount >= 0 && fired > repeatCount) {
+                return -1;
+            }
+            return previous + intervalMs;
+        }
+
+        private static long toMillis(Long interval, QuartzDefinition.SimpleRepeatIntervalUnit unit) {
+            long value = interval == null ? 1 : interval;
+            switch (unit) {
+                case SECONDS:
+                    return TimeUnit.SECONDS.toMillis(value);
+                case MINUTES:
+                    return TimeUnit.MINUTES.toMillis(value);
+                case DAYS:
+                    return TimeUnit.DAYS.toMillis(value);
+                case HOURS:
+                default:
+                    return TimeUnit.HOURS.toMillis(value);
+            }
+        }
+
+        /**
+         * quartz表达式可带第7位年份，spring只支持6位
+         */
+        static String toSpringCron(String expression) {
+            String[] fields = expression.trim().split("\\s+");
+            if (fields.length == 7) {
+                return String.join(" ", Arrays.copyOf(fields, 6));
+            }
+            return expression.trim();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.choerodon.asgard.schedule.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存的租约，仅适用于单实例部署
+ * <p>
+ * 多实例时每个实例都会执行每一次触发，只执行一次的任务完成状态也不会持久化，重启后会再次执行
+ */
+public class MemoryTimedTaskLease implements TimedTaskLease {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryTimedTaskLease.class);
+
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    public MemoryTimedTaskLease() {
+        LOGGER.warn("local timed task uses memory lease, every instance fires every trigger, only use it in a single instance deployment");
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, long ttlMs) {
+        return !completed.contains(name);
+    }
+
+    @Override
+    public void complete(String name) {
+        completed.add(name);
+    }
+
+    @Override
+    public boolean isCompleted(String name) {
+        return completed.contains(name);
+    }
+}
@@ -0,0 +1,30 @@
+package io.choerodon.asgard.schedule.local;
+
+/**
+ * 本地定时任务的租约，保证多实例部署时每次触发只有一个实例执行
+ */
+public interface TimedTaskLease {
+
+    /**
+     * 尝试获取或续期租约
+     *
+     * @param name  定时任务名称
+     * @param owner 当前实例
+     * @param ttlMs 租约有效期(毫秒)
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(String name, String owner, long ttlMs);
+
+    /**
+     * 标记只执行一次的定时任务已执行完成，之后不再触发
+     *
+     * @param name 定时任务名称
+     */
+    void complete(String name);
+
+    /**
+     * @param name 定时任务名称
+     * @return 是否已执行完成
+     */
+    boolean isCompleted(String name);
+}
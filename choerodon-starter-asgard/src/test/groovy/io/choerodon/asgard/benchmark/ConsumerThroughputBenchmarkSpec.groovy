@@ -0,0 +1,40 @@
+package io.choerodon.asgard.benchmark
+
+import spock.lang.Specification
+
+import static io.choerodon.asgard.benchmark.ConsumerThroughputBenchmark.Scenario.Type.SAGA
+import static io.choerodon.asgard.benchmark.ConsumerThroughputBenchmark.Scenario.Type.SCHEDULE
+
+class ConsumerThroughputBenchmarkSpec extends Specification {
+
+    def '测试SagaConsumer通过Fake客户端执行全部任务'() {
+        given: '100个任务，每次最多拉取20个'
+        def scenario = new ConsumerThroughputBenchmark.Scenario(SAGA, 100, 20, 10, 50)
+                .withHttpFaults(FaultProfile.latency(1, 1), FaultProfile.latency(1, 1))
+
+        when: '执行压测'
+        def result = ConsumerThroughputBenchmark.run(scenario)
+
+        then: '全部完成且线程数不超过线程池大小'
+        result.completed == 100
+        result.failed == 0
+        result.throughput > 0
+        result.pickupP50 <= result.pickupP99
+        result.completionP50 <= result.completionP99
+        result.peakActive <= 10
+        result.polls >= 5
+    }
+
+    def '测试ScheduleConsumer任务失败时上报失败状态'() {
+        given: '任务全部失败'
+        def scenario = new ConsumerThroughputBenchmark.Scenario(SCHEDULE, 50, 10, 5, 50)
+                .withTaskFaults(new FaultProfile(0, 0, 1.0))
+
+        when: '执行压测'
+        def result = ConsumerThroughputBenchmark.run(scenario)
+
+        then: '全部以失败状态上报'
+        result.completed == 50
+        result.failed == 50
+    }
+}
@@ -0,0 +1,94 @@
+package io.choerodon.asgard.common
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+class AsgardBulkheadsSpec extends Specification {
+
+    def '测试按名称选择隔离线程池'() {
+        given: '默认线程池和gitlab线程池'
+        def defaultExecutor = AsgardExecutors.create("test", 2, 4, false, 4)
+        def gitlab = new BulkheadProperties(coreThreadNum: 1, maxThreadNum: 3)
+        def bulkheads = AsgardBulkheads.create("test", defaultExecutor, [gitlab: gitlab], false)
+
+        expect: '未指定或未配置时使用默认线程池'
+        bulkheads.get("").is(defaultExecutor)
+        bulkheads.get(null).is(defaultExecutor)
+        bulkheads.get("unknown").is(defaultExecutor)
+        !bulkheads.get("gitlab").is(defaultExecutor)
+        ((ThreadPoolExecutor) bulkheads.get("gitlab")).maximumPoolSize == 3
+        bulkheads.stats*.name == [AsgardBulkheads.DEFAULT, "gitlab"]
+        bulkheads.stats*.maxConcurrency == [2, 1]
+        bulkheads.freeCapacity() == 3
+
+        cleanup:
+        bulkheads.shutdown()
+        defaultExecutor.shutdown()
+    }
+
+    def '测试有界队列的线程池按核心线程数计算空闲容量'() {
+        given: '核心线程1、最大线程3的线程池'
+        def defaultExecutor = AsgardExecutors.create("test", 1, 3, false, 3)
+        def bulkheads = AsgardBulkheads.create("test", defaultExecutor, [:], false)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+
+        when: '核心线程被占用，再提交一个任务'
+        defaultExecutor.execute { started.countDown(); release.await() }
+        started.await(5, TimeUnit.SECONDS)
+        defaultExecutor.execute {}
+        def stats = bulkheads.stats.first()
+
+        then: '队列未满时不会新建线程，任务排队，没有空闲容量'
+        stats.active == 1
+        stats.queued == 1
+        stats.freeCapacity == 0
+        bulkheads.freeCapacity() == 0
+
+        cleanup:
+        release.countDown()
+        defaultExecutor.shutdown()
+    }
+
+    def '测试不限线程数的线程池按最大线程数计算空闲容量'() {
+        given: '使用SynchronousQueue的线程池'
+        def defaultExecutor = AsgardExecutors.create("test", 0, 4, false, 4)
+        def bulkheads = AsgardBulkheads.create("test", defaultExecutor, [:], false)
+
+        expect: '不排队，可增长到最大线程数'
+        bulkheads.stats.first().maxConcurrency == Integer.MAX_VALUE
+        bulkheads.freeCapacity() == Integer.MAX_VALUE
+
+        cleanup:
+        defaultExecutor.shutdown()
+    }
+
+    def '测试线程池占满时空闲容量为0'() {
+        given: '只有1个线程的隔离线程池'
+        def defaultExecutor = AsgardExecutors.create("test", 1, 1, false, 1)
+        def bulkheads = AsgardBulkheads.create("test", defaultExecutor,
+                [slow: new BulkheadProperties(coreThreadNum: 1, maxThreadNum: 1)], false)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+
+        when: '隔离线程池中的任务阻塞，再排队一个任务'
+        bulkheads.get("slow").execute { started.countDown(); release.await() }
+        started.await(5, TimeUnit.SECONDS)
+        bulkheads.get("slow").execute {}
+        def slow = bulkheads.stats.find { it.name == "slow" }
+
+        then: '隔离线程池没有空闲容量，默认线程池不受影响'
+        slow.active == 1
+        slow.queued == 1
+        slow.freeCapacity == 0
+        bulkheads.freeCapacity() == 1
+
+        cleanup:
+        release.countDown()
+        bulkheads.shutdown()
+        defaultExecutor.shutdown()
+    }
+}
@@ -0,0 +1,126 @@
+package io.choerodon.asgard.common
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsgardExecutorsSpec extends Specification {
+
+    def '测试未开启虚拟线程时使用平台线程池'() {
+        when: '创建线程池'
+        def bounded = AsgardExecutors.create("test", 2, 4, false, 10)
+        def unbounded = AsgardExecutors.create("test", 0, 4, false, 10)
+
+        then: '验证结果'
+        bounded instanceof ThreadPoolExecutor
+        ((ThreadPoolExecutor) bounded).corePoolSize == 2
+        ((ThreadPoolExecutor) bounded).maximumPoolSize == 4
+        ((ThreadPoolExecutor) unbounded).maximumPoolSize == Integer.MAX_VALUE
+
+        cleanup:
+        bounded.shutdown()
+        unbounded.shutdown()
+    }
+
+    def '测试平台线程池的线程名使用线程池名'() {
+        given: '平台线程池'
+        def executor = (ThreadPoolExecutor) AsgardExecutors.create("asgard-test", 1, 1, false, 1)
+        def threadName = new CompletableFuture<String>()
+
+        when: '执行任务'
+        executor.execute { threadName.complete(Thread.currentThread().name) }
+
+        then: '线程名以线程池名开头'
+        threadName.get(5, TimeUnit.SECONDS).startsWith("asgard-test-")
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    @Requires({ AsgardExecutors.virtualThreadSupported })
+    def '测试虚拟线程许可用完时提交方等待被中断收到拒绝'() {
+        given: '只有1个许可且已被占用'
+        def executor = (AsgardExecutors.VirtualThreadExecutor) AsgardExecutors.create("test", 1, 1, true, 1)
+        def release = new CountDownLatch(1)
+        executor.execute { release.await() }
+        def error = new CompletableFuture<Throwable>()
+        def submitter = new Thread({
+            try {
+                executor.execute {}
+                error.complete(null)
+            } catch (Throwable e) {
+                error.complete(e)
+            }
+        })
+
+        when: '另一个线程提交任务时被中断'
+        submitter.start()
+        while (executor.queueLength == 0) {
+            Thread.sleep(10)
+        }
+        submitter.interrupt()
+
+        then: '提交方收到拒绝，许可不泄漏'
+        error.get(5, TimeUnit.SECONDS) instanceof RejectedExecutionException
+        executor.availablePermits == 0
+
+        cleanup:
+        release.countDown()
+        executor.shutdown()
+    }
+
+    @Requires({ AsgardExecutors.virtualThreadSupported })
+    def '测试虚拟线程任务内再提交任务不会因许可用完而死锁'() {
+        given: '只有1个许可'
+        def executor = (AsgardExecutors.VirtualThreadExecutor) AsgardExecutors.create("test", 1, 1, true, 1)
+        def done = new CountDownLatch(1)
+
+        when: '任务内再提交一个任务'
+        executor.execute { executor.execute { done.countDown() } }
+
+        then: '外层任务结束后内层任务执行'
+        done.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    @Requires({ !AsgardExecutors.virtualThreadSupported })
+    def '测试不支持虚拟线程时回退为平台线程池'() {
+        expect: '开启虚拟线程仍返回平台线程池'
+        AsgardExecutors.create("test", 2, 4, true, 10) instanceof ThreadPoolExecutor
+    }
+
+    @Requires({ AsgardExecutors.virtualThreadSupported })
+    def '测试虚拟线程执行时并发数受限'() {
+        given: '最多同时执行2个任务'
+        def executor = (AsgardExecutors.VirtualThreadExecutor) AsgardExecutors.create("test", 2, 4, true, 2)
+        def running = new AtomicInteger()
+        def peak = new AtomicInteger()
+        def done = new CountDownLatch(20)
+
+        when: '提交20个任务'
+        20.times {
+            executor.execute {
+                peak.accumulateAndGet(running.incrementAndGet(), { a, b -> Math.max(a, b) })
+                Thread.sleep(10)
+                running.decrementAndGet()
+                done.countDown()
+            }
+        }
+
+        then: '同时执行的任务不超过2个'
+        done.await(10, TimeUnit.SECONDS)
+        peak.get() <= 2
+        executor.maxConcurrency == 2
+
+        cleanup:
+        executor.shutdown()
+    }
+}
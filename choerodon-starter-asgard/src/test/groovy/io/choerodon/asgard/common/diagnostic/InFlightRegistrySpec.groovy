@@ -0,0 +1,68 @@
+package io.choerodon.asgard.common.diagnostic
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class InFlightRegistrySpec extends Specification {
+
+    def '测试登记调用并采样慢调用的热点帧'() {
+        given: '不自动采样，阈值为0'
+        def registry = new InFlightRegistry(0, 0)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        InFlightInvocation invocation = null
+        def thread = new Thread({
+            invocation = registry.start(InFlightInvocation.TYPE_SAGA_TASK, "saga:task", 1L)
+            started.countDown()
+            release.await()
+            registry.finish(invocation)
+        }, "diagnostics-test")
+        thread.start()
+        started.await(5, TimeUnit.SECONDS)
+
+        when: '采样两次'
+        Thread.sleep(50)
+        registry.sample()
+        registry.sample()
+        def invocations = registry.getInvocations()
+        def hotFrames = registry.getHotFrames(10)
+
+        then: '列出调用及线程，热点帧按code汇总'
+        invocations.size() == 1
+        invocations[0].code == "saga:task"
+        invocations[0].id == 1L
+        invocations[0].threadName == "diagnostics-test"
+        invocations[0].samples == 2
+        !invocations[0].lastStack.isEmpty()
+        hotFrames["saga:task"].values().sum() == 2
+
+        when: '调用结束'
+        release.countDown()
+        thread.join(5000)
+
+        then: '不再列出'
+        registry.getInvocations().isEmpty()
+
+        cleanup:
+        registry.shutdown()
+    }
+
+    def '测试未超过阈值的调用不采样'() {
+        given: '阈值为1分钟'
+        def registry = new InFlightRegistry(60000, 0)
+        def invocation = registry.start(InFlightInvocation.TYPE_JOB_TASK, "job", 2L)
+
+        when: '采样'
+        registry.sample()
+
+        then: '没有采样结果'
+        invocation.samples == 0
+        registry.getHotFrames(10).isEmpty()
+
+        cleanup:
+        registry.finish(invocation)
+        registry.shutdown()
+    }
+}
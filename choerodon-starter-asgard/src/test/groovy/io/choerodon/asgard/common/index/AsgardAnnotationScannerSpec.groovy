@@ -0,0 +1,81 @@
+package io.choerodon.asgard.common.index
+
+import io.choerodon.asgard.saga.annotation.SagaTask
+import io.choerodon.asgard.schedule.annotation.JobTask
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class AsgardAnnotationScannerSpec extends Specification {
+
+    def cleanup() {
+        AsgardAnnotationScanner.clear()
+    }
+
+    def '测试扫描结果按类缓存'() {
+        when: '扫描两次'
+        def first = AsgardAnnotationScanner.scan(AnnotatedBean)
+        def second = AsgardAnnotationScanner.scan(AnnotatedBean)
+
+        then: '验证结果'
+        first.is(second)
+        first.methods*.method*.name.toSet() == ['sagaTask', 'jobTask'] as Set
+        first.methods.find { it.method.name == 'sagaTask' }.declaredSagaTask.code() == 'task'
+        AsgardAnnotationScanner.scan(String).isEmpty()
+    }
+
+    def '测试开启索引后跳过带索引目录中未索引的类'() {
+        given: '在测试类所在目录写入只包含AnnotatedBean的索引'
+        def root = new File(new URL(AsgardAnnotationScanner.rootOf(AnnotatedBean)).toURI())
+        def index = new File(root, AsgardAnnotationIndexProcessor.INDEX_LOCATION)
+        index.parentFile.mkdirs()
+        index.text = AnnotatedBean.name + '\n'
+
+        when: '加载索引'
+        def loaded = AsgardAnnotationScanner.loadIndex(AnnotatedBean.classLoader)
+
+        then: '验证结果'
+        loaded
+        !AsgardAnnotationScanner.scan(AnnotatedBean).isEmpty()
+        AsgardAnnotationScanner.scan(NotIndexedBean).isEmpty()
+
+        cleanup:
+        index.delete()
+    }
+
+    def '测试类所在目录没有索引时仍完整扫描'() {
+        given: '只有其他目录带索引'
+        def dir = Files.createTempDirectory('asgard-index')
+        def index = dir.resolve(AsgardAnnotationIndexProcessor.INDEX_LOCATION)
+        Files.createDirectories(index.parent)
+        index.toFile().text = AnnotatedBean.name + '\n'
+        def classLoader = new URLClassLoader([dir.toUri().toURL()] as URL[], (ClassLoader) null)
+
+        when: '加载索引'
+        def loaded = AsgardAnnotationScanner.loadIndex(classLoader)
+
+        then: '编译时未生成索引的类不会被跳过'
+        loaded
+        !AsgardAnnotationScanner.scan(AnnotatedBean).isEmpty()
+        !AsgardAnnotationScanner.scan(NotIndexedBean).isEmpty()
+    }
+
+    static class AnnotatedBean {
+
+        @SagaTask(code = 'task', sagaCode = 'saga', seq = 1)
+        String sagaTask(String data) {
+            return data
+        }
+
+        @JobTask(code = 'job')
+        void jobTask(Map<String, Object> map) {
+        }
+    }
+
+    static class NotIndexedBean {
+
+        @JobTask(code = 'notIndexed')
+        void jobTask(Map<String, Object> map) {
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.choerodon.asgard.common.jfr
+
+import io.choerodon.asgard.saga.SagaProperties
+import io.choerodon.asgard.saga.consumer.SagaConsumer
+import io.choerodon.asgard.saga.feign.SagaConsumerClient
+import io.choerodon.asgard.schedule.JobTaskProcessor
+import io.choerodon.asgard.schedule.ScheduleConsumer
+import io.choerodon.asgard.schedule.annotation.JobTask
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordingFile
+import spock.lang.Requires
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.SimpleTransactionStatus
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.time.Duration
+import java.util.concurrent.Executor
+
+@Requires({ AsgardFlightRecorder.available })
+class AsgardFlightRecorderSpec extends Specification {
+
+    def '测试未开启记录时返回空事件'() {
+        expect: '没有开启记录'
+        AsgardFlightRecorder.poll(AsgardFlightRecorder.SAGA).is(AsgardFlightEvent.DISABLED)
+        AsgardFlightRecorder.invoke("SagaTask", "code", 1L).is(AsgardFlightEvent.DISABLED)
+    }
+
+    def '测试开启记录后提交任务调用事件'() {
+        given: '开启asgard事件记录'
+        def recording = new Recording()
+        recording.enable("io.choerodon.asgard.Invoke").withThreshold(Duration.ZERO)
+        recording.enable("io.choerodon.asgard.Poll").withThreshold(Duration.ZERO)
+        recording.start()
+        def file = Files.createTempFile("asgard", ".jfr")
+
+        when: '提交调用事件和拉取事件'
+        def invoke = AsgardFlightRecorder.invoke("SagaTask", "saga:task", 10L)
+        invoke.beginTransaction()
+        invoke.endTransaction()
+        invoke.beginMethod()
+        Thread.sleep(5)
+        invoke.endMethod()
+        invoke.commit()
+        AsgardFlightRecorder.poll(AsgardFlightRecorder.SAGA).batchSize(3).commit()
+        recording.stop()
+        recording.dump(file)
+        def events = RecordingFile.readAllEvents(file)
+        def invokeEvent = events.find { it.eventType.name == "io.choerodon.asgard.Invoke" }
+        def pollEvent = events.find { it.eventType.name == "io.choerodon.asgard.Poll" }
+
+        then: '记录了字段'
+        invokeEvent.getString("code") == "saga:task"
+        invokeEvent.getLong("instanceId") == 10L
+        invokeEvent.getDuration("methodTime").toMillis() >= 5
+        !invokeEvent.getBoolean("failed")
+        pollEvent.getInt("batchSize") == 3
+        pollEvent.getString("consumer") == AsgardFlightRecorder.SAGA
+
+        cleanup:
+        recording.close()
+        Files.deleteIfExists(file)
+    }
+
+    def '测试本地触发的定时任务记录调用事件'() {
+        given: '开启调用事件记录，注册@JobTask'
+        def recording = new Recording()
+        recording.enable("io.choerodon.asgard.Invoke").withThreshold(Duration.ZERO)
+        recording.start()
+        def file = Files.createTempFile("asgard", ".jfr")
+        new JobTaskProcessor().postProcessAfterInitialization(new LocalJobs(), "localJobs")
+        def transactionManager = [getTransaction: { definition -> new SimpleTransactionStatus() },
+                                  commit        : { status -> },
+                                  rollback      : { status -> }] as PlatformTransactionManager
+        def consumer = new ScheduleConsumer("service", "instance", transactionManager,
+                { Runnable r -> r.run() } as Executor, null, null, 60000L)
+
+        when: '本地执行定时任务'
+        consumer.executeLocal("jfr-local-job", [:])
+        recording.stop()
+        recording.dump(file)
+        def invokeEvent = RecordingFile.readAllEvents(file).find { it.eventType.name == "io.choerodon.asgard.Invoke" }
+
+        then: '没有实例id'
+        invokeEvent.getString("code") == "jfr-local-job"
+        invokeEvent.getLong("instanceId") == -1L
+        !invokeEvent.getBoolean("failed")
+
+        cleanup:
+        recording.close()
+        Files.deleteIfExists(file)
+    }
+
+    def '测试拉取后分发失败只提交一次拉取事件'() {
+        given: '开启拉取事件记录'
+        def recording = new Recording()
+        recording.enable("io.choerodon.asgard.Poll").withThreshold(Duration.ZERO)
+        recording.start()
+        def file = Files.createTempFile("asgard", ".jfr")
+        def consumer = new SagaConsumer("service", "instance", null, { Runnable r -> r.run() } as Executor,
+                null, null, 60000L)
+        consumer.setProperties(new SagaProperties())
+        consumer.setConsumerClient([pollBatch: { dto -> [null] }] as SagaConsumerClient)
+
+        when: '拉取成功，分发时出错'
+        consumer.scheduleRunning("instance")
+        recording.stop()
+        recording.dump(file)
+        def pollEvents = RecordingFile.readAllEvents(file).findAll { it.eventType.name == "io.choerodon.asgard.Poll" }
+
+        then: '只记录一次成功的拉取'
+        pollEvents.size() == 1
+        pollEvents[0].getInt("batchSize") == 1
+        !pollEvents[0].getBoolean("failed")
+
+        cleanup:
+        recording.close()
+        Files.deleteIfExists(file)
+    }
+
+    static class LocalJobs {
+
+        @JobTask(code = "jfr-local-job")
+        void run(Map<String, Object> params) {
+        }
+    }
+}
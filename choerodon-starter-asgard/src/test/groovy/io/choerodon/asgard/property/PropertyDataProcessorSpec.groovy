@@ -1,5 +1,6 @@
 package io.choerodon.asgard.property
 
+import com.fasterxml.jackson.databind.ObjectMapper
 import io.choerodon.asgard.saga.SagaDefinition
 import io.choerodon.asgard.saga.annotation.Saga
 import io.choerodon.asgard.saga.annotation.SagaTask
@@ -64,6 +65,50 @@ class PropertyDataProcessorSpec extends Specification {
 
     }
 
+    def '测试toString不会触发schema生成'() {
+        given: '尚未生成schema的saga和saga task'
+        def generated = 0
+        def saga = new PropertySaga()
+        saga.setInputSchemaSupplier({ generated++; '{}' })
+        def sagaTask = new PropertySagaTask()
+        sagaTask.setOutputSchemaSupplier({ generated++; '{}' })
+
+        when: '调用toString'
+        saga.toString()
+        sagaTask.toString()
+
+        then: 'schema未生成，读取时才生成'
+        generated == 0
+        saga.getInputSchema() == '{}'
+        sagaTask.getOutputSchema() == '{}'
+        generated == 2
+    }
+
+    def '测试按配置的格式生成schema'() {
+        given: '默认格式和JSON Schema格式的PropertyDataProcessor'
+        def mapper = new ObjectMapper()
+        def exampleData = new PropertyData()
+        def schemaData = new PropertyData()
+        def schemaProcessor = new PropertyDataProcessor(schemaData)
+        schemaProcessor.setSchemaFormat(PropertyDataProcessor.SchemaFormat.JSON_SCHEMA)
+
+        when: '扫描同一个bean'
+        new PropertyDataProcessor(exampleData).postProcessAfterInitialization(new PropertyDataProcessorSpec(), 'definition')
+        schemaProcessor.postProcessAfterInitialization(new PropertyDataProcessorSpec(), 'definition')
+
+        then: '默认仍为示例JSON'
+        def example = mapper.readTree(selectSagaByCode(exampleData.getSagas(), 'sagaOne').inputSchema)
+        example.get('username').asText() == 'string'
+
+        and: '开启后为JSON Schema'
+        def schema = mapper.readTree(selectSagaByCode(schemaData.getSagas(), 'sagaOne').inputSchema)
+        schema.get('\$schema').asText() == 'http://json-schema.org/draft-07/schema#'
+        schema.get('properties').get('username').get('type').asText() == 'string'
+        schema.get('properties').get('age').get('type').asText() == 'integer'
+        def output = mapper.readTree(selectSagaTaskByCode(schemaData.getSagaTasks(), 'sagaTaskThree').outputSchema)
+        output.get('type').asText() == 'object'
+    }
+
     def selectSagaByCode(List<PropertySaga> sagas, String code) {
         for (PropertySaga saga : sagas) {
             if (saga.getCode() == code) return saga
@@ -0,0 +1,54 @@
+package io.choerodon.asgard.property
+
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import spock.lang.Specification
+
+class PropertyEndpointSpec extends Specification {
+
+    def '测试ETag及304'() {
+        given: '创建PropertyEndpoint'
+        def propertyData = new PropertyData()
+        propertyData.setService('test-service')
+        def endpoint = new PropertyEndpoint(propertyData)
+
+        when: '首次请求'
+        def first = endpoint.propertyData(null, null)
+
+        then: '返回内容和ETag'
+        first.statusCode == HttpStatus.OK
+        new String(first.body, 'UTF-8').contains('test-service')
+        def etag = first.headers.getETag()
+        etag != null
+
+        when: '携带If-None-Match请求'
+        def second = endpoint.propertyData(etag, null)
+
+        then: '返回304'
+        second.statusCode == HttpStatus.NOT_MODIFIED
+        second.body == null
+
+        when: '上下文刷新后内容变化'
+        propertyData.setService('other-service')
+        endpoint.onApplicationEvent(null)
+        def third = endpoint.propertyData(etag, null)
+
+        then: '返回新的内容'
+        third.statusCode == HttpStatus.OK
+        third.headers.getETag() != etag
+    }
+
+    def '测试gzip'() {
+        given: '内容超过压缩阈值'
+        def propertyData = new PropertyData()
+        propertyData.setService('s' * 4096)
+        def endpoint = new PropertyEndpoint(propertyData)
+
+        when: '请求支持gzip'
+        def response = endpoint.propertyData(null, 'gzip, deflate')
+
+        then: '返回压缩内容'
+        response.headers.getFirst(HttpHeaders.CONTENT_ENCODING) == 'gzip'
+        response.body.length < 4096
+    }
+}
@@ -1,7 +1,10 @@
 package io.choerodon.asgard.saga
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.choerodon.asgard.preoperty.saga.Owner
+import io.choerodon.asgard.preoperty.saga.Pet
 import io.choerodon.asgard.preoperty.saga.Test
+import io.choerodon.asgard.preoperty.saga.TreeNode
 import io.choerodon.asgard.saga.consumer.GenerateJsonSchemaUtil
 import spock.lang.Specification
 
@@ -24,4 +27,65 @@ class GenerateJsonExampleUtilSpec extends Specification {
         test.inner.name == 'string'
         test.inner.id == 0l
     }
+
+    def '测试循环引用的类'() {
+        given: '创建需要调用的objectMapper'
+        def objectMapper = new ObjectMapper()
+
+        when: '调用generate方法'
+        String json = GenerateJsonSchemaUtil.generate(TreeNode, objectMapper, true)
+
+        then: '循环引用的字段为空'
+        TreeNode node = objectMapper.readValue(json, TreeNode)
+        node.name == 'string'
+        node.parent == null
+    }
+
+    def '测试互相引用的类生成结果与生成顺序无关'() {
+        given: '创建需要调用的objectMapper'
+        def objectMapper = new ObjectMapper()
+
+        when: '先生成Owner，再生成其中引用的Pet'
+        Owner owner = objectMapper.readValue(GenerateJsonSchemaUtil.generate(Owner, objectMapper, true), Owner)
+        Pet pet = objectMapper.readValue(GenerateJsonSchemaUtil.generate(Pet, objectMapper, true), Pet)
+
+        then: 'Pet不会使用生成Owner时因循环引用被截断的结果'
+        owner.pet != null
+        owner.pet.owner == null
+        pet.owner != null
+        pet.owner.name == 'string'
+    }
+
+    def '测试generateJsonSchema生成自引用类的schema'() {
+        given: '创建需要调用的objectMapper'
+        def objectMapper = new ObjectMapper()
+
+        when: '调用generateJsonSchema方法'
+        def schema = objectMapper.readTree(GenerateJsonSchemaUtil.generateJsonSchema(TreeNode, objectMapper))
+
+        then: '自引用的字段通过definitions引用，不会无限展开'
+        schema.get('\$schema').asText() == 'http://json-schema.org/draft-07/schema#'
+        schema.get('type').asText() == 'object'
+        schema.get('properties').get('name').get('type').asText() == 'string'
+        schema.get('properties').get('children').get('type').asText() == 'array'
+        schema.get('properties').get('children').get('items').get('\$ref').asText() == '#/definitions/' + TreeNode.name
+        schema.get('properties').get('parent').get('\$ref').asText() == '#/definitions/' + TreeNode.name
+        schema.get('definitions').get(TreeNode.name).get('properties').get('parent').get('\$ref').asText() == '#/definitions/' + TreeNode.name
+    }
+
+    def '测试generateJsonSchema生成互相引用类的schema'() {
+        given: '创建需要调用的objectMapper'
+        def objectMapper = new ObjectMapper()
+
+        when: '分别生成Owner和Pet的schema'
+        def owner = objectMapper.readTree(GenerateJsonSchemaUtil.generateJsonSchema(Owner, objectMapper))
+        def pet = objectMapper.readTree(GenerateJsonSchemaUtil.generateJsonSchema(Pet, objectMapper))
+
+        then: '互相引用通过definitions闭合，两个schema互不影响'
+        owner.get('properties').get('pet').get('\$ref').asText() == '#/definitions/' + Pet.name
+        owner.get('definitions').get(Pet.name).get('properties').get('owner').get('\$ref').asText() == '#/definitions/' + Owner.name
+        owner.get('definitions').get(Owner.name).get('properties').get('name').get('type').asText() == 'string'
+        pet.get('properties').get('owner').get('\$ref').asText() == '#/definitions/' + Owner.name
+        pet.get('definitions').get(Owner.name).get('properties').get('pet').get('\$ref').asText() == '#/definitions/' + Pet.name
+    }
 }
@@ -0,0 +1,56 @@
+package io.choerodon.asgard.saga
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class SagaPayloadCodecSpec extends Specification {
+
+    def '测试超过阈值的payload压缩及解码'() {
+        given: '开启压缩，阈值为1024字节'
+        def codec = new SagaPayloadCodec(true, 1024)
+        def json = '{"name":"' + ('a' * 4096) + '"}'
+
+        when: '编码后再解码'
+        def encoded = codec.encode(json.getBytes(StandardCharsets.UTF_8))
+        def decoded = codec.decode(encoded)
+
+        then: '验证结果'
+        encoded.startsWith(SagaPayloadCodec.GZIP_PREFIX)
+        encoded.length() < json.length()
+        decoded == json
+        codec.compressedCount == 1
+        codec.maxRawBytes == json.length()
+    }
+
+    def '测试未超过阈值或未开启压缩时原样返回'() {
+        given: '创建编解码器'
+        def enabled = new SagaPayloadCodec(true, 1024)
+        def disabled = new SagaPayloadCodec(false, 1024)
+        def small = '{"name":"test"}'
+        def large = '{"name":"' + ('a' * 4096) + '"}'
+
+        expect: '验证结果'
+        enabled.encode(small) == small
+        disabled.encode(large) == large
+        enabled.decode(small) == small
+        enabled.decode(null) == null
+    }
+
+    def '测试统计的大小为utf-8字节数'() {
+        given: '未开启压缩的编解码器和包含中文的payload'
+        def codec = new SagaPayloadCodec(false, 1024)
+        def json = '{"name":"测试"}'
+        def size = json.getBytes(StandardCharsets.UTF_8).length
+
+        when: '分别按字符串和字节编码'
+        codec.encode(json)
+        codec.encode(json.getBytes(StandardCharsets.UTF_8))
+
+        then: '原始和编码后大小均按字节统计'
+        size == json.length() + 4
+        codec.rawBytes == size * 2
+        codec.encodedBytes == size * 2
+        codec.maxRawBytes == size
+    }
+}
@@ -0,0 +1,21 @@
+package io.choerodon.asgard.saga
+
+import io.choerodon.asgard.saga.producer.TimeOrderedSagaIdGenerator
+import spock.lang.Specification
+
+class TimeOrderedSagaIdGeneratorSpec extends Specification {
+
+    def '测试生成的id单调递增且格式正确'() {
+        given: '创建id生成器'
+        def generator = new TimeOrderedSagaIdGenerator()
+
+        when: '连续生成id'
+        def ids = (1..10000).collect { generator.generate() }
+
+        then: '验证结果'
+        ids.every { it ==~ /[0-9a-f]{32}/ }
+        ids.every { it.charAt(12) == '7' as char }
+        ids.toSet().size() == ids.size()
+        (1..<ids.size()).every { ids[it - 1] < ids[it] }
+    }
+}
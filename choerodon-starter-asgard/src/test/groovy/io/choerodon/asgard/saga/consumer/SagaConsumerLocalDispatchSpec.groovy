@@ -0,0 +1,80 @@
+package io.choerodon.asgard.saga.consumer
+
+import io.choerodon.asgard.saga.SagaProperties
+import io.choerodon.asgard.saga.feign.SagaConsumerClient
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SagaConsumerLocalDispatchSpec extends Specification {
+
+    def polls = new AtomicInteger()
+
+    def polled = new CountDownLatch(1)
+
+    def scheduler = Executors.newSingleThreadScheduledExecutor()
+
+    SagaConsumer createConsumer(boolean localDispatchEnabled) {
+        def properties = new SagaProperties()
+        properties.getConsumer().setLocalDispatchEnabled(localDispatchEnabled)
+        def client = [pollBatch: { dto ->
+            polls.incrementAndGet()
+            polled.countDown()
+            []
+        }] as SagaConsumerClient
+        def consumer = new SagaConsumer('service', 'instance', null, Executors.newSingleThreadExecutor(),
+                scheduler, null, 60000L)
+        consumer.setConsumerClient(client)
+        consumer.setProperties(properties)
+        consumer.setLocalSagaCodes(['local-saga'] as Set)
+        return consumer
+    }
+
+    def cleanup() {
+        scheduler.shutdownNow()
+    }
+
+    def '测试本服务消费的saga确认后立即触发一次拉取'() {
+        given: '开启本地派发'
+        def consumer = createConsumer(true)
+
+        when: '本服务消费的saga确认'
+        consumer.onSagaConfirmed('local-saga')
+
+        then: '立即拉取，不等待固定间隔'
+        polled.await(5, TimeUnit.SECONDS)
+        polls.get() == 1
+    }
+
+    def '测试未开启本地派发或非本服务消费的saga不触发拉取'() {
+        given: '一个开启、一个未开启本地派发的消费者'
+        def enabled = createConsumer(true)
+        def disabled = createConsumer(false)
+
+        when: '确认saga'
+        enabled.onSagaConfirmed('remote-saga')
+        enabled.onSagaConfirmed(null)
+        disabled.onSagaConfirmed('local-saga')
+
+        then: '不触发拉取'
+        !polled.await(500, TimeUnit.MILLISECONDS)
+        polls.get() == 0
+    }
+
+    def '测试停机时触发拉取被拒绝不影响调用方'() {
+        given: '调度线程池已关闭'
+        def consumer = createConsumer(true)
+        scheduler.shutdownNow()
+
+        when: '本服务消费的saga确认'
+        consumer.onSagaConfirmed('local-saga')
+        consumer.onSagaConfirmed('local-saga')
+
+        then: '拒绝只记录日志，不抛出异常'
+        noExceptionThrown()
+        polls.get() == 0
+    }
+}
@@ -0,0 +1,91 @@
+package io.choerodon.asgard.saga.producer
+
+import io.choerodon.asgard.saga.SagaPayloadCodec
+import io.choerodon.asgard.saga.dto.StartInstanceDTO
+import io.choerodon.asgard.saga.feign.SagaClient
+import io.choerodon.asgard.saga.producer.consistency.SagaProducerMemoryConsistencyHandler
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.SimpleTransactionStatus
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+class StartSagaBuilderSpec extends Specification {
+
+    static final String LARGE = 'a' * 4096
+
+    def '测试序列化的payload在确认时压缩编码'() {
+        given: '开启压缩的编解码器'
+        def codec = new SagaPayloadCodec(true, 1024)
+        def builder = StartSagaBuilder.newBuilder().withSagaCode('builder-spec')
+                .withPayloadAndSerialize([name: LARGE]).withRefType('user').withRefId('1')
+                .withPayloadCodec(codec)
+
+        when: '预创建'
+        def preBuilt = builder.preBuild()
+
+        then: '预创建不携带payload'
+        preBuilt.input == null
+
+        when: '确认两次'
+        def input = builder.confirmBuild().input
+        def again = builder.confirmBuild().input
+
+        then: '只编码一次，解码后为序列化结果'
+        input.startsWith(SagaPayloadCodec.GZIP_PREFIX)
+        again == input
+        codec.decode(input) == '{"name":"' + LARGE + '"}'
+        codec.encodedCount == 1
+        codec.compressedCount == 1
+    }
+
+    def '测试withJson与序列化的payload一样只在确认时写入'() {
+        given: '带和不带编解码器的builder'
+        def codec = new SagaPayloadCodec(true, 1024)
+        def json = '{"name":"' + LARGE + '"}'
+        def encoded = StartSagaBuilder.newBuilder().withSagaCode('builder-spec')
+                .withJson(json).withRefType('user').withRefId('1').withPayloadCodec(codec)
+        def plain = StartSagaBuilder.newBuilder().withSagaCode('builder-spec')
+                .withJson(json).withRefType('user').withRefId('1')
+
+        expect: '预创建均不携带payload'
+        encoded.preBuild().input == null
+        plain.preBuild().input == null
+
+        and: '确认时写入，开启压缩时编码'
+        encoded.confirmBuild().input.startsWith(SagaPayloadCodec.GZIP_PREFIX)
+        codec.decode(encoded.confirmBuild().input) == json
+        plain.confirmBuild().input == json
+    }
+
+    def '测试producer记录和确认编码后的payload'() {
+        given: '开启压缩的producer'
+        def scheduler = Executors.newSingleThreadScheduledExecutor()
+        def preCreated = []
+        def confirmed = []
+        def client = [preCreateSaga: { StartInstanceDTO dto -> preCreated << dto.input; null },
+                      confirmSaga  : { String uuid, StartInstanceDTO dto -> confirmed << dto.input }] as SagaClient
+        def transactionManager = [getTransaction: { definition -> new SimpleTransactionStatus() },
+                                  commit        : { status -> },
+                                  rollback      : { status -> }] as PlatformTransactionManager
+        def handler = new SagaProducerMemoryConsistencyHandler(scheduler)
+        def codec = new SagaPayloadCodec(true, 1024)
+        def producer = new TransactionalProducerImpl(transactionManager, handler, client, 'service')
+        producer.setPayloadCodec(codec)
+        producer.setIdGenerator({ -> 'uuid-1' } as SagaIdGenerator)
+
+        when: '发起saga'
+        producer.apply(StartSagaBuilder.newBuilder().withSagaCode('builder-spec')
+                .withPayloadAndSerialize([name: LARGE]).withRefType('user').withRefId('1'), { builder -> })
+
+        then: '预创建不携带payload，回查记录和确认请求为同一编码结果'
+        preCreated == [null]
+        confirmed.size() == 1
+        confirmed[0].startsWith(SagaPayloadCodec.GZIP_PREFIX)
+        handler.asgardServiceBackCheck('uuid-1').payload == confirmed[0]
+        codec.encodedCount == 1
+
+        cleanup: '关闭线程池'
+        scheduler.shutdownNow()
+    }
+}
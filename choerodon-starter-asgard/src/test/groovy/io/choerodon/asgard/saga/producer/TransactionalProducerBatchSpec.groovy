@@ -0,0 +1,151 @@
+package io.choerodon.asgard.saga.producer
+
+import io.choerodon.asgard.saga.dto.StartInstanceDTO
+import io.choerodon.asgard.saga.exception.SagaProducerException
+import io.choerodon.asgard.saga.feign.SagaClient
+import io.choerodon.asgard.saga.producer.consistency.SagaProducerDbConsistencyHandler
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DataSourceTransactionManager
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+class TransactionalProducerBatchSpec extends Specification {
+
+    def dataSource = new DriverManagerDataSource('jdbc:h2:mem:asgard_producer;DB_CLOSE_DELAY=-1;MODE=Mysql', 'sa', 'sa')
+
+    def jdbcTemplate = new JdbcTemplate(dataSource)
+
+    def scheduler = Executors.newSingleThreadScheduledExecutor()
+
+    def calls = []
+
+    def failedCancel = null
+
+    def setup() {
+        jdbcTemplate.execute('DROP TABLE IF EXISTS asgard_producer_record')
+        jdbcTemplate.execute('CREATE TABLE asgard_producer_record (uuid VARCHAR(32) NOT NULL PRIMARY KEY, payload TEXT, ref_type VARCHAR(128), ref_id VARCHAR(128), create_time BIGINT NOT NULL)')
+    }
+
+    def cleanup() {
+        scheduler.shutdownNow()
+    }
+
+    TransactionalProducerImpl createProducer(boolean batchRequestEnabled) {
+        def client = [preCreateSaga     : { StartInstanceDTO dto -> calls << ['preCreate', dto.uuid]; null },
+                      confirmSaga       : { String uuid, StartInstanceDTO dto -> calls << ['confirm', uuid] },
+                      cancelSaga        : { String uuid ->
+                          if (uuid == failedCancel) {
+                              throw new IllegalStateException('cancel failed')
+                          }
+                          calls << ['cancel', uuid]
+                      },
+                      preCreateSagaBatch: { List<StartInstanceDTO> dtos -> calls << ['preCreateBatch', dtos*.uuid]; [] },
+                      confirmSagaBatch  : { List<StartInstanceDTO> dtos -> calls << ['confirmBatch', dtos*.uuid] },
+                      cancelSagaBatch   : { List<String> uuids -> calls << ['cancelBatch', uuids] }] as SagaClient
+        def consistencyHandler = new SagaProducerDbConsistencyHandler(scheduler, dataSource)
+        def producer = new TransactionalProducerImpl(new DataSourceTransactionManager(dataSource), consistencyHandler, client, 'service')
+        def seq = new AtomicInteger()
+        producer.setIdGenerator({ -> 'uuid-' + seq.incrementAndGet() } as SagaIdGenerator)
+        producer.setBatchRequestEnabled(batchRequestEnabled)
+        return producer
+    }
+
+    static List<StartSagaBuilder> builders(String... refIds) {
+        return refIds.collect {
+            StartSagaBuilder.newBuilder().withSagaCode('batch-spec').withJson('{"id":"' + it + '"}').withRefType('user').withRefId(it)
+        }
+    }
+
+    List<Map<String, Object>> records() {
+        return jdbcTemplate.queryForList('select uuid, payload, ref_type, ref_id from asgard_producer_record order by uuid')
+    }
+
+    def '测试开启批量接口时批量预创建、记录和确认'() {
+        given: '开启批量接口的producer'
+        def producer = createProducer(true)
+
+        when: '批量发起三个saga'
+        producer.applyBatch(builders('1', '2', '3'), { list -> calls << ['consumer', list.size()] })
+
+        then: '预创建和确认各调用一次批量接口'
+        calls == [['preCreateBatch', ['uuid-1', 'uuid-2', 'uuid-3']],
+                  ['consumer', 3],
+                  ['confirmBatch', ['uuid-1', 'uuid-2', 'uuid-3']]]
+
+        and: '随事务批量写入回查记录'
+        records()*.uuid == ['uuid-1', 'uuid-2', 'uuid-3']
+        records()*.payload == ['{"id":"1"}', '{"id":"2"}', '{"id":"3"}']
+        records()*.ref_type == ['user', 'user', 'user']
+        records()*.ref_id == ['1', '2', '3']
+    }
+
+    def '测试关闭批量接口时逐条预创建和确认'() {
+        given: '关闭批量接口的producer'
+        def producer = createProducer(false)
+
+        when: '批量发起两个saga'
+        producer.applyBatch(builders('1', '2'), { list -> })
+
+        then: '逐条调用单条接口'
+        calls == [['preCreate', 'uuid-1'], ['preCreate', 'uuid-2'],
+                  ['confirm', 'uuid-1'], ['confirm', 'uuid-2']]
+
+        and: '回查记录同样写入'
+        records()*.uuid == ['uuid-1', 'uuid-2']
+    }
+
+    def '测试开启批量接口时部分saga校验失败回滚并批量取消'() {
+        given: '开启批量接口的producer，第二个saga缺少refId'
+        def producer = createProducer(true)
+        def list = builders('1', '2', '3')
+        list[1].withRefId(null)
+
+        when: '批量发起'
+        producer.applyBatch(list, { l -> })
+
+        then: '抛出校验异常，事务回滚，不写入记录，批量取消所有saga'
+        thrown(SagaProducerException)
+        records().isEmpty()
+        calls == [['preCreateBatch', ['uuid-1', 'uuid-2', 'uuid-3']],
+                  ['cancelBatch', ['uuid-1', 'uuid-2', 'uuid-3']]]
+    }
+
+    def '测试关闭批量接口时单条取消失败不影响其余saga的取消'() {
+        given: '关闭批量接口的producer，uuid-2取消时失败'
+        def producer = createProducer(false)
+        failedCancel = 'uuid-2'
+
+        when: '业务逻辑抛出异常'
+        producer.applyBatch(builders('1', '2', '3'), { l -> throw new IllegalArgumentException('business') })
+
+        then: '原异常抛出，事务回滚，其余saga逐条取消'
+        def e = thrown(IllegalArgumentException)
+        e.message == 'business'
+        records().isEmpty()
+        calls == [['preCreate', 'uuid-1'], ['preCreate', 'uuid-2'], ['preCreate', 'uuid-3'],
+                  ['cancel', 'uuid-1'], ['cancel', 'uuid-3']]
+    }
+
+    def '测试数据库处理器批量记录直接写入'() {
+        given: '数据库回查处理器'
+        def handler = new SagaProducerDbConsistencyHandler(scheduler, dataSource)
+        def dtos = ['a', 'b'].collect {
+            def dto = new StartInstanceDTO()
+            dto.setUuid(it)
+            dto.setInput('{}')
+            dto.setRefType('user')
+            dto.setRefId(it)
+            dto
+        }
+
+        when: '批量记录'
+        handler.beforeTransactionCommit(dtos)
+
+        then: '每条saga一行记录，可供回查'
+        records()*.uuid == ['a', 'b']
+        handler.asgardServiceBackCheck('b').refId == 'b'
+    }
+}
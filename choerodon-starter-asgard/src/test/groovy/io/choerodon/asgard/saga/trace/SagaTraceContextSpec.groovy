@@ -0,0 +1,39 @@
+package io.choerodon.asgard.saga.trace
+
+import org.slf4j.MDC
+import spock.lang.Specification
+
+class SagaTraceContextSpec extends Specification {
+
+    def cleanup() {
+        SagaTraceContext.clear()
+    }
+
+    def '测试生成traceparent及子span'() {
+        when: '生成traceparent并以其为父生成子span'
+        def parent = SagaTraceContext.newTraceparent()
+        def child = SagaTraceContext.childOf(parent)
+
+        then: '验证结果'
+        SagaTraceContext.isValid(parent)
+        SagaTraceContext.isValid(child)
+        SagaTraceContext.traceId(child) == SagaTraceContext.traceId(parent)
+        SagaTraceContext.spanId(child) != SagaTraceContext.spanId(parent)
+        SagaTraceContext.isValid(SagaTraceContext.childOf(null))
+    }
+
+    def '测试沿用MDC中的traceId并恢复到MDC'() {
+        given: 'MDC中存在16位traceId'
+        MDC.put(SagaTraceContext.MDC_TRACE_ID, 'a1b2c3d4e5f60718')
+
+        when: '生成traceparent后清空再恢复'
+        def traceparent = SagaTraceContext.newTraceparent()
+        SagaTraceContext.clear()
+        SagaTraceContext.restore(traceparent)
+
+        then: '验证结果'
+        SagaTraceContext.traceId(traceparent) == '0000000000000000a1b2c3d4e5f60718'
+        MDC.get(SagaTraceContext.MDC_TRACEPARENT) == traceparent
+        MDC.get(SagaTraceContext.MDC_SPAN_ID) == SagaTraceContext.spanId(traceparent)
+    }
+}
@@ -0,0 +1,175 @@
+package io.choerodon.asgard.schedule
+
+import io.choerodon.asgard.common.UpdateStatusDTO
+import io.choerodon.asgard.schedule.annotation.JobTask
+import io.choerodon.asgard.schedule.dto.ScheduleInstanceConsumerDTO
+import io.choerodon.asgard.schedule.feign.ScheduleConsumerClient
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.SimpleTransactionStatus
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
+
+class ScheduleConsumerShardSpec extends Specification {
+
+    static class ShardJobs {
+
+        def invoked = new AtomicInteger()
+
+        @JobTask(code = 'shard-spec-ok', shardCount = 3)
+        Map<String, Object> ok(Map<String, Object> params) {
+            invoked.incrementAndGet()
+            return [index: params.get(JobTask.SHARD_INDEX)]
+        }
+
+        @JobTask(code = 'shard-spec-fail', shardCount = 3)
+        Map<String, Object> fail(Map<String, Object> params) {
+            invoked.incrementAndGet()
+            if (params.get(JobTask.SHARD_INDEX) != 1) {
+                throw new IllegalStateException('boom' + params.get(JobTask.SHARD_INDEX))
+            }
+            return null
+        }
+
+        def retryInvoked = new AtomicIntegerArray(3)
+
+        def failing = true
+
+        @JobTask(code = 'shard-spec-retry', shardCount = 3)
+        Map<String, Object> retry(Map<String, Object> params) {
+            int index = params.get(JobTask.SHARD_INDEX) as int
+            retryInvoked.incrementAndGet(index)
+            if (failing && index != 1) {
+                throw new IllegalStateException('boom' + index)
+            }
+            return [index: index]
+        }
+    }
+
+    def jobs = new ShardJobs()
+
+    def statuses = []
+
+    def scheduler = Executors.newSingleThreadScheduledExecutor()
+
+    def setup() {
+        new JobTaskProcessor().postProcessAfterInitialization(jobs, 'shardJobs')
+    }
+
+    def cleanup() {
+        scheduler.shutdownNow()
+    }
+
+    ScheduleConsumer createConsumer(Executor executor, String method, String executeParams) {
+        def instance = new ScheduleInstanceConsumerDTO()
+        instance.setId(1L)
+        instance.setMethod(method)
+        instance.setExecuteParams(executeParams)
+        instance.setObjectVersionNumber(1L)
+        def client = [pollBatch   : { dto -> [instance] },
+                      updateStatus: { Long id, UpdateStatusDTO dto -> statuses << dto }] as ScheduleConsumerClient
+        def transactionManager = [getTransaction: { definition -> new SimpleTransactionStatus() },
+                                  commit        : { status -> },
+                                  rollback      : { status -> }] as PlatformTransactionManager
+        def consumer = new ScheduleConsumer('service', 'instance', transactionManager, executor, scheduler, null, 60000L)
+        consumer.setScheduleConsumerClient(client)
+        return consumer
+    }
+
+    def '测试分片全部成功时汇总上报完成'() {
+        given: '在当前线程执行任务的消费者'
+        def consumer = createConsumer({ Runnable r -> r.run() } as Executor, 'shard-spec-ok', '{}')
+
+        when: '拉取到分片任务'
+        consumer.scheduleRunning('instance')
+
+        then: '每个分片各执行一次，只上报一次完成'
+        jobs.invoked.get() == 3
+        statuses.size() == 1
+        statuses[0].status == QuartzDefinition.InstanceStatus.COMPLETED.name()
+        statuses[0].output.contains('"shardTotal":3')
+        consumer.runningTasks.isEmpty()
+    }
+
+    def '测试分片失败时以分号分隔各分片的错误'() {
+        given: '在当前线程执行任务的消费者'
+        def consumer = createConsumer({ Runnable r -> r.run() } as Executor, 'shard-spec-fail', '{}')
+
+        when: '拉取到分片任务，分片0和2失败'
+        consumer.scheduleRunning('instance')
+
+        then: '上报失败，错误信息按分片分隔'
+        statuses.size() == 1
+        statuses[0].status == QuartzDefinition.InstanceStatus.FAILED.name()
+        statuses[0].exceptionMessage.startsWith('shard 0: ')
+        statuses[0].exceptionMessage.contains('; shard 2: ')
+        !statuses[0].exceptionMessage.contains('shard 1')
+        consumer.runningTasks.isEmpty()
+    }
+
+    def '测试线程池拒绝部分分片时其余分片记为失败并上报'() {
+        given: '执行任务本身和分片0后拒绝提交的线程池'
+        def submitted = new AtomicInteger()
+        def executor = { Runnable r ->
+            if (submitted.getAndIncrement() >= 2) {
+                throw new RejectedExecutionException('full')
+            }
+            r.run()
+        } as Executor
+        def consumer = createConsumer(executor, 'shard-spec-ok', '{}')
+
+        when: '拉取到分片任务'
+        consumer.scheduleRunning('instance')
+
+        then: '只执行了分片0，被拒绝的分片记为失败并上报，任务不残留在执行中'
+        jobs.invoked.get() == 1
+        statuses.size() == 1
+        statuses[0].status == QuartzDefinition.InstanceStatus.FAILED.name()
+        statuses[0].exceptionMessage == 'shard 1: rejected by executor; shard 2: rejected by executor'
+        consumer.runningTasks.isEmpty()
+    }
+
+    def '测试分片任务参数无法解析时直接失败'() {
+        given: '在当前线程执行任务的消费者'
+        def consumer = createConsumer({ Runnable r -> r.run() } as Executor, 'shard-spec-ok', '{not json')
+
+        when: '拉取到分片任务'
+        consumer.scheduleRunning('instance')
+
+        then: '不执行任务，上报失败'
+        jobs.invoked.get() == 0
+        statuses.size() == 1
+        statuses[0].status == QuartzDefinition.InstanceStatus.FAILED.name()
+        consumer.runningTasks.isEmpty()
+    }
+
+    def '测试分片失败后重试同一实例时跳过已成功的分片'() {
+        given: '在当前线程执行任务的消费者'
+        def consumer = createConsumer({ Runnable r -> r.run() } as Executor, 'shard-spec-retry', '{}')
+
+        when: '第一次执行，分片0和2失败'
+        consumer.scheduleRunning('instance')
+
+        then: '上报失败，结果中记录已成功的分片'
+        statuses.size() == 1
+        statuses[0].status == QuartzDefinition.InstanceStatus.FAILED.name()
+        statuses[0].output.contains('"completedShards":[1]')
+
+        when: 'asgard重试同一实例，此时分片均可成功'
+        jobs.failing = false
+        consumer.scheduleRunning('instance')
+
+        then: '只重新执行失败的分片，汇总结果沿用已成功分片的结果'
+        jobs.retryInvoked.get(0) == 2
+        jobs.retryInvoked.get(1) == 1
+        jobs.retryInvoked.get(2) == 2
+        statuses.size() == 2
+        statuses[1].status == QuartzDefinition.InstanceStatus.COMPLETED.name()
+        statuses[1].output.contains('{"index":1}')
+        consumer.runningTasks.isEmpty()
+    }
+}
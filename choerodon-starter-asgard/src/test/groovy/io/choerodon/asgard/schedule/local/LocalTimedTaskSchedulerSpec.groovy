@@ -0,0 +1,102 @@
+package io.choerodon.asgard.schedule.local
+
+import io.choerodon.asgard.property.PropertyData
+import io.choerodon.asgard.property.PropertyTimedTask
+import io.choerodon.asgard.schedule.enums.TriggerTypeEnum
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import spock.lang.Specification
+
+class LocalTimedTaskSchedulerSpec extends Specification {
+
+    def '测试数据库租约的获取、续期和完成'() {
+        given: '创建H2数据源和租约表'
+        def dataSource = new DriverManagerDataSource('jdbc:h2:mem:asgard_lease;DB_CLOSE_DELAY=-1;MODE=Mysql', 'sa', 'sa')
+        def jdbcTemplate = new JdbcTemplate(dataSource)
+        jdbcTemplate.execute('DROP TABLE IF EXISTS asgard_timed_task_lease')
+        jdbcTemplate.execute('CREATE TABLE asgard_timed_task_lease (name VARCHAR(128) NOT NULL PRIMARY KEY, owner VARCHAR(128) NOT NULL, expire_time BIGINT NOT NULL)')
+        def lease = new DbTimedTaskLease(dataSource)
+
+        expect: '租约未过期时只有持有者能获取'
+        lease.tryAcquire('task', 'a', 60000)
+        !lease.tryAcquire('task', 'b', 60000)
+        lease.tryAcquire('task', 'a', 60000)
+
+        when: '租约过期'
+        jdbcTemplate.update('update asgard_timed_task_lease set expire_time = 0')
+
+        then: '其他实例可以获取'
+        lease.tryAcquire('task', 'b', 60000)
+
+        when: '标记完成'
+        lease.complete('task')
+
+        then: '不再能获取'
+        lease.isCompleted('task')
+        !lease.tryAcquire('task', 'a', 60000)
+        !lease.tryAcquire('task', 'b', 60000)
+    }
+
+    def '测试simple触发器的触发时间'() {
+        given: '重复2次，间隔10秒'
+        def task = new PropertyTimedTask()
+        task.setTriggerType(TriggerTypeEnum.SIMPLE_TRIGGER.getType())
+        task.setRepeatCount(2)
+        task.setRepeatInterval(10L)
+        task.setRepeatIntervalUnit('SECONDS')
+        def trigger = new LocalTimedTaskScheduler.Trigger(task)
+
+        when: '首次计算'
+        def first = trigger.next(1000L)
+        trigger.fired = 1
+        def second = trigger.next(first)
+        trigger.fired = 3
+        def last = trigger.next(21000L)
+
+        then: '首次立即触发，共触发3次'
+        first == 1000L
+        second == 11000L
+        last == -1L
+    }
+
+    def '测试cron触发器兼容quartz年份字段'() {
+        given: '每分钟第0秒触发'
+        def task = new PropertyTimedTask()
+        task.setTriggerType(TriggerTypeEnum.CRON_TRIGGER.getType())
+        task.setCronExpression('0 * * * * ? *')
+        def trigger = new LocalTimedTaskScheduler.Trigger(task)
+
+        when: '计算下一次触发时间'
+        def next = trigger.next(System.currentTimeMillis())
+
+        then: '验证结果'
+        next % 60000 == 0
+        next > System.currentTimeMillis()
+    }
+
+    def '测试本地无法解析的cron不影响启动并继续上报给asgard'() {
+        given: '一个quartz专有的L表达式和一个正常的cron表达式'
+        def badTask = new PropertyTimedTask()
+        badTask.setName('bad')
+        badTask.setTriggerType(TriggerTypeEnum.CRON_TRIGGER.getType())
+        badTask.setCronExpression('0 0 12 L * ?')
+        def goodTask = new PropertyTimedTask()
+        goodTask.setName('good')
+        goodTask.setTriggerType(TriggerTypeEnum.CRON_TRIGGER.getType())
+        goodTask.setCronExpression('0 0 0 1 1 ?')
+        def propertyData = new PropertyData()
+        propertyData.setTimedTasks([badTask, goodTask])
+        def scheduler = new LocalTimedTaskScheduler(propertyData, null, new MemoryTimedTaskLease(), 'instance', 30000L)
+
+        when: '启动本地调度'
+        scheduler.afterSingletonsInstantiated()
+
+        then: '只有正常的任务由本地触发，无法解析的任务仍上报给asgard'
+        noExceptionThrown()
+        scheduler.triggers*.task.name == ['good']
+        propertyData.getTimedTasks()*.name == ['bad']
+
+        cleanup:
+        scheduler.destroy()
+    }
+}
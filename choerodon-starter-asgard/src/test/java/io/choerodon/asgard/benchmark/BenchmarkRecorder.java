@@ -0,0 +1,102 @@
+package io.choerodon.asgard.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录每个任务实例的入队、开始执行和上报终态的时间，以及执行线程的使用情况
+ */
+public class BenchmarkRecorder {
+
+    private final Map<Long, long[]> timings = new ConcurrentHashMap<>();
+
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final CountDownLatch finished;
+
+    public BenchmarkRecorder(int total) {
+        this.finished = new CountDownLatch(total);
+    }
+
+    void enqueued(long id) {
+        timings.put(id, new long[]{System.nanoTime(), 0, 0});
+    }
+
+    void started(long id) {
+        long[] t = timings.get(id);
+        if (t != null) {
+            t[1] = System.nanoTime();
+        }
+        threads.add(Thread.currentThread().getName());
+        int current = active.incrementAndGet();
+        peakActive.accumulateAndGet(current, Math::max);
+    }
+
+    void stopped() {
+        active.decrementAndGet();
+    }
+
+    /**
+     * 收到终态上报，重复上报只记录第一次
+     */
+    void finished(long id, boolean success) {
+        long[] t = timings.get(id);
+        if (t == null) {
+            return;
+        }
+        synchronized (t) {
+            if (t[2] != 0) {
+                return;
+            }
+            t[2] = System.nanoTime();
+        }
+        if (!success) {
+            failed.incrementAndGet();
+        }
+        finished.countDown();
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    public BenchmarkResult toResult(String scenario, long elapsedNanos, int largestPoolSize, int polls) {
+        long[] pickup = new long[timings.size()];
+        long[] completion = new long[timings.size()];
+        int n = 0;
+        for (long[] t : timings.values()) {
+            if (t[1] != 0 && t[2] != 0) {
+                pickup[n] = t[1] - t[0];
+                completion[n] = t[2] - t[0];
+                n++;
+            }
+        }
+        pickup = Arrays.copyOf(pickup, n);
+        completion = Arrays.copyOf(completion, n);
+        Arrays.sort(pickup);
+        Arrays.sort(completion);
+        return new BenchmarkResult(scenario, n, failed.get(), elapsedNanos,
+                percentile(pickup, 50), percentile(pickup, 99),
+                percentile(completion, 50), percentile(completion, 99),
+                threads.size(), peakActive.get(), largestPoolSize, polls);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,112 @@
+package io.choerodon.asgard.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次压测的结果，延迟均为纳秒
+ */
+public class BenchmarkResult {
+
+    private final String scenario;
+
+    private final int completed;
+
+    private final int failed;
+
+    private final long elapsedNanos;
+
+    private final long pickupP50;
+
+    private final long pickupP99;
+
+    private final long completionP50;
+
+    private final long completionP99;
+
+    private final int distinctThreads;
+
+    private final int peakActive;
+
+    private final int largestPoolSize;
+
+    private final int polls;
+
+    BenchmarkResult(String scenario, int completed, int failed, long elapsedNanos,
+                    long pickupP50, long pickupP99, long completionP50, long completionP99,
+                    int distinctThreads, int peakActive, int largestPoolSize, int polls) {
+        this.scenario = scenario;
+        this.completed = completed;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.pickupP50 = pickupP50;
+        this.pickupP99 = pickupP99;
+        this.completionP50 = completionP50;
+        this.completionP99 = completionP99;
+        this.distinctThreads = distinctThreads;
+        this.peakActive = peakActive;
+        this.largestPoolSize = largestPoolSize;
+        this.polls = polls;
+    }
+
+    public static String header() {
+        return String.format("%-44s %8s %6s %10s %10s %10s %10s %10s %7s %6s %6s %6s",
+                "scenario", "done", "failed", "tasks/s", "pick p50", "pick p99", "done p50", "done p99",
+                "threads", "peak", "pool", "polls");
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : completed * 1e9 / elapsedNanos;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getPickupP50() {
+        return pickupP50;
+    }
+
+    public long getPickupP99() {
+        return pickupP99;
+    }
+
+    public long getCompletionP50() {
+        return completionP50;
+    }
+
+    public long getCompletionP99() {
+        return completionP99;
+    }
+
+    public int getDistinctThreads() {
+        return distinctThreads;
+    }
+
+    public int getPeakActive() {
+        return peakActive;
+    }
+
+    public int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    public int getPolls() {
+        return polls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-44s %8d %6d %10.1f %9dms %9dms %9dms %9dms %7d %6d %6d %6d",
+                scenario, completed, failed, getThroughput(),
+                millis(pickupP50), millis(pickupP99), millis(completionP50), millis(completionP99),
+                distinctThreads, peakActive, largestPoolSize, polls);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,49 @@
+package io.choerodon.asgard.benchmark;
+
+import io.choerodon.asgard.saga.annotation.SagaTask;
+import io.choerodon.asgard.schedule.annotation.JobTask;
+
+import java.util.Map;
+
+/**
+ * 压测用的@SagaTask和@JobTask，执行耗时和失败率由当前场景的{@link FaultProfile}决定
+ */
+public class BenchmarkTasks {
+
+    public static final String SAGA_CODE = "asgard-benchmark-saga";
+
+    public static final String SAGA_TASK_CODE = "asgard-benchmark-task";
+
+    public static final String JOB_CODE = "asgard-benchmark-job";
+
+    private static volatile BenchmarkRecorder recorder;
+
+    private static volatile FaultProfile taskFaults = FaultProfile.none();
+
+    static void use(BenchmarkRecorder recorder, FaultProfile taskFaults) {
+        BenchmarkTasks.recorder = recorder;
+        BenchmarkTasks.taskFaults = taskFaults;
+    }
+
+    @SagaTask(code = SAGA_TASK_CODE, sagaCode = SAGA_CODE, seq = 1, description = "consumer benchmark")
+    public String sagaTask(String input) {
+        run(Long.parseLong(input), "sagaTask");
+        return input;
+    }
+
+    @JobTask(code = JOB_CODE, description = "consumer benchmark")
+    public Map<String, Object> jobTask(Map<String, Object> params) {
+        run(((Number) params.get(FakeScheduleConsumerClient.ID_PARAM)).longValue(), "jobTask");
+        return params;
+    }
+
+    private static void run(long id, String operation) {
+        BenchmarkRecorder current = recorder;
+        current.started(id);
+        try {
+            taskFaults.apply(operation);
+        } finally {
+            current.stopped();
+        }
+    }
+}
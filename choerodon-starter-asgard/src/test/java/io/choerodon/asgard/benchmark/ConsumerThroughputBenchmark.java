@@ -0,0 +1,193 @@
+package io.choerodon.asgard.benchmark;
+
+import io.choerodon.asgard.saga.SagaProperties;
+import io.choerodon.asgard.saga.consumer.SagaConsumer;
+import io.choerodon.asgard.saga.consumer.SagaTaskProcessor;
+import io.choerodon.asgard.schedule.JobTaskProcessor;
+import io.choerodon.asgard.schedule.ScheduleConsumer;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SagaConsumer和ScheduleConsumer的端到端吞吐压测，asgard由进程内的Fake客户端替代。
+ * <p>
+ * 每个场景一次性放入全部任务实例，统计每秒完成数、拉取延迟(入队到开始执行)、完成延迟(入队到上报终态)和线程使用情况。
+ * 线程池与自动配置中的一致；定时拉取由压测按pollIntervalMs调用{@code triggerPoll()}驱动，以跳过消费者固定的20秒启动延迟。
+ * <p>
+ * 运行：{@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.choerodon.asgard.benchmark.ConsumerThroughputBenchmark -Dexec.args="2000"}
+ */
+public class ConsumerThroughputBenchmark {
+
+    private static final String SERVICE = "asgard-benchmark";
+
+    private static final String INSTANCE = "asgard-benchmark-instance";
+
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private static boolean registered;
+
+    public static void main(String[] args) throws InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        FaultProfile http = FaultProfile.latency(5, 5);
+        FaultProfile task = FaultProfile.latency(10, 10);
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (Scenario.Type type : Scenario.Type.values()) {
+            for (int maxPollSize : new int[]{20, 200}) {
+                for (int threads : new int[]{5, 20, 50}) {
+                    for (long pollIntervalMs : new long[]{100, 1000}) {
+                        Scenario scenario = new Scenario(type, tasks, maxPollSize, threads, pollIntervalMs)
+                                .withHttpFaults(http, http)
+                                .withTaskFaults(task);
+                        BenchmarkResult result = run(scenario);
+                        results.add(result);
+                        System.out.println(result);
+                    }
+                }
+            }
+        }
+        System.out.println();
+        System.out.println(BenchmarkResult.header());
+        for (BenchmarkResult result : results) {
+            System.out.println(result);
+        }
+    }
+
+    public static BenchmarkResult run(Scenario scenario) throws InterruptedException {
+        register();
+        BenchmarkRecorder recorder = new BenchmarkRecorder(scenario.tasks);
+        BenchmarkTasks.use(recorder, scenario.taskFaults);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(scenario.threads, scenario.threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingDeque<>(99999), new ThreadPoolExecutor.AbortPolicy());
+        ScheduledExecutorService consumerScheduler = Executors.newScheduledThreadPool(1);
+        ScheduledExecutorService driver = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final Runnable poll;
+            final FakeSagaConsumerClient sagaClient;
+            final FakeScheduleConsumerClient scheduleClient;
+            if (scenario.type == Scenario.Type.SAGA) {
+                sagaClient = new FakeSagaConsumerClient(recorder, scenario.pollFaults, scenario.updateFaults);
+                scheduleClient = null;
+                SagaProperties properties = new SagaProperties();
+                properties.setConsumer(new SagaProperties.Consumer());
+                properties.getConsumer().setMaxPollSize(scenario.maxPollSize);
+                SagaConsumer consumer = new SagaConsumer(SERVICE, INSTANCE, new NoopTransactionManager(), executor,
+                        consumerScheduler, null, scenario.pollIntervalMs);
+                consumer.setConsumerClient(sagaClient);
+                consumer.setProperties(properties);
+                sagaClient.enqueue(BenchmarkTasks.SAGA_CODE, BenchmarkTasks.SAGA_TASK_CODE, scenario.tasks);
+                poll = consumer::triggerPoll;
+            } else {
+                sagaClient = null;
+                scheduleClient = new FakeScheduleConsumerClient(recorder, scenario.pollFaults, scenario.updateFaults,
+                        scenario.maxPollSize);
+                ScheduleConsumer consumer = new ScheduleConsumer(SERVICE, INSTANCE, new NoopTransactionManager(), executor,
+                        consumerScheduler, null, scenario.pollIntervalMs);
+                consumer.setScheduleConsumerClient(scheduleClient);
+                scheduleClient.enqueue(BenchmarkTasks.JOB_CODE, scenario.tasks);
+                poll = consumer::triggerPoll;
+            }
+            long start = System.nanoTime();
+            driver.scheduleWithFixedDelay(poll, 0, scenario.pollIntervalMs, TimeUnit.MILLISECONDS);
+            if (!recorder.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println(scenario + " timed out after " + TIMEOUT_SECONDS + "s");
+            }
+            long elapsed = System.nanoTime() - start;
+            int polls = sagaClient != null ? sagaClient.getPolls() : scheduleClient.getPolls();
+            return recorder.toResult(scenario.toString(), elapsed, executor.getLargestPoolSize(), polls);
+        } finally {
+            driver.shutdownNow();
+            consumerScheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 任务方法注册在消费者的静态表中，只注册一次
+     */
+    private static synchronized void register() {
+        if (!registered) {
+            BenchmarkTasks tasks = new BenchmarkTasks();
+            new SagaTaskProcessor().postProcessAfterInitialization(tasks, "benchmarkTasks");
+            new JobTaskProcessor().postProcessAfterInitialization(tasks, "benchmarkTasks");
+            registered = true;
+        }
+    }
+
+    public static class Scenario {
+
+        public enum Type {
+            SAGA,
+            SCHEDULE
+        }
+
+        private final Type type;
+
+        private final int tasks;
+
+        private final int maxPollSize;
+
+        private final int threads;
+
+        private final long pollIntervalMs;
+
+        private FaultProfile pollFaults = FaultProfile.none();
+
+        private FaultProfile updateFaults = FaultProfile.none();
+
+        private FaultProfile taskFaults = FaultProfile.none();
+
+        public Scenario(Type type, int tasks, int maxPollSize, int threads, long pollIntervalMs) {
+            this.type = type;
+            this.tasks = tasks;
+            this.maxPollSize = maxPollSize;
+            this.threads = threads;
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public Scenario withHttpFaults(FaultProfile pollFaults, FaultProfile updateFaults) {
+            this.pollFaults = pollFaults;
+            this.updateFaults = updateFaults;
+            return this;
+        }
+
+        public Scenario withTaskFaults(FaultProfile taskFaults) {
+            this.taskFaults = taskFaults;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return type + " poll=" + maxPollSize + " threads=" + threads + " interval=" + pollIntervalMs + "ms";
+        }
+    }
+
+    private static class NoopTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            // 压测不涉及数据库
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            // 压测不涉及数据库
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.choerodon.asgard.benchmark;
+
+import io.choerodon.asgard.common.UpdateStatusDTO;
+import io.choerodon.asgard.saga.SagaDefinition;
+import io.choerodon.asgard.saga.dto.PollSagaTaskInstanceDTO;
+import io.choerodon.asgard.saga.dto.SagaTaskInstanceDTO;
+import io.choerodon.asgard.saga.feign.SagaConsumerClient;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内模拟asgard的saga任务接口：拉取时从待执行队列中取出至多maxPollSize个实例，
+ * 收到终态上报后记录完成时间。各接口的耗时和失败率可分别配置
+ */
+public class FakeSagaConsumerClient implements SagaConsumerClient {
+
+    private final Queue<SagaTaskInstanceDTO> pending = new ConcurrentLinkedQueue<>();
+
+    private final Map<Long, SagaTaskInstanceDTO> instances = new ConcurrentHashMap<>();
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private final BenchmarkRecorder recorder;
+
+    private final FaultProfile pollFaults;
+
+    private final FaultProfile updateFaults;
+
+    public FakeSagaConsumerClient(BenchmarkRecorder recorder, FaultProfile pollFaults, FaultProfile updateFaults) {
+        this.recorder = recorder;
+        this.pollFaults = pollFaults;
+        this.updateFaults = updateFaults;
+    }
+
+    /**
+     * 添加待执行的任务实例，input为实例id，由压测任务据此记录开始时间
+     */
+    public void enqueue(String sagaCode, String taskCode, int count) {
+        for (int i = 0; i < count; i++) {
+            long id = idGenerator.incrementAndGet();
+            SagaTaskInstanceDTO dto = new SagaTaskInstanceDTO();
+            dto.setId(id);
+            dto.setSagaCode(sagaCode);
+            dto.setTaskCode(taskCode);
+            dto.setInput(String.valueOf(id));
+            dto.setObjectVersionNumber(1L);
+            dto.setStatus(SagaDefinition.TaskInstanceStatus.RUNNING.name());
+            instances.put(id, dto);
+            recorder.enqueued(id);
+            pending.add(dto);
+        }
+    }
+
+    public int getPolls() {
+        return polls.get();
+    }
+
+    @Override
+    public List<SagaTaskInstanceDTO> pollBatch(PollSagaTaskInstanceDTO pollSagaTaskInstanceDTO) {
+        polls.incrementAndGet();
+        pollFaults.apply("saga.pollBatch");
+        Integer maxPollSize = pollSagaTaskInstanceDTO.getMaxPollSize();
+        int limit = maxPollSize == null ? Integer.MAX_VALUE : maxPollSize;
+        List<SagaTaskInstanceDTO> result = new ArrayList<>();
+        SagaTaskInstanceDTO dto;
+        while (result.size() < limit && (dto = pending.poll()) != null) {
+            result.add(dto);
+        }
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    @Override
+    public ResponseEntity<String> updateStatus(Long id, UpdateStatusDTO statusDTO) {
+        updateFaults.apply("saga.updateStatus");
+        recorder.finished(id, SagaDefinition.TaskInstanceStatus.COMPLETED.name().equals(statusDTO.getStatus()));
+        return ResponseEntity.ok().build();
+    }
+
+    @Override
+    public void updateStatusFailureCallback(Long id, String status) {
+        updateFaults.apply("saga.updateStatusFailureCallback");
+    }
+
+    @Override
+    public SagaTaskInstanceDTO queryStatus(Long id) {
+        return instances.get(id);
+    }
+}
@@ -0,0 +1,84 @@
+package io.choerodon.asgard.benchmark;
+
+import io.choerodon.asgard.common.UpdateStatusDTO;
+import io.choerodon.asgard.schedule.QuartzDefinition;
+import io.choerodon.asgard.schedule.dto.PollScheduleInstanceDTO;
+import io.choerodon.asgard.schedule.dto.ScheduleInstanceConsumerDTO;
+import io.choerodon.asgard.schedule.feign.ScheduleConsumerClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内模拟asgard的定时任务接口，拉取时每次最多返回batchSize个实例，只返回消费者声明的方法
+ */
+public class FakeScheduleConsumerClient implements ScheduleConsumerClient {
+
+    public static final String ID_PARAM = "benchmarkId";
+
+    private final Queue<ScheduleInstanceConsumerDTO> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private final BenchmarkRecorder recorder;
+
+    private final FaultProfile pollFaults;
+
+    private final FaultProfile updateFaults;
+
+    private final int batchSize;
+
+    public FakeScheduleConsumerClient(BenchmarkRecorder recorder, FaultProfile pollFaults,
+                                      FaultProfile updateFaults, int batchSize) {
+        this.recorder = recorder;
+        this.pollFaults = pollFaults;
+        this.updateFaults = updateFaults;
+        this.batchSize = batchSize;
+    }
+
+    public void enqueue(String method, int count) {
+        for (int i = 0; i < count; i++) {
+            long id = idGenerator.incrementAndGet();
+            ScheduleInstanceConsumerDTO dto = new ScheduleInstanceConsumerDTO();
+            dto.setId(id);
+            dto.setMethod(method);
+            dto.setExecuteParams("{\"" + ID_PARAM + "\":" + id + "}");
+            dto.setObjectVersionNumber(1L);
+            recorder.enqueued(id);
+            pending.add(dto);
+        }
+    }
+
+    public int getPolls() {
+        return polls.get();
+    }
+
+    @Override
+    public List<ScheduleInstanceConsumerDTO> pollBatch(PollScheduleInstanceDTO pollScheduleInstanceDTO) {
+        polls.incrementAndGet();
+        pollFaults.apply("schedule.pollBatch");
+        List<ScheduleInstanceConsumerDTO> result = new ArrayList<>();
+        for (ScheduleInstanceConsumerDTO dto : pending) {
+            if (result.size() >= batchSize) {
+                break;
+            }
+            if (pollScheduleInstanceDTO.getMethods().contains(dto.getMethod()) && pending.remove(dto)) {
+                result.add(dto);
+            }
+        }
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    @Override
+    public void updateStatus(Long id, UpdateStatusDTO statusDTO) {
+        updateFaults.apply("schedule.updateStatus");
+        recorder.finished(id, QuartzDefinition.InstanceStatus.COMPLETED.name().equals(statusDTO.getStatus()));
+    }
+}
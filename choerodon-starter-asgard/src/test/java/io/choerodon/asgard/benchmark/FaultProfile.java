@@ -0,0 +1,58 @@
+package io.choerodon.asgard.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟调用的耗时与失败：每次调用耗时为latencyMs加上[0, jitterMs)的随机抖动，并以failureRate的概率抛出异常
+ */
+public class FaultProfile {
+
+    private static final FaultProfile NONE = new FaultProfile(0, 0, 0);
+
+    private final long latencyMs;
+
+    private final long jitterMs;
+
+    private final double failureRate;
+
+    public FaultProfile(long latencyMs, long jitterMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+    }
+
+    public static FaultProfile none() {
+        return NONE;
+    }
+
+    public static FaultProfile latency(long latencyMs, long jitterMs) {
+        return new FaultProfile(latencyMs, jitterMs, 0);
+    }
+
+    /**
+     * 按配置等待并注入失败
+     *
+     * @param operation 调用名称，用于异常信息
+     */
+    public void apply(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs) : 0);
+        if (delay > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            throw new IllegalStateException("injected failure: " + operation);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FaultProfile{" +
+                "latencyMs=" + latencyMs +
+                ", jitterMs=" + jitterMs +
+                ", failureRate=" + failureRate +
+                '}';
+    }
+}
@@ -0,0 +1,23 @@
+package io.choerodon.asgard.preoperty.saga;
+
+public class Owner {
+
+    private String name;
+    private Pet pet;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Pet getPet() {
+        return pet;
+    }
+
+    public void setPet(Pet pet) {
+        this.pet = pet;
+    }
+}
@@ -0,0 +1,23 @@
+package io.choerodon.asgard.preoperty.saga;
+
+public class Pet {
+
+    private String name;
+    private Owner owner;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Owner getOwner() {
+        return owner;
+    }
+
+    public void setOwner(Owner owner) {
+        this.owner = owner;
+    }
+}
@@ -0,0 +1,34 @@
+package io.choerodon.asgard.preoperty.saga;
+
+import java.util.List;
+
+public class TreeNode {
+
+    private String name;
+    private TreeNode parent;
+    private List<TreeNode> children;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public TreeNode getParent() {
+        return parent;
+    }
+
+    public void setParent(TreeNode parent) {
+        this.parent = parent;
+    }
+
+    public List<TreeNode> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<TreeNode> children) {
+        this.children = children;
+    }
+}
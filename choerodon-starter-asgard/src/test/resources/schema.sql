@@ -6,4 +6,15 @@ CREATE TABLE `saga_task_instance_record` (
   PRIMARY KEY (`id`)
 )
   ENGINE = InnoDB
-  DEFAULT CHARSET = utf8;
\ No newline at end of file
+  DEFAULT CHARSET = utf8;
+
+DROP TABLE IF EXISTS `asgard_timed_task_lease`;
+
+CREATE TABLE `asgard_timed_task_lease` (
+  `name`        VARCHAR(128) NOT NULL,
+  `owner`       VARCHAR(128) NOT NULL,
+  `expire_time` BIGINT(20)   NOT NULL,
+  PRIMARY KEY (`name`)
+)
+  ENGINE = InnoDB
+  DEFAULT CHARSET = utf8;